@@ -0,0 +1,24 @@
+package top.yukuii.apijava.bench;
+
+import java.util.List;
+import java.util.Map;
+
+import top.yukuii.apijava.util.JwtUtil;
+
+/**
+ * 基准测试共用的数据
+ */
+final class BenchmarkSupport {
+
+    static final String USER_ID = "3f2b8c1e-6a4d-4f7e-9b2a-1c5d8e7f6a90";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 与登录接口签发的Token结构一致：角色 + 纪元
+     */
+    static String newToken() {
+        return JwtUtil.createToken(USER_ID, Map.of("roles", List.of("USER"), "epoch", 0L));
+    }
+}
@@ -0,0 +1,101 @@
+package top.yukuii.apijava.bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import top.yukuii.apijava.util.InMemoryRevocationStore;
+import top.yukuii.apijava.util.TimeSlicedBloomFilter;
+import top.yukuii.apijava.util.TokenBlacklistUtil;
+import top.yukuii.apijava.util.TokenDigest;
+
+/**
+ * 黑名单查询的并发性能
+ * readOnly：多线程只读；contended：3个线程查询的同时1个线程持续登出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlacklistBenchmark {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private static final int POOL_SIZE = 1 << 16;
+
+    /**
+     * 查询的Token中已被拉黑的比例（百分比）
+     */
+    @Param({"1"})
+    private int revokedPercent;
+
+    @Param({"true", "false"})
+    private boolean bloom;
+
+    private TokenDigest[] digests;
+
+    private long expiration;
+
+    /**
+     * 每轮迭代使用新的存储，避免持续登出让存储无限增长
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        expiration = System.currentTimeMillis() + HOUR_MILLIS;
+        TimeSlicedBloomFilter bloomFilter = bloom
+                ? new TimeSlicedBloomFilter(4 * HOUR_MILLIS, 24 * HOUR_MILLIS, 100_000L, 0.01)
+                : null;
+        TokenBlacklistUtil.setStore(new InMemoryRevocationStore(bloomFilter));
+
+        digests = new TokenDigest[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            digests[i] = TokenDigest.of("token-" + i);
+            if (i % 100 < revokedPercent) {
+                TokenBlacklistUtil.addToBlacklist(digests[i], expiration);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean readOnly() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public boolean contendedLookup() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void contendedRevoke() {
+        TokenDigest digest = TokenDigest.of("revoked-" + ThreadLocalRandom.current().nextLong());
+        TokenBlacklistUtil.addToBlacklist(digest, expiration);
+    }
+
+    private boolean lookup() {
+        TokenDigest digest = digests[ThreadLocalRandom.current().nextInt(POOL_SIZE)];
+        return TokenBlacklistUtil.isBlacklisted(digest, expiration);
+    }
+}
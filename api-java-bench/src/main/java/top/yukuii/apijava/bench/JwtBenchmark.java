@@ -0,0 +1,46 @@
+package top.yukuii.apijava.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.jsonwebtoken.Claims;
+import top.yukuii.apijava.util.JwtUtil;
+
+/**
+ * Token签发与解析（不经过已验签缓存）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = BenchmarkSupport.newToken();
+    }
+
+    @Benchmark
+    public String createToken() {
+        return JwtUtil.createToken(BenchmarkSupport.USER_ID);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return JwtUtil.parseToken(token);
+    }
+}
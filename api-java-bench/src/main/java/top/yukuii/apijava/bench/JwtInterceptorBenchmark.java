@@ -0,0 +1,67 @@
+package top.yukuii.apijava.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import top.yukuii.apijava.interceptor.JwtInterceptor;
+import top.yukuii.apijava.service.AuthService;
+import top.yukuii.apijava.util.JwtUtil;
+
+/**
+ * 拦截器完整链路：提取Token + 校验 + 写入请求属性和请求上下文 + 请求结束解绑
+ * 每次调用使用新的请求对象，与真实请求一致
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtInterceptorBenchmark {
+
+    private JwtInterceptor interceptor;
+
+    private String authorization;
+
+    private String invalidAuthorization;
+
+    @Setup
+    public void setUp() {
+        // 校验路径不访问数据库
+        interceptor = new JwtInterceptor(new AuthService(null, null, null, null, null));
+        String token = BenchmarkSupport.newToken();
+        authorization = JwtUtil.TOKEN_PREFIX + token;
+        invalidAuthorization = JwtUtil.TOKEN_PREFIX + token.substring(0, token.length() - 4) + "AAAA";
+    }
+
+    @Benchmark
+    public boolean validToken() throws Exception {
+        return preHandle(authorization);
+    }
+
+    @Benchmark
+    public boolean invalidToken() throws Exception {
+        return preHandle(invalidAuthorization);
+    }
+
+    private boolean preHandle(String header) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/transaction/page");
+        request.addHeader(JwtUtil.HEADER_TOKEN_KEY, header);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean passed = interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        return passed;
+    }
+}
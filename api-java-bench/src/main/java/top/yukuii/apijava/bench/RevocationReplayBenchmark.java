@@ -0,0 +1,102 @@
+package top.yukuii.apijava.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import top.yukuii.apijava.util.InMemoryRevocationStore;
+import top.yukuii.apijava.util.RevocationJournal;
+import top.yukuii.apijava.util.TimeSlicedBloomFilter;
+import top.yukuii.apijava.util.TokenDigest;
+
+/**
+ * 启动时回放吊销日志的耗时
+ * journal：只顺序读取分段；store：按记录数预设容量后写入内存黑名单（含布隆过滤器和时间轮），与启动流程一致
+ * store的耗时主要是百万个对象的分配和GC，固定堆大小排除堆扩张的影响
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RevocationReplayBenchmark {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    @Param({"1000000"})
+    private int records;
+
+    @Param({"journal", "store"})
+    private String target;
+
+    private Path directory;
+
+    private RevocationJournal journal;
+
+    private InMemoryRevocationStore store;
+
+    /**
+     * 写入日志，过期时间分布在未来24小时内（与Token有效期一致）
+     */
+    @Setup(Level.Trial)
+    public void writeJournal() throws Exception {
+        directory = Files.createTempDirectory("revocation-replay");
+        RevocationJournal writer = new RevocationJournal(directory, 100_000L, records);
+        writer.replay((digest, expiration) -> { });
+        writer.start();
+        long now = System.currentTimeMillis();
+        CompletableFuture<?>[] written = new CompletableFuture<?>[records];
+        for (int i = 0; i < records; i++) {
+            written[i] = writer.append(TokenDigest.of("token-" + i), now + HOUR_MILLIS + i % (23 * HOUR_MILLIS));
+        }
+        CompletableFuture.allOf(written).get();
+        writer.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        journal = new RevocationJournal(directory, 100_000L, 1);
+        store = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJournal() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int replay() throws IOException {
+        if ("store".equals(target)) {
+            // 与AuthConfig一致：按日志记录数预设容量后回放
+            store = new InMemoryRevocationStore(new TimeSlicedBloomFilter(4 * HOUR_MILLIS, 24 * HOUR_MILLIS, 100_000L, 0.01),
+                    journal.recordCount());
+            return journal.replay(store::restore);
+        }
+        long[] checksum = new long[1];
+        int replayed = journal.replay((digest, expiration) -> checksum[0] += expiration);
+        return replayed + (int) checksum[0];
+    }
+}
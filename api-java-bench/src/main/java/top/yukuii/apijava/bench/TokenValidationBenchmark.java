@@ -0,0 +1,49 @@
+package top.yukuii.apijava.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import top.yukuii.apijava.util.TokenManager;
+import top.yukuii.apijava.util.VerifiedTokenCache;
+
+/**
+ * 完整的Token校验：验签（或命中缓存）+ 过期 + 黑名单 + 纪元
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenValidationBenchmark {
+
+    /**
+     * 是否启用已验签Token缓存
+     */
+    @Param({"true", "false"})
+    private boolean tokenCache;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        VerifiedTokenCache.configure(tokenCache, VerifiedTokenCache.DEFAULT_MAX_SIZE);
+        token = BenchmarkSupport.newToken();
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return TokenManager.isTokenValid(token);
+    }
+}
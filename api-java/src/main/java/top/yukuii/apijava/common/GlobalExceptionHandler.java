@@ -1,6 +1,9 @@
 package top.yukuii.apijava.common;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -19,4 +22,15 @@ public class GlobalExceptionHandler {
         log.error(e.getMessage(), e);
         return Result.error(e.getCode(), e.getMessage());
     }
+
+    /**
+     * 限流拒绝属于正常的过载保护，不打印堆栈
+     */
+    @ExceptionHandler(value = TooManyRequestsException.class)
+    public ResponseEntity<Result<Void>> handleTooManyRequestsException(TooManyRequestsException e) {
+        log.warn(e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Result.error(e.getCode(), e.getMessage()));
+    }
 }
@@ -0,0 +1,20 @@
+package top.yukuii.apijava.common;
+
+import lombok.Getter;
+
+/**
+ * 请求过多异常，响应HTTP 429并带Retry-After头
+ */
+@Getter
+public class TooManyRequestsException extends BusinessException {
+
+    /**
+     * 建议客户端重试的等待时间（秒）
+     */
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(429, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,161 @@
+package top.yukuii.apijava.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import cn.hutool.core.util.StrUtil;
+import io.lettuce.core.RedisClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.util.InMemoryRevocationStore;
+import top.yukuii.apijava.util.JwtKeyRing;
+import top.yukuii.apijava.util.JwtUtil;
+import top.yukuii.apijava.util.RedisRevocationStore;
+import top.yukuii.apijava.util.RevocationJournal;
+import top.yukuii.apijava.util.RevocationStore;
+import top.yukuii.apijava.util.TimeSlicedBloomFilter;
+import top.yukuii.apijava.util.TokenBlacklistUtil;
+import top.yukuii.apijava.util.VerifiedTokenCache;
+
+/**
+ * 认证配置类
+ * 把配置应用到Token相关的工具类上，并注册监控指标
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class AuthConfig {
+
+    /**
+     * Token最长有效期，决定布隆过滤器的分片数量
+     */
+    private static final long MAX_TOKEN_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final AuthProperties authProperties;
+
+    private TimeSlicedBloomFilter bloomFilter;
+
+    private RevocationStore revocationStore;
+
+    private RedisClient redisClient;
+
+    @PostConstruct
+    public void init() throws IOException {
+        initKeyRing(authProperties.getJwt());
+
+        AuthProperties.TokenCache tokenCache = authProperties.getTokenCache();
+        VerifiedTokenCache.configure(tokenCache.isEnabled(), tokenCache.getMaxSize());
+
+        revocationStore = createRevocationStore(authProperties.getBlacklist());
+        revocationStore.start();
+        TokenBlacklistUtil.setStore(revocationStore);
+        TokenBlacklistUtil.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        TokenBlacklistUtil.shutdown();
+        revocationStore.close();
+        if (redisClient != null) {
+            redisClient.shutdown();
+        }
+    }
+
+    /**
+     * 从配置加载JWT密钥环，未配置时使用JwtUtil的默认密钥
+     */
+    private void initKeyRing(AuthProperties.Jwt jwt) {
+        if (jwt.getKeys().isEmpty()) {
+            log.warn("未配置auth.jwt.keys，使用默认JWT密钥");
+            return;
+        }
+        String legacyKid = StrUtil.emptyToNull(jwt.getLegacyKid());
+        JwtUtil.setKeyRing(new JwtKeyRing(jwt.getKeys(), jwt.getActiveKid(), legacyKid));
+        log.info("JWT密钥环已加载，共 {} 个密钥，签名kid: {}", jwt.getKeys().size(), jwt.getActiveKid());
+    }
+
+    /**
+     * 根据配置创建吊销存储，单机使用内存存储（可选吊销日志），多节点使用Redis存储
+     */
+    private RevocationStore createRevocationStore(AuthProperties.Blacklist blacklist) throws IOException {
+        AuthProperties.Bloom bloom = blacklist.getBloom();
+        if (bloom.isEnabled()) {
+            bloomFilter = new TimeSlicedBloomFilter(bloom.getSlice().toMillis(), MAX_TOKEN_TTL_MILLIS,
+                    bloom.getExpectedInsertions(), bloom.getFalsePositiveRate());
+        }
+
+        if (blacklist.getStore() == AuthProperties.StoreType.REDIS) {
+            AuthProperties.Redis redis = blacklist.getRedis();
+            redisClient = RedisClient.create(redis.getUri());
+            log.info("使用Redis吊销存储: {}", redis.getKey());
+            return new RedisRevocationStore(redisClient, redis.getKey(), redis.getChannel(),
+                    redis.getBatchSize(), redis.getQueueCapacity(), new InMemoryRevocationStore(bloomFilter));
+        }
+
+        return createMemoryStore(blacklist.getJournal());
+    }
+
+    /**
+     * 创建内存存储，回放吊销日志并开启持久化
+     */
+    private InMemoryRevocationStore createMemoryStore(AuthProperties.Journal journal) throws IOException {
+        if (!journal.isEnabled()) {
+            return new InMemoryRevocationStore(bloomFilter);
+        }
+        RevocationJournal revocationJournal = new RevocationJournal(Path.of(journal.getDirectory()),
+                journal.getSegmentRecords(), journal.getQueueCapacity());
+        long start = System.currentTimeMillis();
+        // 按日志记录数预设容量，百万级记录回放时哈希表不用反复扩容
+        InMemoryRevocationStore memoryStore = new InMemoryRevocationStore(bloomFilter, revocationJournal.recordCount());
+        int restored = revocationJournal.replay(memoryStore::restore);
+        log.info("吊销日志回放完成，恢复 {} 条记录，耗时 {}ms", restored, System.currentTimeMillis() - start);
+        revocationJournal.start();
+        memoryStore.setJournal(revocationJournal);
+        return memoryStore;
+    }
+
+    /**
+     * 已验签Token缓存的命中/未命中/淘汰指标
+     */
+    @Bean
+    public MeterBinder verifiedTokenCacheMetrics() {
+        return registry -> CaffeineCacheMetrics.monitor(registry, VerifiedTokenCache.getCache(), "jwt.verified-token");
+    }
+
+    /**
+     * 黑名单大小和布隆过滤器误判率指标
+     */
+    @Bean
+    public MeterBinder tokenBlacklistMetrics() {
+        return registry -> {
+            Gauge.builder("jwt.blacklist.size", TokenBlacklistUtil::getBlacklistSize)
+                    .description("黑名单中未过期的Token数量")
+                    .register(registry);
+            if (bloomFilter == null) {
+                return;
+            }
+            Gauge.builder("jwt.blacklist.bloom.fpp.estimated", bloomFilter,
+                            filter -> filter.estimatedFalsePositiveRate(System.currentTimeMillis()))
+                    .description("根据bit填充率估算的误判率")
+                    .register(registry);
+            Gauge.builder("jwt.blacklist.bloom.fpp.observed", bloomFilter, TimeSlicedBloomFilter::observedFalsePositiveRate)
+                    .description("实际观测到的误判率")
+                    .register(registry);
+            FunctionCounter.builder("jwt.blacklist.bloom.lookups", bloomFilter, TimeSlicedBloomFilter::getLookups)
+                    .register(registry);
+            FunctionCounter.builder("jwt.blacklist.bloom.negatives", bloomFilter, TimeSlicedBloomFilter::getNegatives)
+                    .register(registry);
+            FunctionCounter.builder("jwt.blacklist.bloom.false-positives", bloomFilter, TimeSlicedBloomFilter::getFalsePositives)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,290 @@
+package top.yukuii.apijava.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 认证相关配置
+ * 对应application.yml中的auth前缀
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "auth")
+public class AuthProperties {
+
+    /**
+     * JWT签名密钥配置
+     */
+    private Jwt jwt = new Jwt();
+
+    /**
+     * 已验签Token缓存配置
+     */
+    private TokenCache tokenCache = new TokenCache();
+
+    /**
+     * 黑名单配置
+     */
+    private Blacklist blacklist = new Blacklist();
+
+    /**
+     * 用户Token纪元配置
+     */
+    private Epoch epoch = new Epoch();
+
+    /**
+     * 密码哈希线程池配置
+     */
+    private PasswordHash passwordHash = new PasswordHash();
+
+    /**
+     * 用户身份缓存配置
+     */
+    private UserCache userCache = new UserCache();
+
+    /**
+     * 用户名/邮箱/手机号可用性索引配置
+     */
+    private Availability availability = new Availability();
+
+    @Data
+    public static class Jwt {
+
+        /**
+         * 签发新Token使用的kid
+         */
+        private String activeKid = "default";
+
+        /**
+         * 验证没有kid的旧Token使用的kid，为空表示不接受没有kid的Token
+         */
+        private String legacyKid = "default";
+
+        /**
+         * 密钥环：kid -> 密钥（至少32字节）
+         * 轮换时先加入新密钥并切换active-kid，旧密钥保留到其签发的Token全部过期后再移除
+         */
+        private Map<String, String> keys = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class TokenCache {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最大缓存数量
+         */
+        private long maxSize = 10_000L;
+    }
+
+    @Data
+    public static class Epoch {
+
+        /**
+         * 从数据库刷新纪元的间隔，多节点部署时其他节点在该间隔内生效
+         */
+        private Duration refreshInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class PasswordHash {
+
+        /**
+         * 计算BCrypt的线程数，0表示CPU核数的一半（至少1个）
+         */
+        private int threads = 0;
+
+        /**
+         * 排队上限，超过后直接返回429
+         */
+        private int queueCapacity = 32;
+
+        /**
+         * 单个请求最长等待时间（排队 + 计算），超时返回429
+         */
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        /**
+         * 固定的BCrypt强度，0表示启动时按target-time校准
+         */
+        private int cost = 0;
+
+        /**
+         * 校准目标：单次哈希耗时不超过该值
+         */
+        private Duration targetTime = Duration.ofMillis(200);
+
+        /**
+         * 校准的最小强度
+         */
+        private int minCost = 10;
+
+        /**
+         * 校准的最大强度
+         */
+        private int maxCost = 16;
+
+        /**
+         * 后台重新计算哈希的排队上限
+         */
+        private int rehashQueueCapacity = 1024;
+    }
+
+    @Data
+    public static class UserCache {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最大缓存用户数（每个用户最多占用用户名、邮箱、手机号三项）
+         */
+        private long maxSize = 30_000L;
+
+        /**
+         * 写入后的过期时间，多节点部署时其他节点的修改最晚在该时间后生效
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Availability {
+
+        /**
+         * 是否启用，关闭后每次都查询数据库
+         */
+        private boolean enabled = true;
+
+        /**
+         * 预计标识数量（每个用户最多3个），实际数量超过后按两倍重建
+         */
+        private long expectedInsertions = 300_000L;
+
+        /**
+         * 布隆过滤器目标误判率
+         */
+        private double falsePositiveRate = 0.01;
+
+        /**
+         * 从数据库增量同步其他节点注册用户的间隔
+         */
+        private Duration refreshInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Blacklist {
+
+        /**
+         * 吊销存储类型：memory-单机内存，redis-多节点共享
+         */
+        private StoreType store = StoreType.MEMORY;
+
+        /**
+         * Redis吊销存储配置，store为redis时生效
+         */
+        private Redis redis = new Redis();
+
+        /**
+         * 前置布隆过滤器配置
+         */
+        private Bloom bloom = new Bloom();
+
+        /**
+         * 吊销日志配置，store为memory时生效
+         */
+        private Journal journal = new Journal();
+    }
+
+    @Data
+    public static class Bloom {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每个分片覆盖的过期时间窗口，必须大于0（至少1毫秒）
+         */
+        private Duration slice = Duration.ofHours(4);
+
+        /**
+         * 每个分片预计拉黑的Token数量
+         */
+        private long expectedInsertions = 100_000L;
+
+        /**
+         * 目标误判率
+         */
+        private double falsePositiveRate = 0.01;
+    }
+
+    @Data
+    public static class Journal {
+
+        /**
+         * 是否启用，启用后重启不会让已登出的Token重新生效
+         */
+        private boolean enabled = false;
+
+        /**
+         * 日志目录
+         */
+        private String directory = "data/revocations";
+
+        /**
+         * 单个分段最多记录数
+         */
+        private long segmentRecords = 100_000L;
+
+        /**
+         * 待写入队列容量
+         */
+        private int queueCapacity = 65_536;
+    }
+
+    public enum StoreType {
+        MEMORY, REDIS
+    }
+
+    @Data
+    public static class Redis {
+
+        /**
+         * Redis连接地址
+         */
+        private String uri = "redis://localhost:6379";
+
+        /**
+         * 存放吊销记录的有序集合key
+         */
+        private String key = "auth:revoked";
+
+        /**
+         * 吊销消息频道
+         */
+        private String channel = "auth:revocations";
+
+        /**
+         * 单批pipeline最多吊销记录数
+         */
+        private int batchSize = 256;
+
+        /**
+         * 待写入队列容量
+         */
+        private int queueCapacity = 65_536;
+    }
+}
@@ -0,0 +1,181 @@
+package top.yukuii.apijava.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * 账单相关配置
+ * 对应application.yml中的transaction前缀
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "transaction")
+public class TransactionProperties {
+
+    /**
+     * 分页总数缓存配置
+     */
+    private CountCache countCache = new CountCache();
+
+    /**
+     * 关键词搜索配置
+     */
+    private Search search = new Search();
+
+    /**
+     * 批量导入配置
+     */
+    private BulkImport bulkImport = new BulkImport();
+
+    /**
+     * 按月分区维护配置
+     */
+    private Partition partition = new Partition();
+
+    /**
+     * 新增账单组提交配置
+     */
+    private GroupCommit groupCommit = new GroupCommit();
+
+    @Data
+    public static class CountCache {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最多缓存的用户数
+         */
+        private long maxUsers = 10_000L;
+
+        /**
+         * 过期时间，多节点部署时其他节点新增的记录最晚在该时间后计入
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * 估算总数低于该值时改为精确计数（小结果集精确计数本身很快）
+         */
+        private long approximateThreshold = 10_000L;
+    }
+
+    @Data
+    public static class Search {
+
+        /**
+         * 搜索实现，AUTO表示有搜索生成列（Postgres）时使用数据库，否则使用进程内n-gram索引
+         */
+        private SearchMode mode = SearchMode.AUTO;
+
+        /**
+         * 进程内n-gram索引最多缓存的用户数
+         */
+        private long ngramMaxUsers = 100L;
+
+        /**
+         * 进程内n-gram索引的过期时间，多节点部署时其他节点新增的记录最晚在该时间后可搜索
+         */
+        private Duration ngramTtl = Duration.ofMinutes(10);
+
+        /**
+         * n-gram索引单次搜索最多返回的记录数（作为IN条件的参数，不能超过30000），命中更多时只保留最新的记录
+         */
+        private int ngramMaxCandidates = 10_000;
+    }
+
+    @Data
+    public static class BulkImport {
+
+        /**
+         * 每批插入的行数（多行INSERT，不能超过TransactionMapper.MAX_BATCH_SIZE）
+         */
+        private int batchSize = 1000;
+
+        /**
+         * 单次导入最多返回的失败行数，超过的只计数
+         */
+        private int maxErrors = 1000;
+
+        /**
+         * 导入结束后保留进度的时间
+         */
+        private Duration progressTtl = Duration.ofHours(1);
+
+        /**
+         * 最多保留的已结束导入进度数（每个最多max-errors条失败行），超过时淘汰；进行中的导入不受限制
+         */
+        private int maxProgresses = 200;
+    }
+
+    @Data
+    public static class Partition {
+
+        /**
+         * 是否启用分区维护（transaction不是分区表时自动跳过）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 提前创建的月份数（不含当月），也是可写入的最晚月份
+         */
+        private int monthsAhead = 3;
+
+        /**
+         * 保留的月份数（含当月），更早的分区从transaction分离并改名为transaction_archive_yyyyMM，0表示不分离
+         * 设置后不再接受更早日期的记录（如批量导入），避免刚写入就被归档
+         */
+        private int retentionMonths = 0;
+
+        /**
+         * 检查间隔
+         */
+        private Duration checkInterval = Duration.ofHours(6);
+    }
+
+    @Data
+    public static class GroupCommit {
+
+        /**
+         * 是否启用，关闭时每条记录单独提交
+         */
+        private boolean enabled = false;
+
+        /**
+         * 每批最多的记录数（多行INSERT，不能超过TransactionMapper.MAX_BATCH_SIZE）
+         */
+        private int maxBatchSize = 200;
+
+        /**
+         * 不满一批时最多等待的时间，0表示只合并已经排队的记录
+         */
+        private Duration maxDelay = Duration.ofMillis(2);
+
+        /**
+         * 等待写入的队列容量
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * 队列已满时最多等待的时间，超时返回503
+         */
+        private Duration enqueueTimeout = Duration.ofSeconds(1);
+
+        /**
+         * 等待所在批次提交的最长时间，超时返回503（记录仍可能已写入）
+         */
+        private Duration commitTimeout = Duration.ofSeconds(10);
+    }
+
+    /**
+     * 关键词搜索实现
+     */
+    public enum SearchMode {
+        AUTO, DATABASE, NGRAM
+    }
+}
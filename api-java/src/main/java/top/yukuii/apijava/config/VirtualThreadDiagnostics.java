@@ -0,0 +1,155 @@
+package top.yukuii.apijava.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.util.PinningScanner;
+import top.yukuii.apijava.util.PinningScanner.PinningSite;
+
+/**
+ * 虚拟线程诊断
+ * 开启spring.threads.virtual.enabled后生效：
+ * 启动时扫描请求路径上的Druid、MyBatis、PostgreSQL驱动和本项目代码，报告synchronized方法和代码块（可能的钉住点）；
+ * 运行时用JFR监听jdk.VirtualThreadPinned事件，虚拟线程实际钉住载体线程超过阈值时记录位置和耗时
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadDiagnostics {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /**
+     * 请求路径经过的包
+     */
+    private static final List<String> SCANNED_PACKAGES = List.of(
+            "top.yukuii.apijava",
+            "com.alibaba.druid.pool",
+            "org.apache.ibatis.executor",
+            "org.apache.ibatis.session",
+            "org.apache.ibatis.transaction",
+            "org.mybatis.spring",
+            "com.baomidou.mybatisplus.extension.plugins",
+            "org.postgresql.core",
+            "org.postgresql.jdbc");
+
+    /**
+     * 钉住时间超过该值才产生事件（与JFR默认配置一致）
+     */
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+
+    /**
+     * 最多记录的不同钉住位置数，超过后只计入指标不再打印日志
+     */
+    private static final int MAX_LOGGED_SITES = 100;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recording;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        startPinnedRecording();
+        // 扫描需要读取依赖jar中的字节码，放到后台执行，不延迟启动
+        Thread scanner = new Thread(this::reportPinningSites, "pinning-scanner");
+        scanner.setDaemon(true);
+        scanner.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void startPinnedRecording() {
+        try {
+            recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(PINNED_THRESHOLD).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.startAsync();
+            log.info("虚拟线程已启用，开始监听钉住事件（阈值 {} ms）", PINNED_THRESHOLD.toMillis());
+        } catch (Exception e) {
+            recording = null;
+            log.warn("无法启动JFR钉住事件监听: {}", e.getMessage());
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = siteOf(event.getStackTrace());
+        String library = PinningScanner.libraryOf(site);
+        Timer.builder("jvm.threads.virtual.pinned")
+                .tag("library", library)
+                .register(meterRegistry)
+                .record(event.getDuration());
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            log.warn("虚拟线程钉住载体线程 {} ms，位置: {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    /**
+     * 钉住位置取第一个非JDK栈帧
+     */
+    private static String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame site = stackTrace.getFrames().get(0);
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                site = frame;
+                break;
+            }
+        }
+        return site.getMethod().getType().getName() + "#" + site.getMethod().getName() + ":" + site.getLineNumber();
+    }
+
+    private void reportPinningSites() {
+        try {
+            List<PinningSite> sites = PinningScanner.scan(getClass().getClassLoader(), SCANNED_PACKAGES);
+            Map<String, List<PinningSite>> byLibrary = sites.stream()
+                    .collect(Collectors.groupingBy(PinningSite::library, TreeMap::new, Collectors.toList()));
+
+            StringBuilder report = new StringBuilder("虚拟线程钉住点扫描：请求路径上共 ")
+                    .append(sites.size()).append(" 处synchronized");
+            byLibrary.forEach((library, librarySites) -> {
+                Gauge.builder("jvm.threads.virtual.pinning.sites", librarySites, List::size)
+                        .description("请求路径上的synchronized方法和代码块数量")
+                        .tag("library", library)
+                        .strongReference(true)
+                        .register(meterRegistry);
+                report.append("\n  [").append(library).append("] ").append(librarySites.size()).append(" 处");
+                librarySites.forEach(site -> report.append("\n    ").append(site));
+            });
+            log.info(report.toString());
+        } catch (Exception e) {
+            log.warn("虚拟线程钉住点扫描失败", e);
+        }
+    }
+}
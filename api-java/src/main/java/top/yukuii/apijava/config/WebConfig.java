@@ -1,11 +1,14 @@
 package top.yukuii.apijava.config;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import lombok.RequiredArgsConstructor;
 import top.yukuii.apijava.interceptor.JwtInterceptor;
+import top.yukuii.apijava.util.RequestContext;
 
 /**
  * Web配置类
@@ -34,4 +37,12 @@ public class WebConfig implements WebMvcConfigurer {
                         "/api/public/**"            // 公开接口
                 );
     }
+
+    /**
+     * 自动配置的任务执行器（@Async、MVC异步请求）执行任务时携带提交线程的请求上下文
+     */
+    @Bean
+    public TaskDecorator requestContextTaskDecorator() {
+        return RequestContext::wrap;
+    }
 }
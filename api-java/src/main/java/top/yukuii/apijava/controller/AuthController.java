@@ -55,6 +55,16 @@ public class AuthController {
         return Result.success("登出成功");
     }
 
+    /**
+     * 在所有设备登出
+     * 当前用户已签发的所有Token立即失效
+     */
+    @PostMapping("/logout-all")
+    public Result<String> logoutAll() {
+        authService.logoutAll();
+        return Result.success("已在所有设备登出");
+    }
+
     /**
      * 验证Token是否有效
      * 注意：此接口不被拦截器拦截，用于前端检查Token状态
@@ -1,19 +1,40 @@
 package top.yukuii.apijava.controller;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 
 import lombok.RequiredArgsConstructor;
+import top.yukuii.apijava.common.BusinessException;
 import top.yukuii.apijava.common.Result;
 import top.yukuii.apijava.model.dto.CreateTransactionDTO;
+import top.yukuii.apijava.model.enums.FileFormat;
+import top.yukuii.apijava.model.vo.CursorPageVO;
 import top.yukuii.apijava.model.vo.GetTransactionVO;
+import top.yukuii.apijava.model.vo.ImportResultVO;
+import top.yukuii.apijava.model.vo.StatisticsVO;
+import top.yukuii.apijava.model.vo.TagCountVO;
+import top.yukuii.apijava.service.TransactionExportService;
+import top.yukuii.apijava.service.TransactionImportService;
 import top.yukuii.apijava.service.TransactionService;
+import top.yukuii.apijava.service.TransactionStatisticsService;
 
 @RestController
 @RequestMapping("/api/transaction") 
@@ -22,6 +43,12 @@ public class TransactionController {
 
     private final TransactionService transactionService;
 
+    private final TransactionImportService transactionImportService;
+
+    private final TransactionExportService transactionExportService;
+
+    private final TransactionStatisticsService transactionStatisticsService;
+
     /**
      * 获取当前登录用户账单记录
      * @param type
@@ -29,10 +56,13 @@ public class TransactionController {
      * @param startDate
      * @param endDate
      * @param keyword
+     * @param tags 标签，可以重复传或用逗号分隔
+     * @param tagMatch any（默认，包含任意一个）或all（包含全部）
      * @param sort
      * @param order
      * @param page
      * @param pageSize
+     * @param approxCount 总记录数是否允许使用估算值（结果集较大时不执行COUNT）
      * @return
      */
     @GetMapping("/page")
@@ -41,11 +71,49 @@ public class TransactionController {
             @RequestParam(required = false) Long startDate,
             @RequestParam(required = false) Long endDate,
             @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String tagMatch,
             @RequestParam(required = false) String sort,
             @RequestParam(required = false) String order,
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer pageSize) {
-        return Result.success(transactionService.getTransactionsPage(type, categoryId, startDate, endDate, keyword, sort, order, page, pageSize));
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(defaultValue = "false") boolean approxCount) {
+        return Result.success(transactionService.getTransactionsPage(type, categoryId, startDate, endDate, keyword, tags, tagMatch, sort, order, page, pageSize, approxCount));
+    }
+
+    /**
+     * 游标分页获取当前登录用户账单记录（带cursor参数时生效，第一页传空cursor）
+     * 默认按date降序，返回的nextCursor作为下一页的cursor
+     * @param type
+     * @param categoryId
+     * @param startDate
+     * @param endDate
+     * @param keyword
+     * @param tags 标签，可以重复传或用逗号分隔
+     * @param tagMatch any（默认）或all
+     * @param sort date或createTime
+     * @param order asc或desc
+     * @param cursor 上一页返回的游标
+     * @param pageSize
+     * @param withCount 是否返回总记录数
+     * @param approxCount 总记录数是否允许使用估算值
+     * @return
+     */
+    @GetMapping(value = "/page", params = "cursor")
+    public Result<CursorPageVO<GetTransactionVO>> getTransactionsByCursor(@RequestParam(required = false) String type,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long startDate,
+            @RequestParam(required = false) Long endDate,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String tagMatch,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String order,
+            @RequestParam String cursor,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(defaultValue = "false") boolean withCount,
+            @RequestParam(defaultValue = "false") boolean approxCount) {
+        return Result.success(transactionService.getTransactionsByCursor(type, categoryId, startDate, endDate, keyword, tags, tagMatch, sort, order, cursor, pageSize, withCount, approxCount));
     }
 
     /**
@@ -58,5 +126,94 @@ public class TransactionController {
         transactionService.createTransaction(createTransactionDTO);
         return Result.success();
     }
-    
+
+    /**
+     * 批量导入账单记录（CSV首行为表头，或NDJSON每行一个对象）
+     * 字段：type、amount、transactionDate（或date）、categoryId、paymentMethod、currency、description、location、tags、remark，
+     * 字段名也可以用下划线形式；没有type时负数金额为支出、正数为收入
+     * @param file 导入文件
+     * @param format csv或ndjson，为空时按文件扩展名判断
+     * @param importId 导入ID，指定后可在导入过程中查询进度
+     * @return 导入结果和失败的行
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<ImportResultVO> importTransactions(@RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String importId) {
+        return Result.success(transactionImportService.importTransactions(file, format, importId));
+    }
+
+    /**
+     * 查询导入进度
+     * @param importId 导入ID
+     * @return
+     */
+    @GetMapping("/import/{importId}")
+    public Result<ImportResultVO> getImportProgress(@PathVariable String importId) {
+        return Result.success(transactionImportService.getProgress(importId));
+    }
+
+    /**
+     * 导出当前登录用户账单记录（过滤条件与分页查询一致，按日期倒序）
+     * 导出的CSV/NDJSON字段与导入一致，可以直接重新导入
+     * @param type
+     * @param categoryId
+     * @param startDate
+     * @param endDate
+     * @param keyword
+     * @param tags
+     * @param tagMatch
+     * @param format csv或ndjson
+     * @param gzip 是否gzip压缩（文件名带.gz）
+     * @return
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(required = false) String type,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long startDate,
+            @RequestParam(required = false) Long endDate,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String tagMatch,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        FileFormat fileFormat = FileFormat.getByCode(format);
+        if (fileFormat == null) {
+            throw new BusinessException(400, "不支持的文件格式，请使用csv或ndjson");
+        }
+        StreamingResponseBody body = transactionExportService.exportTransactions(type, categoryId, startDate, endDate, keyword, tags, tagMatch,
+                fileFormat, gzip);
+        String fileName = "transactions-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + fileFormat.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : fileFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    /**
+     * 当前登录用户收支统计（读取汇总表，日期按Asia/Shanghai时区划分）
+     * @param groupBy day、month（默认）、category或paymentMethod
+     * @param startDate 开始日期yyyy-MM-dd（包含），默认按天为最近30天、其他维度为最近12个月
+     * @param endDate 结束日期yyyy-MM-dd（包含），默认今天
+     * @param currency 货币类型，默认CNY
+     * @return
+     */
+    @GetMapping("/statistics")
+    public Result<StatisticsVO> getStatistics(@RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String currency) {
+        return Result.success(transactionStatisticsService.getStatistics(groupBy, startDate, endDate, currency));
+    }
+
+    /**
+     * 当前登录用户的标签使用次数（读取计数表，按次数降序）
+     * @param limit 最多返回的标签数，默认50，最多500
+     * @return
+     */
+    @GetMapping("/tags")
+    public Result<List<TagCountVO>> getTagCounts(@RequestParam(required = false) Integer limit) {
+        return Result.success(transactionStatisticsService.getTagCounts(limit));
+    }
+
 }
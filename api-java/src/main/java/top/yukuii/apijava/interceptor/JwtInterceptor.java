@@ -1,23 +1,25 @@
 package top.yukuii.apijava.interceptor;
 
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import top.yukuii.apijava.service.AuthService;
+import top.yukuii.apijava.util.AuthenticatedPrincipal;
 import top.yukuii.apijava.util.JwtUtil;
+import top.yukuii.apijava.util.RequestContext;
 
 /**
  * JWT拦截器
- * 自动验证请求中的Token
+ * 自动验证请求中的Token，认证成功后绑定请求上下文，请求结束（或转入异步处理）时解绑
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class JwtInterceptor implements HandlerInterceptor {
+public class JwtInterceptor implements AsyncHandlerInterceptor {
 
     private final AuthService authService;
 
@@ -37,27 +39,36 @@ public class JwtInterceptor implements HandlerInterceptor {
             return false;
         }
 
-        // 验证Token
-        if (!authService.isTokenValid(token)) {
+        // 验证Token（只解析一次）
+        AuthenticatedPrincipal principal = authService.authenticate(token);
+        if (principal == null) {
             log.warn("Token验证失败: {}", requestURI);
             sendErrorResponse(response, 401, "Token无效或已过期");
             return false;
         }
 
-        // 将用户ID存储到请求属性中，供Controller使用
-        try {
-            String userId = JwtUtil.getUserId(token);
-            request.setAttribute("userId", userId);
-            log.debug("Token验证成功，用户ID: {}", userId);
-        } catch (Exception e) {
-            log.error("获取用户ID失败", e);
-            sendErrorResponse(response, 401, "Token解析失败");
-            return false;
-        }
+        // 将用户主体存储到请求属性中，供Controller使用
+        request.setAttribute(AuthenticatedPrincipal.REQUEST_ATTRIBUTE, principal);
+        request.setAttribute("userId", principal.getUserId());
+        RequestContext.bind(principal);
+        log.debug("Token验证成功，用户ID: {}", principal.getUserId());
 
         return true;
     }
 
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestContext.clear();
+    }
+
+    /**
+     * 异步处理时请求线程先归还容器，异步任务通过TaskDecorator携带上下文
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestContext.clear();
+    }
+
     /**
      * 发送错误响应
      */
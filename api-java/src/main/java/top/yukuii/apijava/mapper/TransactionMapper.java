@@ -1,9 +1,102 @@
 package top.yukuii.apijava.mapper;
 
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+
 import top.yukuii.apijava.model.entity.Transaction;
-import org.apache.ibatis.annotations.Mapper;
 
 @Mapper
 public interface TransactionMapper extends BaseMapper<Transaction> {
-}
\ No newline at end of file
+
+    /**
+     * insertBatch单批最多的记录数：每行15个参数，Postgres单条语句最多32767个参数
+     */
+    int MAX_BATCH_SIZE = 2000;
+
+
+    /**
+     * 查询计划（JSON格式），用于读取符合条件的行数估计，不实际扫描数据
+     *
+     * @param wrapper 过滤条件
+     * @return EXPLAIN (FORMAT JSON) 的结果
+     */
+    @Select("EXPLAIN (FORMAT JSON) SELECT 1 FROM transaction ${ew.customSqlSegment}")
+    String explainFilter(@Param(Constants.WRAPPER) Wrapper<Transaction> wrapper);
+
+    /**
+     * 按全文检索相关度分页（相关度相同时按日期倒序）
+     *
+     * @param page 分页参数
+     * @param wrapper 过滤条件（需要设置select列，不能带排序）
+     * @param tsQuery 全文检索表达式，为null时相关度均为0
+     */
+    @Select("""
+            <script>
+            SELECT ${ew.sqlSelect},
+            <choose>
+                <when test="tsQuery != null">ts_rank(search_vector, to_tsquery('simple', #{tsQuery}))</when>
+                <otherwise>0</otherwise>
+            </choose> AS search_rank
+            FROM transaction ${ew.customSqlSegment}
+            ORDER BY search_rank DESC, transaction_date DESC, id DESC
+            </script>
+            """)
+    IPage<Transaction> selectRankedPage(IPage<Transaction> page, @Param(Constants.WRAPPER) Wrapper<Transaction> wrapper,
+                                        @Param("tsQuery") String tsQuery);
+
+    /**
+     * 检查搜索生成列是否存在（不存在时使用进程内n-gram索引）
+     */
+    @Select("SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'transaction' AND column_name = 'search_vector'")
+    int countSearchColumns();
+
+    /**
+     * 查询用户所有记录的可搜索字段，用于构建进程内n-gram索引
+     */
+    @Select("SELECT id, description, tags, location, remark FROM transaction WHERE user_id = #{userId}")
+    List<Transaction> selectSearchDocuments(@Param("userId") long userId);
+
+    /**
+     * 多行插入，一次往返写入一批记录，生成的主键回填到id
+     * 单批不能超过MAX_BATCH_SIZE条
+     *
+     * @param transactions 待插入的记录（status、currency、updateTime需要已设置）
+     * @return 插入的行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO transaction (user_id, type, category_id, amount, description, transaction_date, payment_method,
+                status, location, currency, tags, remark, create_time, update_time, create_by)
+            VALUES
+            <foreach collection="list" item="t" separator=",">
+                (#{t.userId}, #{t.type}, #{t.categoryId}, #{t.amount}, #{t.description}, #{t.transactionDate}, #{t.paymentMethod},
+                #{t.status}, #{t.location}, #{t.currency}, #{t.tags}, #{t.remark}, #{t.createTime}, #{t.updateTime}, #{t.createBy})
+            </foreach>
+            </script>
+            """)
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    int insertBatch(@Param("list") List<Transaction> transactions);
+
+    /**
+     * 按过滤和排序条件流式读取账单记录，需要在事务中使用（否则驱动一次读取全部结果）
+     */
+    @Select("""
+            SELECT id, user_id, type, category_id, amount, description, transaction_date, payment_method,
+                status, location, currency, tags, remark, create_time, update_time, create_by, update_by
+            FROM transaction ${ew.customSqlSegment}
+            """)
+    @Options(fetchSize = 1000, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<Transaction> streamTransactions(@Param(Constants.WRAPPER) Wrapper<Transaction> wrapper);
+}
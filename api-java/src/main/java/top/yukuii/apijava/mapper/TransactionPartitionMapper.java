@@ -0,0 +1,66 @@
+package top.yukuii.apijava.mapper;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@Mapper
+public interface TransactionPartitionMapper {
+
+    /**
+     * transaction是否为分区表
+     */
+    @Select("SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('transaction')")
+    int countPartitionedTable();
+
+    /**
+     * 创建指定月份的分区（已存在时跳过）
+     *
+     * @param monthStart 月份中的任意一天
+     * @return 分区名
+     */
+    @Select("SELECT create_transaction_partition(#{monthStart})")
+    String createPartition(@Param("monthStart") LocalDate monthStart);
+
+    /**
+     * 当前挂在transaction上的分区名
+     */
+    @Select("""
+            SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass('transaction') ORDER BY c.relname
+            """)
+    List<String> selectPartitionNames();
+
+    /**
+     * 已分离但还未改名的分区（改名失败时遗留，不处理的话同名分区会被误认为已存在）
+     */
+    @Select("""
+            SELECT relname FROM pg_class
+            WHERE relkind = 'r' AND NOT relispartition AND relname ~ '^transaction_p[0-9]{6}$' ORDER BY relname
+            """)
+    List<String> selectDetachedPartitionNames();
+
+    /**
+     * 表是否存在
+     */
+    @Select("SELECT to_regclass(#{tableName}) IS NOT NULL")
+    boolean existsTable(@Param("tableName") String tableName);
+
+    /**
+     * 分离分区，不阻塞对transaction的读写（不能在事务中执行）
+     *
+     * @param partitionName 分区名（调用方校验格式）
+     */
+    @Update("ALTER TABLE transaction DETACH PARTITION ${partitionName} CONCURRENTLY")
+    void detachPartition(@Param("partitionName") String partitionName);
+
+    /**
+     * 分离后的分区改名，避免与之后按需创建的同名分区冲突
+     */
+    @Update("ALTER TABLE ${partitionName} RENAME TO ${archiveName}")
+    void renamePartition(@Param("partitionName") String partitionName, @Param("archiveName") String archiveName);
+}
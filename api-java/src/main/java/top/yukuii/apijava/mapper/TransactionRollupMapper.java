@@ -0,0 +1,70 @@
+package top.yukuii.apijava.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import top.yukuii.apijava.model.dto.RollupAggregate;
+import top.yukuii.apijava.model.dto.RollupRange;
+import top.yukuii.apijava.model.entity.TransactionRollup;
+
+@Mapper
+public interface TransactionRollupMapper {
+
+    /**
+     * 累加汇总行，不存在时插入
+     * 同一批内主键不能重复；多个事务按相同顺序加锁，调用方需要按主键排序
+     *
+     * @param rollups 增量
+     * @return 影响的行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO transaction_rollup (user_id, granularity, period_start, currency, type, category_id, payment_method,
+                total_amount, tx_count)
+            VALUES
+            <foreach collection="list" item="r" separator=",">
+                (#{r.userId}, #{r.granularity}, #{r.periodStart}, #{r.currency}, #{r.type}, #{r.categoryId}, #{r.paymentMethod},
+                #{r.totalAmount}, #{r.txCount})
+            </foreach>
+            ON CONFLICT (user_id, granularity, period_start, currency, type, category_id, payment_method) DO UPDATE
+            SET total_amount = transaction_rollup.total_amount + EXCLUDED.total_amount,
+                tx_count = transaction_rollup.tx_count + EXCLUDED.tx_count
+            </script>
+            """)
+    int upsert(@Param("list") List<TransactionRollup> rollups);
+
+    /**
+     * 按维度合并指定范围内的汇总行
+     *
+     * @param userId 用户主键
+     * @param currency 货币类型
+     * @param groupBy 统计维度编码
+     * @param ranges 读取的汇总行范围（互不重叠）
+     */
+    @Select("""
+            <script>
+            SELECT
+            <choose>
+                <when test="groupBy == 'day'">to_char(period_start, 'YYYY-MM-DD')</when>
+                <when test="groupBy == 'month'">to_char(period_start, 'YYYY-MM')</when>
+                <when test="groupBy == 'category'">CAST(category_id AS TEXT)</when>
+                <otherwise>payment_method</otherwise>
+            </choose> AS stat_key,
+            type, SUM(total_amount) AS total_amount, SUM(tx_count) AS tx_count
+            FROM transaction_rollup
+            WHERE user_id = #{userId} AND currency = #{currency} AND (
+            <foreach collection="ranges" item="r" separator=" OR ">
+                (granularity = #{r.granularity} AND period_start BETWEEN #{r.from} AND #{r.to})
+            </foreach>
+            )
+            GROUP BY stat_key, type
+            ORDER BY stat_key
+            </script>
+            """)
+    List<RollupAggregate> selectAggregates(@Param("userId") long userId, @Param("currency") String currency,
+                                           @Param("groupBy") String groupBy, @Param("ranges") List<RollupRange> ranges);
+}
@@ -0,0 +1,53 @@
+package top.yukuii.apijava.mapper;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.model.vo.TagCountVO;
+
+@Mapper
+public interface TransactionTagCountMapper {
+
+    /**
+     * 累加账单中各标签的使用次数
+     * 标签由数据库按tag_list相同的规则拆分；按主键顺序写入，多个事务以相同顺序加锁
+     *
+     * @param transactions 已插入的账单（tags不为空）
+     * @return 影响的行数
+     */
+    @Insert("""
+            <script>
+            INSERT INTO transaction_tag_count (user_id, tag, tx_count)
+            SELECT v.user_id, t.tag, COUNT(*)
+            FROM (VALUES
+            <foreach collection="list" item="t" separator=",">
+                (CAST(#{t.userId} AS BIGINT), CAST(#{t.tags} AS TEXT))
+            </foreach>
+            ) AS v(user_id, tags)
+            CROSS JOIN LATERAL unnest(transaction_tag_array(v.tags)) AS t(tag)
+            GROUP BY v.user_id, t.tag
+            ORDER BY v.user_id, t.tag
+            ON CONFLICT (user_id, tag) DO UPDATE SET tx_count = transaction_tag_count.tx_count + EXCLUDED.tx_count
+            </script>
+            """)
+    int upsert(@Param("list") List<Transaction> transactions);
+
+    /**
+     * 用户最常用的标签
+     *
+     * @param userId 用户主键
+     * @param limit 最多返回的标签数
+     */
+    @Select("""
+            SELECT tag, tx_count AS count FROM transaction_tag_count
+            WHERE user_id = #{userId} AND tx_count > 0
+            ORDER BY tx_count DESC, tag
+            LIMIT #{limit}
+            """)
+    List<TagCountVO> selectTopTags(@Param("userId") long userId, @Param("limit") int limit);
+}
@@ -1,8 +1,50 @@
 package top.yukuii.apijava.mapper;
 
+import java.util.List;
+
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 
 import top.yukuii.apijava.model.entity.User;
 
 public interface UserMapper extends BaseMapper<User> {
+
+    /**
+     * 插入用户并返回数据库生成的主键和用户UUID
+     * 用户名、邮箱、手机号重复时由唯一约束拒绝（DuplicateKeyException）
+     */
+    @Select("""
+            INSERT INTO users (user_name, password, email, phone, avatar, remark, status, create_time, update_time)
+            VALUES (#{userName}, #{password}, #{email}, #{phone}, #{avatar}, #{remark}, #{status}, #{createTime}, #{updateTime})
+            RETURNING id, user_id, token_epoch
+            """)
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    User insertReturningKeys(User user);
+
+    /**
+     * 用户Token纪元加一并返回新纪元
+     */
+    @Select("UPDATE users SET token_epoch = token_epoch + 1 WHERE user_id = CAST(#{userId} AS uuid) RETURNING token_epoch")
+    @Options(flushCache = Options.FlushCachePolicy.TRUE)
+    Long incrementTokenEpoch(@Param("userId") String userId);
+
+    /**
+     * 流式读取id大于afterId的用户名、邮箱、手机号（按主键顺序），需要在事务中使用
+     */
+    @Select("SELECT id, user_name, email, phone FROM users WHERE id > #{afterId} ORDER BY id")
+    @Options(fetchSize = 1000, resultSetType = ResultSetType.FORWARD_ONLY)
+    Cursor<User> streamIdentities(@Param("afterId") long afterId);
+
+    /**
+     * 查询纪元大于0且在指定时间之后更新过的用户（走部分索引idx_user_token_epoch_update_time）
+     *
+     * @param since 更新时间下限（毫秒时间戳，包含），0表示全部
+     */
+    @Select("SELECT user_id, token_epoch, update_time FROM users WHERE token_epoch > 0 AND update_time >= #{since}")
+    List<User> selectRevokedEpochs(@Param("since") long since);
 }
@@ -0,0 +1,26 @@
+package top.yukuii.apijava.model.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+/**
+ * 按统计维度合并后的汇总行
+ */
+@Data
+public class RollupAggregate {
+
+    /**
+     * 维度值：日期、月份、分类ID或支付方式
+     */
+    private String statKey;
+
+    /**
+     * 交易类型
+     */
+    private String type;
+
+    private BigDecimal totalAmount;
+
+    private Long txCount;
+}
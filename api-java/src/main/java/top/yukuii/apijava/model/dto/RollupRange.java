@@ -0,0 +1,23 @@
+package top.yukuii.apijava.model.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 统计查询读取的一段汇总行：指定粒度下周期开始日期在[from, to]内的行
+ */
+@Data
+@AllArgsConstructor
+public class RollupRange {
+
+    /**
+     * 汇总粒度：day或month
+     */
+    private String granularity;
+
+    private LocalDate from;
+
+    private LocalDate to;
+}
@@ -0,0 +1,51 @@
+package top.yukuii.apijava.model.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+import cn.hutool.core.util.StrUtil;
+import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.model.enums.TagMatch;
+
+/**
+ * 账单过滤条件
+ * 同一用户相同条件的查询共享总数缓存，空字符串条件按未设置处理
+ *
+ * @param userId 用户主键
+ * @param type 交易类型
+ * @param categoryId 分类ID
+ * @param startDate 开始时间（包含）
+ * @param endDate 结束时间（包含）
+ * @param keyword 描述关键词
+ * @param tags 标签（已去空白、去重），为空表示不按标签过滤
+ * @param tagMatch 标签过滤方式
+ */
+public record TransactionFilter(long userId, String type, Long categoryId, Long startDate, Long endDate, String keyword,
+                                List<String> tags, TagMatch tagMatch) {
+
+    public TransactionFilter {
+        type = StrUtil.isBlank(type) ? null : type;
+        keyword = StrUtil.isBlank(keyword) ? null : keyword;
+        tags = tags == null ? List.of() : List.copyOf(tags);
+        tagMatch = tags.isEmpty() ? null : Objects.requireNonNullElse(tagMatch, TagMatch.ANY);
+    }
+
+    /**
+     * 能否在内存中判断一条记录是否满足条件
+     * 关键词由数据库做模式匹配，标签由数据库拆分，无法在内存中准确判断
+     */
+    public boolean isEvaluable() {
+        return keyword == null && tags.isEmpty();
+    }
+
+    /**
+     * 判断记录是否满足条件（仅在isEvaluable时有意义）
+     */
+    public boolean matches(Transaction transaction) {
+        return Objects.equals(transaction.getUserId(), userId)
+                && (type == null || type.equals(transaction.getType()))
+                && (categoryId == null || categoryId.equals(transaction.getCategoryId()))
+                && (startDate == null || transaction.getTransactionDate() >= startDate)
+                && (endDate == null || transaction.getTransactionDate() <= endDate);
+    }
+}
@@ -3,6 +3,7 @@ package top.yukuii.apijava.model.entity;
 import java.math.BigDecimal;
 
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 
@@ -86,4 +87,10 @@ public class Transaction extends BaseEntity {
      */
     private String remark;
 
+    /**
+     * 关键词搜索的相关度，只在按相关度排序的搜索结果中有值
+     */
+    @TableField(exist = false)
+    private Double searchRank;
+
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package top.yukuii.apijava.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 账单统计汇总，对应transaction_rollup表的一行
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollup {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 汇总粒度：day-按天，month-按月
+     */
+    private String granularity;
+
+    /**
+     * 周期开始日期（按月汇总时为当月1日）
+     */
+    private LocalDate periodStart;
+
+    /**
+     * 货币类型
+     */
+    private String currency;
+
+    /**
+     * 交易类型
+     */
+    private String type;
+
+    /**
+     * 交易分类ID，0表示未分类
+     */
+    private Long categoryId;
+
+    /**
+     * 支付方式，空字符串表示未填写
+     */
+    private String paymentMethod;
+
+    /**
+     * 金额合计
+     */
+    private BigDecimal totalAmount;
+
+    /**
+     * 笔数
+     */
+    private Long txCount;
+}
@@ -4,14 +4,18 @@ import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 
 @Data
 @EqualsAndHashCode(callSuper=false)
 @Builder
 @TableName("users")
+@NoArgsConstructor
+@AllArgsConstructor
 public class User extends BaseEntity {
 
     /**
@@ -60,4 +64,9 @@ public class User extends BaseEntity {
      */
     private String remark;
 
+    /**
+     * Token纪元，所有设备登出时加一，签发时纪元更小的Token失效
+     */
+    private Long tokenEpoch;
+
 }
@@ -0,0 +1,68 @@
+package top.yukuii.apijava.model.enums;
+
+import java.util.Locale;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 账单导入导出的文件格式枚举
+ */
+@Getter
+@AllArgsConstructor
+public enum FileFormat {
+
+    /**
+     * CSV，首行为表头
+     */
+    CSV("csv", "text/csv", ".csv"),
+
+    /**
+     * 每行一个JSON对象
+     */
+    NDJSON("ndjson", "application/x-ndjson", ".ndjson");
+
+    /**
+     * 格式编码
+     */
+    private final String code;
+
+    /**
+     * 内容类型
+     */
+    private final String contentType;
+
+    /**
+     * 文件扩展名
+     */
+    private final String extension;
+
+    /**
+     * 根据编码获取枚举（忽略大小写）
+     */
+    public static FileFormat getByCode(String code) {
+        for (FileFormat format : values()) {
+            if (format.getCode().equalsIgnoreCase(code)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据文件名推断格式，.jsonl按NDJSON处理
+     */
+    public static FileFormat getByFileName(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(CSV.extension)) {
+            return CSV;
+        }
+        if (lower.endsWith(NDJSON.extension) || lower.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return null;
+    }
+}
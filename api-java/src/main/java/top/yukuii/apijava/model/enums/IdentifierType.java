@@ -0,0 +1,59 @@
+package top.yukuii.apijava.model.enums;
+
+import java.util.regex.Pattern;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 登录标识类型枚举
+ */
+@Getter
+@AllArgsConstructor
+public enum IdentifierType {
+
+    /**
+     * 邮箱
+     */
+    EMAIL("email", "邮箱"),
+
+    /**
+     * 手机号
+     */
+    PHONE("phone", "手机号"),
+
+    /**
+     * 用户名
+     */
+    USER_NAME("userName", "用户名");
+
+    /**
+     * 与注册时的手机号校验规则一致
+     */
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^1[3-9]\\d{9}$");
+
+    /**
+     * 类型代码
+     */
+    private final String code;
+
+    /**
+     * 类型名称
+     */
+    private final String name;
+
+    /**
+     * 根据标识的格式判断类型
+     * 用户名只能包含字母、数字和下划线，含@的一定是邮箱；
+     * 手机号格式的标识也可能是纯数字用户名，由调用方在查不到时按用户名再查一次
+     */
+    public static IdentifierType classify(String identifier) {
+        if (identifier.indexOf('@') >= 0) {
+            return EMAIL;
+        }
+        if (PHONE_PATTERN.matcher(identifier).matches()) {
+            return PHONE;
+        }
+        return USER_NAME;
+    }
+}
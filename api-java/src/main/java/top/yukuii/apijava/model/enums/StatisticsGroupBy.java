@@ -0,0 +1,54 @@
+package top.yukuii.apijava.model.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 统计维度枚举
+ */
+@Getter
+@AllArgsConstructor
+public enum StatisticsGroupBy {
+
+    /**
+     * 按天
+     */
+    DAY("day", "按天"),
+
+    /**
+     * 按月
+     */
+    MONTH("month", "按月"),
+
+    /**
+     * 按分类
+     */
+    CATEGORY("category", "按分类"),
+
+    /**
+     * 按支付方式
+     */
+    PAYMENT_METHOD("paymentMethod", "按支付方式");
+
+    /**
+     * 维度编码
+     */
+    private final String code;
+
+    /**
+     * 维度描述
+     */
+    private final String description;
+
+    /**
+     * 根据编码获取枚举
+     */
+    public static StatisticsGroupBy getByCode(String code) {
+        for (StatisticsGroupBy groupBy : values()) {
+            if (groupBy.getCode().equals(code)) {
+                return groupBy;
+            }
+        }
+        return null;
+    }
+}
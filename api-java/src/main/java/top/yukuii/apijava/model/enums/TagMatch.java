@@ -0,0 +1,44 @@
+package top.yukuii.apijava.model.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 标签过滤方式枚举
+ */
+@Getter
+@AllArgsConstructor
+public enum TagMatch {
+
+    /**
+     * 包含任意一个标签
+     */
+    ANY("any", "包含任意一个"),
+
+    /**
+     * 包含全部标签
+     */
+    ALL("all", "包含全部");
+
+    /**
+     * 方式编码
+     */
+    private final String code;
+
+    /**
+     * 方式描述
+     */
+    private final String description;
+
+    /**
+     * 根据编码获取枚举
+     */
+    public static TagMatch getByCode(String code) {
+        for (TagMatch match : values()) {
+            if (match.getCode().equals(code)) {
+                return match;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+package top.yukuii.apijava.model.vo;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 游标分页结果VO
+ */
+@Data
+@Builder
+public class CursorPageVO<T> {
+
+    /**
+     * 当前页记录
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标，没有更多记录时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多记录
+     */
+    private boolean hasMore;
+
+    /**
+     * 符合条件的总记录数，只在请求withCount=true时返回
+     */
+    private Long total;
+}
@@ -37,4 +37,14 @@ public class GetTransactionVO {
 
     private Long updateTime;
 
+    /**
+     * 关键词搜索的相关度
+     */
+    private Double searchRank;
+
+    /**
+     * 关键词搜索的命中片段，匹配部分用<mark>标记，其余内容已做HTML转义
+     */
+    private String highlight;
+
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package top.yukuii.apijava.model.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 导入失败的行
+ */
+@Data
+@AllArgsConstructor
+public class ImportErrorVO {
+
+    /**
+     * 行号（从1开始，CSV表头为第1行）
+     */
+    private long line;
+
+    /**
+     * 失败原因
+     */
+    private String message;
+}
@@ -0,0 +1,49 @@
+package top.yukuii.apijava.model.vo;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 账单导入结果VO，导入进行中查询时为当前进度
+ */
+@Data
+@Builder
+public class ImportResultVO {
+
+    /**
+     * 导入任务ID
+     */
+    private String importId;
+
+    /**
+     * 已读取的记录数
+     */
+    private long processed;
+
+    /**
+     * 已写入的记录数
+     */
+    private long imported;
+
+    /**
+     * 失败的记录数
+     */
+    private long failed;
+
+    /**
+     * 失败的行，最多返回transaction.bulk-import.max-errors条
+     */
+    private List<ImportErrorVO> errors;
+
+    /**
+     * 是否已结束
+     */
+    private boolean done;
+
+    /**
+     * 已用时间（毫秒）
+     */
+    private long elapsedMs;
+}
@@ -0,0 +1,29 @@
+package top.yukuii.apijava.model.vo;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+/**
+ * 单个统计维度值的收支汇总
+ */
+@Data
+public class StatisticsItemVO {
+
+    /**
+     * 维度值：日期（yyyy-MM-dd）、月份（yyyy-MM）、分类ID（0为未分类）或支付方式（空字符串为未填写）
+     */
+    private String key;
+
+    private BigDecimal income = BigDecimal.ZERO;
+
+    private BigDecimal expense = BigDecimal.ZERO;
+
+    private long incomeCount;
+
+    private long expenseCount;
+
+    public StatisticsItemVO(String key) {
+        this.key = key;
+    }
+}
@@ -0,0 +1,66 @@
+package top.yukuii.apijava.model.vo;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 收支统计结果VO
+ */
+@Data
+@Builder
+public class StatisticsVO {
+
+    /**
+     * 统计维度
+     */
+    private String groupBy;
+
+    /**
+     * 货币类型
+     */
+    private String currency;
+
+    /**
+     * 开始日期（包含）
+     */
+    private LocalDate startDate;
+
+    /**
+     * 结束日期（包含）
+     */
+    private LocalDate endDate;
+
+    /**
+     * 收入合计
+     */
+    private BigDecimal income;
+
+    /**
+     * 支出合计
+     */
+    private BigDecimal expense;
+
+    /**
+     * 结余（收入减支出）
+     */
+    private BigDecimal balance;
+
+    /**
+     * 收入笔数
+     */
+    private long incomeCount;
+
+    /**
+     * 支出笔数
+     */
+    private long expenseCount;
+
+    /**
+     * 各维度值的收支汇总，按维度值排序
+     */
+    private List<StatisticsItemVO> items;
+}
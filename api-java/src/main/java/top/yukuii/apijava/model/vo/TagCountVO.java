@@ -0,0 +1,17 @@
+package top.yukuii.apijava.model.vo;
+
+import lombok.Data;
+
+/**
+ * 标签使用次数
+ */
+@Data
+public class TagCountVO {
+
+    private String tag;
+
+    /**
+     * 使用该标签的账单笔数
+     */
+    private long count;
+}
@@ -1,11 +1,15 @@
 package top.yukuii.apijava.service;
 
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 
 import cn.hutool.core.util.ObjectUtil;
-import cn.hutool.crypto.digest.BCrypt;
+import cn.hutool.core.util.StrUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import top.yukuii.apijava.common.BusinessException;
@@ -13,7 +17,9 @@ import top.yukuii.apijava.mapper.UserMapper;
 import top.yukuii.apijava.model.dto.LoginRequestDTO;
 import top.yukuii.apijava.model.dto.RegisterRequestDTO;
 import top.yukuii.apijava.model.entity.User;
+import top.yukuii.apijava.model.enums.IdentifierType;
 import top.yukuii.apijava.model.vo.LoginResponseVO;
+import top.yukuii.apijava.util.AuthenticatedPrincipal;
 import top.yukuii.apijava.util.TokenManager;
 
 @Slf4j
@@ -23,21 +29,22 @@ public class AuthService {
 
     private final UserMapper userMapper;
 
+    private final TokenEpochService tokenEpochService;
+
+    private final PasswordHashService passwordHashService;
+
+    private final UserIdentityService userIdentityService;
+
+    private final UserAvailabilityService userAvailabilityService;
+
     public LoginResponseVO login(LoginRequestDTO request) {
         // 1. 参数验证
         if (ObjectUtil.isEmpty(request.getUserName()) || ObjectUtil.isEmpty(request.getPassword())) {
             throw new BusinessException("用户名和密码不能为空");
         }
 
-        // 2. 查询用户（支持用户名、邮箱、手机号登录）
-        User user = userMapper.selectOne(
-            new LambdaQueryWrapper<User>()
-                .eq(User::getUserName, request.getUserName())
-                .or()
-                .eq(User::getEmail, request.getUserName())
-                .or()
-                .eq(User::getPhone, request.getUserName())
-        );
+        // 2. 查询用户（支持用户名、邮箱、手机号登录，按格式只查询对应的索引列）
+        User user = userIdentityService.findByIdentifier(request.getUserName());
 
         if (ObjectUtil.isEmpty(user)) {
             throw new BusinessException("用户不存在");
@@ -49,11 +56,15 @@ public class AuthService {
         }
 
         // 4. 验证密码
-        if (!BCrypt.checkpw(request.getPassword(), user.getPassword())) {
+        if (!passwordHashService.matches(request.getPassword(), user.getPassword())) {
             throw new BusinessException("密码错误");
         }
 
-        // 5. 使用TokenManager创建Token和构建响应
+        // 5. 哈希强度与当前配置不一致时在后台升级
+        passwordHashService.rehashIfNeeded(request.getPassword(), user.getPassword(),
+                rehashed -> updatePasswordHash(user, rehashed));
+
+        // 6. 使用TokenManager创建Token和构建响应
         return TokenManager.login(user);
     }
 
@@ -67,28 +78,21 @@ public class AuthService {
         // 1. 参数验证
         validateRegisterRequest(request);
 
-        // 2. 检查用户名是否已存在
-        if (isUserNameExists(request.getUserName())) {
-            throw new BusinessException("用户名已存在");
-        }
-
-        // 3. 检查邮箱是否已存在
-        if (ObjectUtil.isNotEmpty(request.getEmail()) && isEmailExists(request.getEmail())) {
-            throw new BusinessException("邮箱已被注册");
-        }
-
-        // 4. 检查手机号是否已存在
-        if (ObjectUtil.isNotEmpty(request.getPhone()) && isPhoneExists(request.getPhone())) {
-            throw new BusinessException("手机号已被注册");
-        }
-
-        // 5. 创建用户
+        // 2. 创建用户
         User user = createUser(request);
 
-        // 6. 保存用户
-        userMapper.insert(user);
+        // 3. 保存用户，用户名、邮箱、手机号是否重复由唯一约束判断，一次往返且没有并发注册的竞态
+        try {
+            User generated = userMapper.insertReturningKeys(user);
+            user.setId(generated.getId());
+            user.setUserId(generated.getUserId());
+            user.setTokenEpoch(generated.getTokenEpoch());
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException(duplicateMessage(e));
+        }
+        userAvailabilityService.add(user);
 
-        // 7. 自动登录并返回Token
+        // 4. 自动登录并返回Token
         return TokenManager.login(user);
     }
 
@@ -110,6 +114,38 @@ public class AuthService {
         }
     }
 
+    /**
+     * 根据违反的唯一约束返回对应的提示
+     * 约束名（users_email_key / uk_user_user_name 等）包含列名，直接从PSQLException的服务端错误信息中读取，
+     * 不解析本地化的错误消息
+     */
+    private String duplicateMessage(DuplicateKeyException e) {
+        String constraint = violatedConstraint(e);
+        if (constraint != null) {
+            if (constraint.contains("user_name")) {
+                return "用户名已存在";
+            }
+            if (constraint.contains("email")) {
+                return "邮箱已被注册";
+            }
+            if (constraint.contains("phone")) {
+                return "手机号已被注册";
+            }
+        }
+        log.warn("注册时违反未知的唯一约束: {}", e.getMostSpecificCause().getMessage());
+        return "用户已存在";
+    }
+
+    private static String violatedConstraint(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PSQLException psqlException) {
+                ServerErrorMessage serverError = psqlException.getServerErrorMessage();
+                return serverError == null ? null : serverError.getConstraint();
+            }
+        }
+        return null;
+    }
+
     /**
      * 检查用户名是否已存在
      */
@@ -145,15 +181,16 @@ public class AuthService {
      */
     private User createUser(RegisterRequestDTO request) {
         // 加密密码
-        String hashedPassword = BCrypt.hashpw(request.getPassword(), BCrypt.gensalt());
+        String hashedPassword = passwordHashService.hash(request.getPassword());
 
         long currentTime = System.currentTimeMillis();
 
         User user = User.builder()
                 .userName(request.getUserName())
                 .password(hashedPassword)
-                .email(request.getEmail())
-                .phone(request.getPhone())
+                // 空字符串存为NULL，避免多个未填写的用户互相违反唯一约束
+                .email(StrUtil.emptyToNull(request.getEmail()))
+                .phone(StrUtil.emptyToNull(request.getPhone()))
                 .avatar(request.getAvatar())
                 .remark(request.getRemark())
                 .status(1) // 默认状态为正常
@@ -166,6 +203,20 @@ public class AuthService {
         return user;
     }
 
+    /**
+     * 更新密码哈希，只在密码未被修改时生效
+     */
+    private void updatePasswordHash(User user, String rehashed) {
+        int updated = userMapper.update(null, new LambdaUpdateWrapper<User>()
+                .set(User::getPassword, rehashed)
+                .eq(User::getId, user.getId())
+                .eq(User::getPassword, user.getPassword()));
+        userIdentityService.invalidate(user);
+        if (updated > 0) {
+            log.info("用户 {} 的密码哈希已升级", user.getUserId());
+        }
+    }
+
     /**
      * 用户登出
      *
@@ -175,6 +226,17 @@ public class AuthService {
         TokenManager.logout(token);
     }
 
+    /**
+     * 当前用户在所有设备登出
+     */
+    public void logoutAll() {
+        String userId = TokenManager.getCurrentUserId();
+        if (ObjectUtil.isEmpty(userId)) {
+            throw new BusinessException("用户未登录");
+        }
+        tokenEpochService.revokeAll(userId);
+    }
+
     /**
      * 验证Token是否有效（包括黑名单检查）
      *
@@ -185,6 +247,16 @@ public class AuthService {
         return TokenManager.isTokenValid(token);
     }
 
+    /**
+     * 验证Token并返回用户主体
+     *
+     * @param token JWT Token
+     * @return 用户主体，Token无效时返回null
+     */
+    public AuthenticatedPrincipal authenticate(String token) {
+        return TokenManager.authenticate(token);
+    }
+
     /**
      * 检查用户名是否可用
      *
@@ -192,7 +264,7 @@ public class AuthService {
      * @return true表示可用，false表示已被占用
      */
     public boolean isUserNameAvailable(String userName) {
-        return !isUserNameExists(userName);
+        return userAvailabilityService.isAvailable(IdentifierType.USER_NAME, userName, () -> isUserNameExists(userName));
     }
 
     /**
@@ -202,7 +274,7 @@ public class AuthService {
      * @return true表示可用，false表示已被占用
      */
     public boolean isEmailAvailable(String email) {
-        return !isEmailExists(email);
+        return userAvailabilityService.isAvailable(IdentifierType.EMAIL, email, () -> isEmailExists(email));
     }
 
     /**
@@ -212,7 +284,7 @@ public class AuthService {
      * @return true表示可用，false表示已被占用
      */
     public boolean isPhoneAvailable(String phone) {
-        return !isPhoneExists(phone);
+        return userAvailabilityService.isAvailable(IdentifierType.PHONE, phone, () -> isPhoneExists(phone));
     }
 
 }
@@ -0,0 +1,244 @@
+package top.yukuii.apijava.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+
+import cn.hutool.crypto.digest.BCrypt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.common.TooManyRequestsException;
+import top.yukuii.apijava.config.AuthProperties;
+
+/**
+ * 密码哈希服务
+ * BCrypt计算放到独立的有界线程池，线程数限制了认证占用的CPU，排队已满时直接拒绝（429），
+ * 登录高峰不会占满Tomcat工作线程，同节点的其他接口不受影响
+ * 启动时按目标耗时校准BCrypt强度，强度不一致的旧哈希在登录成功后由后台线程重新计算
+ */
+@Slf4j
+@Service
+public class PasswordHashService {
+
+    private static final String REJECTED_MESSAGE = "登录请求过多，请稍后重试";
+
+    private final ThreadPoolExecutor executor;
+
+    private final long maxWaitMillis;
+
+    private final Timer checkTimer;
+
+    private final Timer hashTimer;
+
+    private final Counter rejectedCounter;
+
+    /**
+     * 后台重新计算哈希的线程，队列满时丢弃（下次登录会再次尝试）
+     */
+    private final ThreadPoolExecutor rehashExecutor;
+
+    /**
+     * 新哈希使用的BCrypt强度
+     */
+    private final int cost;
+
+    public PasswordHashService(AuthProperties authProperties, MeterRegistry meterRegistry) {
+        AuthProperties.PasswordHash config = authProperties.getPasswordHash();
+        int threads = config.getThreads() > 0
+                ? config.getThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWaitMillis = config.getMaxWait().toMillis();
+        this.rehashExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getRehashQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-rehash");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.cost = config.getCost() > 0 ? config.getCost() : calibrate(config);
+
+        this.checkTimer = Timer.builder("auth.password.hash")
+                .description("BCrypt计算耗时（不含排队）")
+                .tag("operation", "check")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("BCrypt计算耗时（不含排队）")
+                .tag("operation", "hash")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("线程池已满被拒绝的请求数")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.size", executor, e -> e.getQueue().size())
+                .description("等待计算的请求数")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在计算的请求数")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.cost", this, PasswordHashService::getCost)
+                .description("新哈希使用的BCrypt强度")
+                .register(meterRegistry);
+        log.info("密码哈希线程池: {} 个线程，队列容量 {}，BCrypt强度 {}", threads, config.getQueueCapacity(), cost);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+        rehashExecutor.shutdown();
+    }
+
+    /**
+     * 新哈希使用的BCrypt强度
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * 校验密码
+     *
+     * @param password 明文密码
+     * @param hashed 数据库中的哈希
+     * @return 是否匹配
+     */
+    public boolean matches(String password, String hashed) {
+        return execute(() -> checkTimer.record(() -> BCrypt.checkpw(password, hashed)));
+    }
+
+    /**
+     * 计算密码哈希
+     *
+     * @param password 明文密码
+     * @return BCrypt哈希
+     */
+    public String hash(String password) {
+        return execute(() -> hashTimer.record(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost))));
+    }
+
+    /**
+     * 已存储的哈希强度与当前强度不一致时，在后台重新计算，不占用响应时间
+     * 只应在密码校验成功后调用
+     *
+     * @param password 明文密码
+     * @param hashed 数据库中的哈希
+     * @param onRehashed 新哈希的回调（在后台线程执行，负责持久化）
+     */
+    public void rehashIfNeeded(String password, String hashed, Consumer<String> onRehashed) {
+        if (costOf(hashed) == cost) {
+            return;
+        }
+        rehashExecutor.execute(() -> {
+            try {
+                String rehashed = hashTimer.record(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+                onRehashed.accept(rehashed);
+            } catch (Exception e) {
+                log.warn("密码哈希升级失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 从BCrypt哈希（$2a$10$...）中读取强度，无法识别时返回-1
+     */
+    static int costOf(String hashed) {
+        if (hashed == null || hashed.length() < 7 || hashed.charAt(0) != '$' || hashed.charAt(3) != '$'
+                || hashed.charAt(6) != '$' || !Character.isDigit(hashed.charAt(4)) || !Character.isDigit(hashed.charAt(5))) {
+            return -1;
+        }
+        return Integer.parseInt(hashed, 4, 6, 10);
+    }
+
+    /**
+     * 校准BCrypt强度：从最小强度开始实测，强度每加一耗时翻倍，
+     * 选择预计耗时不超过目标时间的最大强度
+     */
+    private static int calibrate(AuthProperties.PasswordHash config) {
+        long targetNanos = config.getTargetTime().toNanos();
+        int calibrated = config.getMinCost();
+        long elapsed = measure(calibrated);
+        while (calibrated < config.getMaxCost() && elapsed * 2 <= targetNanos) {
+            calibrated++;
+            elapsed = measure(calibrated);
+        }
+        if (elapsed > targetNanos) {
+            log.warn("最小BCrypt强度 {} 的耗时 {}ms 已超过目标 {}ms", calibrated,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), config.getTargetTime().toMillis());
+        } else {
+            log.info("BCrypt强度校准完成: {}，单次耗时 {}ms，目标 {}ms", calibrated,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed), config.getTargetTime().toMillis());
+        }
+        return calibrated;
+    }
+
+    /**
+     * 测量指定强度的耗时，取两次中较小值排除JIT预热的影响
+     */
+    private static long measure(int cost) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", BCrypt.gensalt(cost));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException(REJECTED_MESSAGE, estimateRetryAfterSeconds());
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new TooManyRequestsException(REJECTED_MESSAGE, estimateRetryAfterSeconds());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException("请求被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BusinessException("密码校验失败");
+        }
+    }
+
+    /**
+     * 按当前排队数和平均耗时估算多久后能排上，至少1秒
+     */
+    private long estimateRetryAfterSeconds() {
+        double meanMillis = Math.max(checkTimer.mean(TimeUnit.MILLISECONDS), hashTimer.mean(TimeUnit.MILLISECONDS));
+        double drainMillis = executor.getQueue().size() * meanMillis / executor.getMaximumPoolSize();
+        return Math.max(1L, (long) Math.ceil(drainMillis / 1000.0));
+    }
+}
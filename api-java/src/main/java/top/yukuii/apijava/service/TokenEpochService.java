@@ -0,0 +1,137 @@
+package top.yukuii.apijava.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.config.AuthProperties;
+import top.yukuii.apijava.mapper.UserMapper;
+import top.yukuii.apijava.model.entity.User;
+import top.yukuii.apijava.util.TokenEpochUtil;
+
+/**
+ * 用户Token纪元服务
+ * 纪元持久化在users表，内存中缓存纪元大于0的用户，后台定时按update_time增量刷新，使多节点最终一致
+ * 首次加载在启动时同步执行；失败时不阻塞启动，但加载成功前所有Token按失效处理（TokenEpochUtil.isCurrent），
+ * 避免已在所有设备登出的Token在重启后重新生效
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenEpochService {
+
+    /**
+     * 首次加载失败后的重试间隔
+     */
+    private static final long RETRY_DELAY_MILLIS = 5_000L;
+
+    /**
+     * 启动时等待首次加载的最长时间，超时后加载在后台继续
+     */
+    private static final long STARTUP_WAIT_MILLIS = 10_000L;
+
+    /**
+     * 增量刷新时向前回看的时间，覆盖update_time（事务开始时间）早于上次读取但提交较晚的更新
+     */
+    private static final long REFRESH_OVERLAP_MILLIS = 5 * 60 * 1000L;
+
+    private final UserMapper userMapper;
+
+    private final AuthProperties authProperties;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 下次增量刷新的update_time下限，0表示全量加载
+     */
+    private long since;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-epoch-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 首次加载在启动时同步等待，之后由后台线程按间隔刷新
+        Future<?> firstLoad = scheduler.submit(this::refresh);
+        scheduleNext();
+        try {
+            firstLoad.get(STARTUP_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("首次加载用户Token纪元失败，加载成功前拒绝所有Token: {}", e.getCause().getMessage());
+        } catch (TimeoutException e) {
+            log.warn("首次加载用户Token纪元超时，加载成功前拒绝所有Token");
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 在所有设备登出：纪元加一，之前签发的Token全部失效
+     *
+     * @param userId 用户ID
+     * @return 新纪元
+     */
+    public long revokeAll(String userId) {
+        Long epoch = userMapper.incrementTokenEpoch(userId);
+        if (epoch == null) {
+            throw new BusinessException("用户不存在");
+        }
+        TokenEpochUtil.update(userId, epoch);
+        log.info("用户 {} 已在所有设备登出，当前纪元: {}", userId, epoch);
+        return epoch;
+    }
+
+    /**
+     * 加载成功前按短间隔重试，之后按配置的间隔刷新
+     */
+    private void scheduleNext() {
+        long delay = TokenEpochUtil.isLoaded() ? authProperties.getEpoch().getRefreshInterval().toMillis() : RETRY_DELAY_MILLIS;
+        scheduler.schedule(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.warn("刷新用户Token纪元失败: {}", e.getMessage());
+            }
+            scheduleNext();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从数据库读取上次刷新之后更新过的纪元（首次为全部纪元大于0的用户）
+     */
+    private void refresh() {
+        List<User> users = userMapper.selectRevokedEpochs(since);
+        long latest = since;
+        for (User user : users) {
+            TokenEpochUtil.update(user.getUserId(), user.getTokenEpoch());
+            if (user.getUpdateTime() != null) {
+                latest = Math.max(latest, user.getUpdateTime() - REFRESH_OVERLAP_MILLIS);
+            }
+        }
+        since = latest;
+        if (!TokenEpochUtil.isLoaded()) {
+            TokenEpochUtil.markLoaded();
+            log.info("加载了 {} 个用户的Token纪元", users.size());
+        } else {
+            log.debug("刷新了 {} 个用户的Token纪元", users.size());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package top.yukuii.apijava.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.model.dto.TransactionFilter;
+import top.yukuii.apijava.model.entity.Transaction;
+
+/**
+ * 账单总数服务
+ * 按用户和过滤条件缓存COUNT结果；新增记录提交后，满足条件的缓存总数直接加一，
+ * 带关键词的条件无法在内存中判断，直接失效。
+ * 为避免与并发的新增交错缓存到旧值，新增进行中或期间有新增完成时，查询结果不写入缓存
+ */
+@Service
+public class TransactionCountService {
+
+    /**
+     * 单个用户最多缓存的过滤条件数，超过后清空该用户的缓存
+     */
+    private static final int MAX_FILTERS_PER_USER = 64;
+
+    private final TransactionProperties.CountCache config;
+
+    /**
+     * Key: 用户主键, Value: 该用户各过滤条件的总数
+     */
+    private final Cache<Long, UserCounts> cache;
+
+    private final Counter cacheHits;
+
+    private final Counter databaseCounts;
+
+    private final Counter estimates;
+
+    public TransactionCountService(TransactionProperties transactionProperties, MeterRegistry meterRegistry) {
+        this.config = transactionProperties.getCountCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxUsers())
+                .expireAfterWrite(config.getTtl())
+                .build();
+        this.cacheHits = Counter.builder("transaction.count.requests").tag("source", "cache").register(meterRegistry);
+        this.databaseCounts = Counter.builder("transaction.count.requests").tag("source", "database").register(meterRegistry);
+        this.estimates = Counter.builder("transaction.count.requests").tag("source", "estimate").register(meterRegistry);
+    }
+
+    /**
+     * 精确总数
+     *
+     * @param filter 过滤条件
+     * @param exactCount 数据库COUNT查询
+     * @return 总数
+     */
+    public long count(TransactionFilter filter, LongSupplier exactCount) {
+        if (!config.isEnabled()) {
+            databaseCounts.increment();
+            return exactCount.getAsLong();
+        }
+        UserCounts counts = cache.get(filter.userId(), id -> new UserCounts());
+        long generation;
+        counts.lock.lock();
+        try {
+            Long cached = counts.totals.get(filter);
+            if (cached != null) {
+                cacheHits.increment();
+                return cached;
+            }
+            generation = counts.generation;
+        } finally {
+            counts.lock.unlock();
+        }
+
+        databaseCounts.increment();
+        long total = exactCount.getAsLong();
+
+        counts.lock.lock();
+        try {
+            // 查询期间没有新增开始或完成，结果与之后的增量调整一致
+            if (counts.pending == 0 && counts.generation == generation) {
+                if (counts.totals.size() >= MAX_FILTERS_PER_USER) {
+                    counts.totals.clear();
+                }
+                counts.totals.put(filter, total);
+            }
+        } finally {
+            counts.lock.unlock();
+        }
+        return total;
+    }
+
+    /**
+     * 近似总数
+     * 结果集较大时使用查询计划的行数估计，较小时改为精确计数
+     *
+     * @param filter 过滤条件
+     * @param estimate 查询计划的行数估计
+     * @param exactCount 数据库COUNT查询
+     * @return 总数
+     */
+    public long approximate(TransactionFilter filter, LongSupplier estimate, LongSupplier exactCount) {
+        long estimated = estimate.getAsLong();
+        if (estimated < config.getApproximateThreshold()) {
+            return count(filter, exactCount);
+        }
+        estimates.increment();
+        return estimated;
+    }
+
+    /**
+     * 新增记录（可以属于不同用户），提交后逐条调整缓存的总数
+     * 在事务中调用时，调整推迟到事务提交之后
+     *
+     * @param transactions 新增的记录（userId必须已设置）
+     * @param insert 插入操作
+     */
+    public void insertAll(List<Transaction> transactions, Runnable insert) {
+        if (!config.isEnabled()) {
+            insert.run();
+            return;
+        }
+        List<UserCounts> counts = transactions.stream()
+                .map(transaction -> cache.get(transaction.getUserId(), id -> new UserCounts()))
+                .toList();
+        counts.forEach(UserCounts::begin);
+        try {
+            insert.run();
+        } catch (RuntimeException | Error e) {
+            counts.forEach(userCounts -> userCounts.complete(null));
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(counts, transactions, status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            complete(counts, transactions, true);
+        }
+    }
+
+    private static void complete(List<UserCounts> counts, List<Transaction> transactions, boolean committed) {
+        for (int i = 0; i < counts.size(); i++) {
+            counts.get(i).complete(committed ? transactions.get(i) : null);
+        }
+    }
+
+    /**
+     * 清除用户缓存的总数（批量写入后调用）
+     * 正在进行的查询看到generation变化，结果不会写回缓存
+     *
+     * @param userId 用户主键
+     */
+    public void invalidate(long userId) {
+        UserCounts counts = cache.getIfPresent(userId);
+        if (counts != null) {
+            counts.lock.lock();
+            try {
+                counts.totals.clear();
+                counts.generation++;
+            } finally {
+                counts.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 单个用户的缓存总数
+     */
+    private static class UserCounts {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 过滤条件 -> 总数
+         */
+        private final Map<TransactionFilter, Long> totals = new HashMap<>();
+
+        /**
+         * 进行中的新增数
+         */
+        private int pending;
+
+        /**
+         * 每完成一次新增加一
+         */
+        private long generation;
+
+        void begin() {
+            lock.lock();
+            try {
+                pending++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @param inserted 已提交的记录，插入失败或回滚时为null
+         */
+        void complete(Transaction inserted) {
+            lock.lock();
+            try {
+                if (inserted != null) {
+                    totals.entrySet().removeIf(entry -> !entry.getKey().isEvaluable());
+                    totals.replaceAll((filter, total) -> filter.matches(inserted) ? total + 1 : total);
+                }
+                generation++;
+                pending--;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
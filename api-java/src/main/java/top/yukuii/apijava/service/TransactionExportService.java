@@ -0,0 +1,94 @@
+package top.yukuii.apijava.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.mapper.TransactionMapper;
+import top.yukuii.apijava.model.dto.TransactionFilter;
+import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.model.enums.FileFormat;
+import top.yukuii.apijava.util.RequestContext;
+import top.yukuii.apijava.util.TransactionRecordWriter;
+
+/**
+ * 账单导出服务
+ * 在只读事务中通过服务端游标按批读取，逐条写入响应流，内存占用与导出的记录数无关
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+
+    private final TransactionMapper transactionMapper;
+
+    private final TransactionService transactionService;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Counter exportedRows;
+
+    public TransactionExportService(TransactionMapper transactionMapper, TransactionService transactionService,
+                                    TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.transactionMapper = transactionMapper;
+        this.transactionService = transactionService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.exportedRows = Counter.builder("transaction.export.rows").register(meterRegistry);
+    }
+
+    /**
+     * 导出当前登录用户的账单记录，过滤条件与分页查询一致，按日期倒序
+     * 过滤条件在请求线程中构建，响应体在异步线程中写出
+     *
+     * @param format 文件格式
+     * @param gzip 是否gzip压缩
+     * @return 响应体
+     */
+    public StreamingResponseBody exportTransactions(String type, Long categoryId, Long startDate, Long endDate, String keyword,
+                                                    List<String> tags, String tagMatch, FileFormat format, boolean gzip) {
+        TransactionFilter filter = TransactionService.toFilter(RequestContext.requireUserId(), type, categoryId, startDate, endDate,
+                keyword, tags, tagMatch);
+        LambdaQueryWrapper<Transaction> wrapper = transactionService.buildFilter(filter)
+                .orderByDesc(Transaction::getTransactionDate)
+                .orderByDesc(Transaction::getId);
+        return out -> {
+            long start = System.currentTimeMillis();
+            OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+            long rows = write(wrapper, new TransactionRecordWriter(target, format));
+            if (target instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+            exportedRows.increment(rows);
+            log.info("用户 {} 导出账单 {} 条，耗时: {} ms", filter.userId(), rows, System.currentTimeMillis() - start);
+        };
+    }
+
+    private long write(LambdaQueryWrapper<Transaction> wrapper, TransactionRecordWriter writer) {
+        Long rows = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Cursor<Transaction> cursor = transactionMapper.streamTransactions(wrapper)) {
+                for (Transaction transaction : cursor) {
+                    writer.write(transaction);
+                    count++;
+                }
+                writer.flush();
+            } catch (IOException e) {
+                // 客户端断开等写出失败，结束查询并释放连接
+                throw new IllegalStateException("导出写出失败: " + e.getMessage(), e);
+            }
+            return count;
+        });
+        return rows != null ? rows : 0L;
+    }
+}
@@ -0,0 +1,408 @@
+package top.yukuii.apijava.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.mapper.TransactionMapper;
+import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.model.enums.CurrencyType;
+import top.yukuii.apijava.model.enums.FileFormat;
+import top.yukuii.apijava.model.enums.PaymentMethod;
+import top.yukuii.apijava.model.enums.TransactionStatus;
+import top.yukuii.apijava.model.enums.TransactionType;
+import top.yukuii.apijava.model.vo.ImportErrorVO;
+import top.yukuii.apijava.model.vo.ImportResultVO;
+import top.yukuii.apijava.util.RequestContext;
+import top.yukuii.apijava.util.TransactionRecordReader;
+import top.yukuii.apijava.util.TransactionRecordReader.ImportRecord;
+
+/**
+ * 账单批量导入服务
+ * 流式读取CSV或NDJSON，逐行校验，校验通过的记录攒够一批后用一条多行INSERT写入。
+ * 每批与统计汇总一起单独提交，校验失败或所在批次写入失败的行记入错误列表，不影响其他行；
+ * 导入进度按用户和导入ID保存，导入进行中一直可以查询，结束后保留progress-ttl
+ */
+@Slf4j
+@Service
+public class TransactionImportService {
+
+    /**
+     * 不带时区的交易日期格式，按常见程度排列
+     */
+    private static final List<DateTimeFormatter> LOCAL_DATE_FORMATS = Stream.of(
+                    "uuuu-M-d[ H:mm[:ss]]", "uuuu-M-d'T'H:mm[:ss]", "uuuu/M/d[ H:mm[:ss]]", "uuuu.M.d", "uuuuMMdd", "uuuuMMddHHmmss")
+            .map(TransactionImportService::localDateFormat)
+            .toList();
+
+    /**
+     * 金额整数部分最多位数，与DECIMAL(15,2)一致
+     */
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 13;
+
+    private final TransactionWriteService transactionWriteService;
+
+    private final TransactionPartitionService transactionPartitionService;
+
+    private final TransactionProperties.BulkImport config;
+
+    /**
+     * 进行中的导入，Key: 用户主键:导入ID, Value: 导入进度
+     * 数量受处理请求的线程数限制，不会过期或被淘汰，导入ID在导入期间不能重复使用
+     */
+    private final Map<String, ImportProgress> running = new ConcurrentHashMap<>();
+
+    /**
+     * 已结束的导入，Key: 用户主键:导入ID, Value: 导入结果
+     * 结束时写入，按数量和时间淘汰
+     */
+    private final Cache<String, ImportProgress> progresses;
+
+    private final Counter importedRows;
+
+    private final Counter failedRows;
+
+    public TransactionImportService(TransactionWriteService transactionWriteService,
+                                    TransactionPartitionService transactionPartitionService,
+                                    TransactionProperties transactionProperties, MeterRegistry meterRegistry) {
+        this.transactionWriteService = transactionWriteService;
+        this.transactionPartitionService = transactionPartitionService;
+        this.config = transactionProperties.getBulkImport();
+        this.progresses = Caffeine.newBuilder()
+                .maximumSize(config.getMaxProgresses())
+                .expireAfterWrite(config.getProgressTtl())
+                .build();
+        this.importedRows = Counter.builder("transaction.import.rows").tag("result", "imported").register(meterRegistry);
+        this.failedRows = Counter.builder("transaction.import.rows").tag("result", "failed").register(meterRegistry);
+    }
+
+    /**
+     * 导入账单记录
+     *
+     * @param file 上传的文件
+     * @param format 文件格式，为空时按文件名推断
+     * @param importId 导入ID，客户端指定后可在导入过程中查询进度，为空时自动生成
+     * @return 导入结果
+     */
+    public ImportResultVO importTransactions(MultipartFile file, String format, String importId) {
+        long userId = RequestContext.requireUserId();
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException(400, "导入文件不能为空");
+        }
+        FileFormat fileFormat = StrUtil.isNotBlank(format) ? FileFormat.getByCode(format) : FileFormat.getByFileName(file.getOriginalFilename());
+        if (fileFormat == null) {
+            throw new BusinessException(400, "不支持的文件格式，请使用csv或ndjson");
+        }
+        String id = StrUtil.isNotBlank(importId) ? importId : IdUtil.fastSimpleUUID();
+        String key = progressKey(userId, id);
+        ImportProgress progress = new ImportProgress(id);
+        // 先占用进行中的ID再检查已结束的导入（结束时先放入结果缓存再移出进行中），不会漏掉刚结束的同ID导入
+        if (running.putIfAbsent(key, progress) != null) {
+            throw new BusinessException(400, "导入ID已存在");
+        }
+        if (progresses.getIfPresent(key) != null) {
+            running.remove(key);
+            throw new BusinessException(400, "导入ID已存在");
+        }
+
+        int batchSize = Math.min(Math.max(config.getBatchSize(), 1), TransactionMapper.MAX_BATCH_SIZE);
+        List<Transaction> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        try (InputStream in = file.getInputStream();
+             TransactionRecordReader reader = new TransactionRecordReader(in, fileFormat)) {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                progress.processed.incrementAndGet();
+                try {
+                    Transaction transaction = toTransaction(record, userId);
+                    // 超出分区范围的日期逐行拒绝，不让整批失败
+                    transactionPartitionService.checkTransactionDate(transaction.getTransactionDate());
+                    batch.add(transaction);
+                    batchLines.add(record.line());
+                } catch (BusinessException e) {
+                    progress.fail(record.line(), e.getMessage(), config.getMaxErrors());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    flush(batch, batchLines, progress);
+                }
+            }
+            flush(batch, batchLines, progress);
+        } catch (IOException e) {
+            log.warn("读取导入文件失败: {}", e.getMessage());
+            progress.fail(progress.processed.get(), "读取文件失败: " + e.getMessage(), config.getMaxErrors());
+        } finally {
+            progress.finish();
+            // 先放入结果缓存再移出进行中，查询进度时始终能看到其中一个
+            progresses.put(key, progress);
+            running.remove(key);
+        }
+        importedRows.increment(progress.imported.get());
+        failedRows.increment(progress.failed.get());
+        log.info("用户 {} 导入账单完成，读取: {}，写入: {}，失败: {}，耗时: {} ms", userId,
+                progress.processed.get(), progress.imported.get(), progress.failed.get(), progress.elapsedMs());
+        return progress.toVO();
+    }
+
+    /**
+     * 查询导入进度
+     *
+     * @param importId 导入ID
+     * @return 当前进度，结束后为导入结果
+     */
+    public ImportResultVO getProgress(String importId) {
+        String key = progressKey(RequestContext.requireUserId(), importId);
+        ImportProgress progress = running.get(key);
+        if (progress == null) {
+            progress = progresses.getIfPresent(key);
+        }
+        if (progress == null) {
+            throw new BusinessException(404, "导入任务不存在或已过期");
+        }
+        return progress.toVO();
+    }
+
+    /**
+     * 写入一批记录，整批失败时每行都记为失败
+     */
+    private void flush(List<Transaction> batch, List<Long> batchLines, ImportProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            // 与新增账单同一写入路径：按需创建分区，批次和统计汇总在同一事务中提交，提交后更新分页总数和搜索索引
+            transactionWriteService.insertAll(batch);
+            progress.imported.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            log.warn("导入批次写入失败，行 {}-{}: {}", batchLines.get(0), batchLines.get(batchLines.size() - 1), e.getMessage());
+            String message = "写入失败: " + StrUtil.subPre(StrUtil.nullToEmpty(e.getMessage()), 200);
+            batchLines.forEach(line -> progress.fail(line, message, config.getMaxErrors()));
+        }
+        batch.clear();
+        batchLines.clear();
+    }
+
+    /**
+     * 校验一行并转换为账单记录
+     * 没有type时按金额正负判断（银行流水中支出常为负数），有type时金额必须为正
+     */
+    private static Transaction toTransaction(ImportRecord record, long userId) {
+        if (record.error() != null) {
+            throw new BusinessException(400, record.error());
+        }
+        Map<String, String> fields = record.fields();
+
+        BigDecimal amount = parseAmount(field(fields, "amount"));
+        String typeCode = field(fields, "type");
+        String type;
+        if (typeCode == null) {
+            type = amount.signum() < 0 ? TransactionType.EXPENSE.getCode() : TransactionType.INCOME.getCode();
+        } else {
+            TransactionType transactionType = TransactionType.getByCode(typeCode.toLowerCase(Locale.ROOT));
+            if (transactionType == null) {
+                throw new BusinessException(400, "不支持的交易类型: " + typeCode);
+            }
+            if (amount.signum() < 0) {
+                throw new BusinessException(400, "指定交易类型时金额必须为正数");
+            }
+            type = transactionType.getCode();
+        }
+        amount = amount.abs();
+        if (amount.signum() == 0) {
+            throw new BusinessException(400, "金额不能为0");
+        }
+
+        String paymentMethod = field(fields, "paymentmethod");
+        if (paymentMethod != null && PaymentMethod.getByCode(paymentMethod) == null) {
+            throw new BusinessException(400, "不支持的支付方式: " + paymentMethod);
+        }
+        String currency = StrUtil.blankToDefault(field(fields, "currency"), CurrencyType.CNY.getCode()).toUpperCase(Locale.ROOT);
+        if (CurrencyType.getByCode(currency) == null) {
+            throw new BusinessException(400, "不支持的货币类型: " + currency);
+        }
+        String location = field(fields, "location");
+        if (location != null && location.length() > 255) {
+            throw new BusinessException(400, "交易地点不能超过255个字符");
+        }
+
+        long now = System.currentTimeMillis();
+        Transaction transaction = new Transaction();
+        transaction.setUserId(userId);
+        transaction.setType(type);
+        transaction.setCategoryId(parseLong(field(fields, "categoryid"), "分类ID"));
+        transaction.setAmount(amount);
+        transaction.setDescription(field(fields, "description"));
+        transaction.setTransactionDate(parseDate(StrUtil.emptyToDefault(field(fields, "transactiondate"), field(fields, "date"))));
+        transaction.setPaymentMethod(paymentMethod);
+        transaction.setStatus(TransactionStatus.COMPLETED.getCode());
+        transaction.setLocation(location);
+        transaction.setCurrency(currency);
+        transaction.setTags(field(fields, "tags"));
+        transaction.setRemark(field(fields, "remark"));
+        transaction.setCreateBy(userId);
+        transaction.setCreateTime(now);
+        transaction.setUpdateTime(now);
+        return transaction;
+    }
+
+    private static String field(Map<String, String> fields, String name) {
+        return StrUtil.emptyToNull(fields.get(name));
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            throw new BusinessException(400, "缺少金额");
+        }
+        BigDecimal amount;
+        try {
+            // 允许千分位分隔符
+            amount = new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new BusinessException(400, "金额格式错误: " + value);
+        }
+        if (amount.scale() > 2) {
+            throw new BusinessException(400, "金额最多两位小数: " + value);
+        }
+        if (amount.precision() - amount.scale() > MAX_AMOUNT_INTEGER_DIGITS) {
+            throw new BusinessException(400, "金额超出范围: " + value);
+        }
+        return amount;
+    }
+
+    private static Long parseLong(String value, String name) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(400, name + "格式错误: " + value);
+        }
+    }
+
+    /**
+     * 交易日期：12或13位的毫秒时间戳（1973年之后），或yyyy-MM-dd、yyyy-MM-dd HH:mm:ss、yyyyMMdd等常见格式
+     * 不带时区的日期按TransactionStatisticsService.ZONE解析，与统计和分区的月份边界一致；也接受带时区偏移的ISO格式
+     */
+    static long parseDate(String value) {
+        if (value == null) {
+            throw new BusinessException(400, "缺少交易日期");
+        }
+        // 8位和14位的纯数字是yyyyMMdd和yyyyMMddHHmmss，不能当作时间戳
+        if (StrUtil.isNumeric(value) && value.length() >= 12 && value.length() <= 13) {
+            return Long.parseLong(value);
+        }
+        for (DateTimeFormatter format : LOCAL_DATE_FORMATS) {
+            try {
+                return LocalDateTime.parse(value, format).atZone(TransactionStatisticsService.ZONE).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                // 尝试下一个格式
+            }
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new BusinessException(400, "交易日期格式错误: " + value);
+        }
+    }
+
+    private static DateTimeFormatter localDateFormat(String pattern) {
+        return new DateTimeFormatterBuilder()
+                .appendPattern(pattern)
+                .parseDefaulting(ChronoField.HOUR_OF_DAY, 0)
+                .parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0)
+                .parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0)
+                .toFormatter()
+                .withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    private static String progressKey(long userId, String importId) {
+        return userId + ":" + importId;
+    }
+
+    /**
+     * 单次导入的进度，由导入线程更新，查询进度的请求读取
+     */
+    private static class ImportProgress {
+
+        private final String importId;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private final AtomicLong processed = new AtomicLong();
+
+        private final AtomicLong imported = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private final Queue<ImportErrorVO> errors = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger errorCount = new AtomicInteger();
+
+        private volatile boolean done;
+
+        private volatile long endTime;
+
+        ImportProgress(String importId) {
+            this.importId = importId;
+        }
+
+        void fail(long line, String message, int maxErrors) {
+            failed.incrementAndGet();
+            if (errorCount.getAndIncrement() < maxErrors) {
+                errors.add(new ImportErrorVO(line, message));
+            }
+        }
+
+        void finish() {
+            endTime = System.currentTimeMillis();
+            done = true;
+        }
+
+        long elapsedMs() {
+            return (done ? endTime : System.currentTimeMillis()) - startTime;
+        }
+
+        ImportResultVO toVO() {
+            return ImportResultVO.builder()
+                    .importId(importId)
+                    .processed(processed.get())
+                    .imported(imported.get())
+                    .failed(failed.get())
+                    .errors(List.copyOf(errors))
+                    .done(done)
+                    .elapsedMs(elapsedMs())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package top.yukuii.apijava.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.mapper.TransactionMapper;
+import top.yukuii.apijava.mapper.TransactionPartitionMapper;
+import top.yukuii.apijava.model.entity.Transaction;
+
+/**
+ * 账单表分区维护
+ * transaction按transaction_date每月一个分区（边界按TransactionStatisticsService.ZONE）。
+ * 后台定时创建当月及之后几个月的分区，把超过保留期的分区分离为独立的归档表；
+ * 写入历史日期的记录（如批量导入）前按需创建对应月份的分区，只接受保留期内（未设置时从1970年起）到之后几个月的日期
+ */
+@Slf4j
+@Service
+public class TransactionPartitionService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("transaction_p(\\d{6})");
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final LocalDate EARLIEST_MONTH = LocalDate.of(1970, 1, 1);
+
+    private final TransactionPartitionMapper transactionPartitionMapper;
+
+    private final TransactionMapper transactionMapper;
+
+    private final TransactionProperties.Partition config;
+
+    /**
+     * 已确认存在的分区月份（当月1日）
+     */
+    private final Set<LocalDate> knownMonths = ConcurrentHashMap.newKeySet();
+
+    /**
+     * transaction是否为分区表，首次检查前为null
+     */
+    private volatile Boolean partitioned;
+
+    private volatile boolean pruningVerified;
+
+    private ScheduledExecutorService scheduler;
+
+    public TransactionPartitionService(TransactionPartitionMapper transactionPartitionMapper, TransactionMapper transactionMapper,
+                                       TransactionProperties transactionProperties) {
+        this.transactionPartitionMapper = transactionPartitionMapper;
+        this.transactionMapper = transactionMapper;
+        this.config = transactionProperties.getPartition();
+    }
+
+    /**
+     * 首次维护也在后台执行，数据库不可用时不阻塞启动
+     */
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-partition-maintainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintain, 0L, config.getCheckInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 确保记录所在月份的分区存在，写入前调用
+     * 先校验所有月份，有超出范围的日期时不创建任何分区
+     *
+     * @param transactions 待写入的记录（transactionDate必须已设置）
+     */
+    public void ensurePartitions(Collection<Transaction> transactions) {
+        if (!config.isEnabled() || !isPartitioned()) {
+            return;
+        }
+        Set<LocalDate> months = new TreeSet<>();
+        for (Transaction transaction : transactions) {
+            LocalDate month = monthOf(transaction.getTransactionDate());
+            checkMonth(month);
+            if (!knownMonths.contains(month)) {
+                months.add(month);
+            }
+        }
+        months.forEach(this::createPartition);
+    }
+
+    /**
+     * 校验交易日期是否在可写入的范围内，批量导入时逐行调用，超出范围的行单独记为失败
+     *
+     * @param transactionDate 交易日期（毫秒时间戳）
+     */
+    public void checkTransactionDate(long transactionDate) {
+        if (config.isEnabled() && isPartitioned()) {
+            checkMonth(monthOf(transactionDate));
+        }
+    }
+
+    /**
+     * 可写入的月份：保留期内（未设置保留期时从1970年起，早于保留期的分区会被分离）到之后monthsAhead个月
+     * 避免任意日期创建大量分区，也避免刚导入的历史记录在下次维护时被归档
+     */
+    private void checkMonth(LocalDate month) {
+        LocalDate currentMonth = LocalDate.now(TransactionStatisticsService.ZONE).withDayOfMonth(1);
+        LocalDate first = config.getRetentionMonths() > 0 ? firstKeptMonth(currentMonth) : EARLIEST_MONTH;
+        LocalDate last = currentMonth.plusMonths(config.getMonthsAhead());
+        if (month.isBefore(first) || month.isAfter(last)) {
+            throw new BusinessException(400, StrUtil.format("交易日期超出范围，只能是{}至{}之间的月份",
+                    YearMonth.from(first), YearMonth.from(last)));
+        }
+    }
+
+    private LocalDate firstKeptMonth(LocalDate currentMonth) {
+        return currentMonth.minusMonths(config.getRetentionMonths() - 1L);
+    }
+
+    private static LocalDate monthOf(long transactionDate) {
+        return Instant.ofEpochMilli(transactionDate).atZone(TransactionStatisticsService.ZONE).toLocalDate().withDayOfMonth(1);
+    }
+
+    /**
+     * 创建当月及之后几个月的分区，分离超过保留期的分区
+     */
+    void maintain() {
+        try {
+            if (!isPartitioned()) {
+                log.info("transaction不是分区表，跳过分区维护");
+                scheduler.shutdown();
+                return;
+            }
+            LocalDate currentMonth = LocalDate.now(TransactionStatisticsService.ZONE).withDayOfMonth(1);
+            for (int i = 0; i <= config.getMonthsAhead(); i++) {
+                createPartition(currentMonth.plusMonths(i));
+            }
+            if (config.getRetentionMonths() > 0) {
+                detachBefore(firstKeptMonth(currentMonth));
+            }
+            if (!pruningVerified) {
+                verifyPruning(currentMonth);
+            }
+        } catch (Exception e) {
+            log.warn("分区维护失败: {}", e.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean detected = partitioned;
+        if (detected == null) {
+            detected = transactionPartitionMapper.countPartitionedTable() > 0;
+            partitioned = detected;
+        }
+        return detected;
+    }
+
+    private void createPartition(LocalDate month) {
+        String name = transactionPartitionMapper.createPartition(month);
+        knownMonths.add(month);
+        log.debug("分区 {} 已就绪", name);
+    }
+
+    /**
+     * 分离早于指定月份的分区，改名为transaction_archive_yyyyMM（已存在时加序号），之后可以导出后删除
+     * 分离后这些记录不再出现在列表、搜索和导出中；统计汇总保留
+     */
+    private void detachBefore(LocalDate firstKeptMonth) {
+        String firstKept = firstKeptMonth.format(MONTH_FORMAT);
+        for (String name : transactionPartitionMapper.selectPartitionNames()) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches() || matcher.group(1).compareTo(firstKept) >= 0) {
+                continue;
+            }
+            transactionPartitionMapper.detachPartition(name);
+            knownMonths.remove(YearMonth.parse(matcher.group(1), MONTH_FORMAT).atDay(1));
+        }
+        // 包括之前改名失败遗留的分区：不改名的话create_transaction_partition会认为该月分区已存在
+        for (String name : transactionPartitionMapper.selectDetachedPartitionNames()) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            String archiveName = archiveName(matcher.group(1));
+            transactionPartitionMapper.renamePartition(name, archiveName);
+            log.info("分区 {} 已分离并改名为 {}", name, archiveName);
+        }
+    }
+
+    /**
+     * 同一个月可能被归档多次（例如之前归档过的月份又写入了记录）
+     */
+    private String archiveName(String month) {
+        String base = "transaction_archive_" + month;
+        String name = base;
+        for (int i = 2; transactionPartitionMapper.existsTable(name); i++) {
+            name = base + "_" + i;
+        }
+        return name;
+    }
+
+    /**
+     * 用分页查询的日期过滤条件检查分区裁剪：一个月的范围应该只扫描一个分区
+     */
+    private void verifyPruning(LocalDate month) {
+        long from = month.atStartOfDay(TransactionStatisticsService.ZONE).toInstant().toEpochMilli();
+        long to = month.plusMonths(1).atStartOfDay(TransactionStatisticsService.ZONE).toInstant().toEpochMilli() - 1;
+        LambdaQueryWrapper<Transaction> wrapper = new LambdaQueryWrapper<Transaction>()
+                .eq(Transaction::getUserId, 0L)
+                .ge(Transaction::getTransactionDate, from)
+                .le(Transaction::getTransactionDate, to);
+        int scanned = StrUtil.count(transactionMapper.explainFilter(wrapper), "\"Relation Name\"");
+        if (scanned == 1) {
+            log.info("分区裁剪已生效：一个月的日期过滤只扫描1个分区");
+        } else {
+            log.warn("分区裁剪未生效：一个月的日期过滤扫描了 {} 个分区", scanned);
+        }
+        pruningVerified = true;
+    }
+}
@@ -0,0 +1,239 @@
+package top.yukuii.apijava.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.mapper.TransactionMapper;
+import top.yukuii.apijava.model.dto.TransactionFilter;
+import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.util.NgramIndex;
+import top.yukuii.apijava.util.SearchText;
+
+/**
+ * 账单关键词搜索
+ * 搜索描述、标签、地点和备注。数据库有搜索生成列时（Postgres）：全文检索前缀匹配或三元组子串匹配，
+ * 都走GIN索引，按ts_rank排序；否则（如使用H2的测试环境）使用进程内n-gram索引，按用户懒加载，
+ * 本节点新增记录时同步更新，单次搜索最多命中ngramMaxCandidates条最新的记录
+ */
+@Slf4j
+@Service
+public class TransactionSearchService {
+
+    /**
+     * 描述、标签、地点、备注的权重（与ts_rank默认的A、B、C、D权重一致）
+     */
+    private static final double[] FIELD_WEIGHTS = {1.0, 0.4, 0.2, 0.1};
+
+    /**
+     * n-gram命中记录作为IN条件的参数，Postgres单条语句最多32767个参数，为其他条件留出余量
+     */
+    private static final int MAX_CANDIDATES = 30_000;
+
+    private final TransactionMapper transactionMapper;
+
+    private final TransactionProperties.SearchMode mode;
+
+    private final int maxCandidates;
+
+    /**
+     * Key: 用户主键, Value: 该用户的n-gram索引
+     */
+    private final Cache<Long, UserIndex> ngramIndexes;
+
+    /**
+     * 是否使用数据库搜索，首次搜索时检测
+     */
+    private volatile Boolean databaseSearch;
+
+    public TransactionSearchService(TransactionMapper transactionMapper, TransactionProperties transactionProperties) {
+        TransactionProperties.Search config = transactionProperties.getSearch();
+        this.transactionMapper = transactionMapper;
+        this.mode = config.getMode();
+        this.maxCandidates = Math.min(Math.max(config.getNgramMaxCandidates(), 1), MAX_CANDIDATES);
+        this.ngramIndexes = Caffeine.newBuilder()
+                .maximumSize(config.getNgramMaxUsers())
+                .expireAfterWrite(config.getNgramTtl())
+                .build();
+    }
+
+    /**
+     * 添加关键词过滤条件
+     *
+     * @param wrapper 查询条件
+     * @param filter 过滤条件（keyword不为空）
+     */
+    public void applyKeyword(LambdaQueryWrapper<Transaction> wrapper, TransactionFilter filter) {
+        String keyword = filter.keyword();
+        if (useDatabase()) {
+            String tsQuery = SearchText.toTsQuery(SearchText.terms(keyword));
+            String like = SearchText.likePattern(keyword);
+            if (tsQuery != null) {
+                wrapper.apply("(search_vector @@ to_tsquery('simple', {0}) OR search_text ILIKE {1})", tsQuery, like);
+            } else {
+                wrapper.apply("search_text ILIKE {0}", like);
+            }
+            return;
+        }
+        Set<Long> ids = userIndex(filter.userId()).search(keyword);
+        if (ids.isEmpty()) {
+            wrapper.apply("1 = 0");
+            return;
+        }
+        if (ids.size() > maxCandidates) {
+            // 同时限制了rankedPage读取的行数；id越大记录越新
+            log.debug("用户 {} 搜索 {} 命中 {} 条，只保留最新的 {} 条", filter.userId(), keyword, ids.size(), maxCandidates);
+            ids = ids.stream().sorted(Comparator.reverseOrder()).limit(maxCandidates).collect(Collectors.toSet());
+        }
+        wrapper.in(Transaction::getId, ids);
+    }
+
+    /**
+     * 按相关度分页（相关度相同时按日期倒序）
+     *
+     * @param page 分页参数
+     * @param wrapper 已包含关键词条件的查询条件，不能带排序
+     * @param filter 过滤条件（keyword不为空）
+     * @return 当前页记录，searchRank为相关度
+     */
+    public Page<Transaction> rankedPage(Page<Transaction> page, LambdaQueryWrapper<Transaction> wrapper, TransactionFilter filter) {
+        List<String> terms = SearchText.terms(filter.keyword());
+        if (useDatabase()) {
+            wrapper.select(Transaction.class, field -> true);
+            transactionMapper.selectRankedPage(page, wrapper, SearchText.toTsQuery(terms));
+            return page;
+        }
+        // n-gram索引的候选已经在applyKeyword中限定为当前用户命中的记录
+        List<Transaction> rows = transactionMapper.selectList(wrapper);
+        rows.forEach(row -> row.setSearchRank(score(terms, row)));
+        rows.sort(Comparator.comparing(Transaction::getSearchRank, Comparator.reverseOrder())
+                .thenComparing(Transaction::getTransactionDate, Comparator.reverseOrder())
+                .thenComparing(Transaction::getId, Comparator.reverseOrder()));
+        int from = (int) Math.min(rows.size(), (page.getCurrent() - 1) * page.getSize());
+        int to = (int) Math.min(rows.size(), from + page.getSize());
+        page.setRecords(rows.subList(from, to));
+        return page;
+    }
+
+    /**
+     * 新增记录后更新进程内索引（数据库搜索使用生成列，不需要处理）
+     *
+     * @param transaction 已插入的记录
+     */
+    public void onInserted(Transaction transaction) {
+        if (Boolean.TRUE.equals(databaseSearch)) {
+            return;
+        }
+        UserIndex index = ngramIndexes.getIfPresent(transaction.getUserId());
+        if (index != null) {
+            index.add(transaction);
+        }
+    }
+
+    /**
+     * 丢弃用户的进程内索引，下次搜索时重新加载（批量写入后调用）
+     *
+     * @param userId 用户主键
+     */
+    public void invalidate(long userId) {
+        ngramIndexes.invalidate(userId);
+    }
+
+    private boolean useDatabase() {
+        Boolean detected = databaseSearch;
+        if (detected == null) {
+            detected = switch (mode) {
+                case DATABASE -> true;
+                case NGRAM -> false;
+                case AUTO -> transactionMapper.countSearchColumns() > 0;
+            };
+            databaseSearch = detected;
+            log.info("关键词搜索使用{}", detected ? "数据库全文检索" : "进程内n-gram索引");
+        }
+        return detected;
+    }
+
+    private UserIndex userIndex(long userId) {
+        return ngramIndexes.get(userId, id -> {
+            UserIndex index = new UserIndex();
+            transactionMapper.selectSearchDocuments(id).forEach(index::add);
+            log.debug("构建用户 {} 的n-gram索引，记录数: {}", id, index.documents.size());
+            return index;
+        });
+    }
+
+    private static double score(List<String> terms, Transaction transaction) {
+        String[] fields = searchFields(transaction);
+        double score = 0;
+        for (int i = 0; i < fields.length; i++) {
+            score += FIELD_WEIGHTS[i] * SearchText.occurrences(terms, fields[i]);
+        }
+        return score;
+    }
+
+    private static String[] searchFields(Transaction transaction) {
+        return new String[] {transaction.getDescription(), transaction.getTags(), transaction.getLocation(), transaction.getRemark()};
+    }
+
+    private static String searchText(Transaction transaction) {
+        StringBuilder text = new StringBuilder();
+        for (String field : searchFields(transaction)) {
+            if (field != null) {
+                text.append(field).append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * 单个用户的n-gram索引
+     */
+    private static class UserIndex {
+
+        private final NgramIndex index = new NgramIndex();
+
+        /**
+         * 记录id -> 可搜索文本
+         */
+        private final Map<Long, String> documents = new ConcurrentHashMap<>();
+
+        void add(Transaction transaction) {
+            String text = searchText(transaction);
+            documents.put(transaction.getId(), text);
+            index.add(transaction.getId(), text);
+        }
+
+        /**
+         * 与数据库搜索的语义一致：包含所有词项（关键词没有字母数字时按整个关键词子串匹配）
+         */
+        Set<Long> search(String keyword) {
+            List<String> terms = SearchText.terms(keyword);
+            if (terms.isEmpty()) {
+                String whole = keyword.toLowerCase(Locale.ROOT);
+                return documents.entrySet().stream()
+                        .filter(entry -> entry.getValue().toLowerCase(Locale.ROOT).contains(whole))
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toSet());
+            }
+            return index.candidates(terms).stream()
+                    .filter(id -> {
+                        String text = documents.get(id);
+                        return text != null && SearchText.containsAll(terms, text);
+                    })
+                    .collect(Collectors.toSet());
+        }
+    }
+}
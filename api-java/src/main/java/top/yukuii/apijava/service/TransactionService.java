@@ -1,102 +1,196 @@
 package top.yukuii.apijava.service;
 
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import org.springframework.stereotype.Service;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
 import lombok.RequiredArgsConstructor;
 import top.yukuii.apijava.common.BusinessException;
 import top.yukuii.apijava.mapper.TransactionMapper;
 import top.yukuii.apijava.model.dto.CreateTransactionDTO;
+import top.yukuii.apijava.model.dto.TransactionFilter;
 import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.model.enums.CurrencyType;
+import top.yukuii.apijava.model.enums.TagMatch;
+import top.yukuii.apijava.model.enums.TransactionStatus;
+import top.yukuii.apijava.model.vo.CursorPageVO;
 import top.yukuii.apijava.model.vo.GetTransactionVO;
-import top.yukuii.apijava.util.TokenManager;
+import top.yukuii.apijava.util.PageCursor;
+import top.yukuii.apijava.util.RequestContext;
+import top.yukuii.apijava.util.SearchText;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
+    /**
+     * 游标分页单页最大条数
+     */
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    /**
+     * 单次查询最多的过滤标签数
+     */
+    private static final int MAX_FILTER_TAGS = 20;
+
+    /**
+     * 标签分隔符（与init.sql中transaction_tag_array一致）
+     */
+    private static final Pattern TAG_SEPARATOR = Pattern.compile("[,，]");
+
+    /**
+     * 标签两端去除的字符：只有ASCII空格，与init.sql中transaction_tag_array的btrim一致；
+     * 制表符、全角空格（U+3000）等在两边都作为标签内容保留，否则过滤条件和tag_list对不上
+     */
+    private static final Predicate<Character> TAG_PADDING = c -> c == ' ';
+
     private final TransactionMapper transactionMapper;
 
+    private final TransactionCountService transactionCountService;
+
+    private final TransactionSearchService transactionSearchService;
+
+    private final TransactionWriteService transactionWriteService;
+
     public Page<GetTransactionVO> getTransactionsPage(String type, Long categoryId, Long startDate, Long endDate, 
-                                                      String keyword, String sort, String order, Integer page, Integer pageSize) {
+                                                      String keyword, List<String> tags, String tagMatch,
+                                                      String sort, String order, Integer page, Integer pageSize,
+                                                      boolean approxCount) {
         
         // 设置默认分页参数
         int currentPage = page != null && page > 0 ? page : 1;
         int size = pageSize != null && pageSize > 0 ? pageSize : 10;
         
-        Page<Transaction> pageParam = new Page<>(currentPage, size);
+        // 总数由TransactionCountService提供（缓存或估算），分页插件不再执行COUNT
+        Page<Transaction> pageParam = new Page<>(currentPage, size, false);
         
         // 构建查询条件
-        LambdaQueryWrapper<Transaction> wrapper = new LambdaQueryWrapper<>();
-        
-        // 类型过滤
-        if (StrUtil.isNotBlank(type)) {
-            wrapper.eq(Transaction::getType, type);
-        }
-        
-        // 分类过滤
-        if (categoryId != null) {
-            wrapper.eq(Transaction::getCategoryId, categoryId);
-        }
+        TransactionFilter filter = toFilter(RequestContext.requireUserId(), type, categoryId, startDate, endDate, keyword, tags, tagMatch);
+        LambdaQueryWrapper<Transaction> wrapper = buildFilter(filter);
         
-        // 日期范围过滤
-        if (startDate != null) {
-            wrapper.ge(Transaction::getTransactionDate, startDate);
-        }
-        if (endDate != null) {
-            wrapper.le(Transaction::getTransactionDate, endDate);
-        }
-        
-        // 关键词搜索
-        if (StrUtil.isNotBlank(keyword)) {
-            wrapper.like(Transaction::getDescription, keyword);
-        }
-        
-        // 排序
-        if (StrUtil.isNotBlank(sort)) {
-            boolean isAsc = !"desc".equalsIgnoreCase(order);
-            switch (sort) {
-                case "amount":
-                    wrapper.orderBy(true, isAsc, Transaction::getAmount);
-                    break;
-                case "date":
-                    wrapper.orderBy(true, isAsc, Transaction::getTransactionDate);
-                    break;
-                case "createTime":
-                    wrapper.orderBy(true, isAsc, Transaction::getCreateTime);
-                    break;
-                default:
-                    wrapper.orderByDesc(Transaction::getCreateTime);
-                    break;
-            }
+        // 有关键词且未指定排序时按相关度排序
+        Page<Transaction> result;
+        if (filter.keyword() != null && StrUtil.isBlank(sort)) {
+            result = transactionSearchService.rankedPage(pageParam, wrapper, filter);
         } else {
-            wrapper.orderByDesc(Transaction::getCreateTime);
+            // 排序
+            if (StrUtil.isNotBlank(sort)) {
+                boolean isAsc = !"desc".equalsIgnoreCase(order);
+                switch (sort) {
+                    case "amount":
+                        wrapper.orderBy(true, isAsc, Transaction::getAmount);
+                        break;
+                    case "date":
+                        wrapper.orderBy(true, isAsc, Transaction::getTransactionDate);
+                        break;
+                    case "createTime":
+                        wrapper.orderBy(true, isAsc, Transaction::getCreateTime);
+                        break;
+                    default:
+                        wrapper.orderByDesc(Transaction::getCreateTime);
+                        break;
+                }
+            } else {
+                wrapper.orderByDesc(Transaction::getCreateTime);
+            }
+            
+            // 执行分页查询
+            result = transactionMapper.selectPage(pageParam, wrapper);
         }
-        
-        // 执行分页查询
-        Page<Transaction> result = transactionMapper.selectPage(pageParam, wrapper);
+        result.setTotal(countTotal(filter, approxCount));
         
         // 转换为VO
         Page<GetTransactionVO> voPage = new Page<>();
         BeanUtil.copyProperties(result, voPage);
         
         // 转换记录
-        voPage.setRecords(result.getRecords().stream()
-            .map(transaction -> {
-                GetTransactionVO vo = new GetTransactionVO();
-                BeanUtil.copyProperties(transaction, vo);
-                return vo;
-            })
-            .toList());
+        List<String> terms = searchTerms(filter);
+        voPage.setRecords(result.getRecords().stream().map(row -> toVO(row, terms)).toList());
         
         return voPage;
     }
 
+    /**
+     * 游标分页获取当前登录用户账单记录
+     * 按(排序键, id)定位上一页的末尾，每页都是索引上的一次范围扫描，翻到多深都不变慢
+     * @param cursor 上一页返回的游标，第一页传空
+     * @param withCount 是否同时返回总记录数
+     * @param approxCount 总记录数是否允许使用估算值
+     * @return
+     */
+    public CursorPageVO<GetTransactionVO> getTransactionsByCursor(String type, Long categoryId, Long startDate, Long endDate,
+                                                                  String keyword, List<String> tags, String tagMatch,
+                                                                  String sort, String order, String cursor,
+                                                                  Integer pageSize, boolean withCount, boolean approxCount) {
+        long userId = RequestContext.requireUserId();
+        int size = pageSize != null && pageSize > 0 ? Math.min(pageSize, MAX_CURSOR_PAGE_SIZE) : 10;
+        String sortKey = StrUtil.blankToDefault(sort, "date");
+        boolean isAsc = "asc".equalsIgnoreCase(order);
+
+        // 排序键与(user_id, [type,] 排序键 DESC, id DESC)索引对应，id保证顺序唯一
+        String sortColumnName;
+        SFunction<Transaction, Long> sortColumn;
+        switch (sortKey) {
+            case "date" -> {
+                sortColumnName = "transaction_date";
+                sortColumn = Transaction::getTransactionDate;
+            }
+            case "createTime" -> {
+                sortColumnName = "create_time";
+                sortColumn = Transaction::getCreateTime;
+            }
+            default -> throw new BusinessException(400, "游标分页只支持按date或createTime排序");
+        }
+
+        TransactionFilter filter = toFilter(userId, type, categoryId, startDate, endDate, keyword, tags, tagMatch);
+        Long total = withCount ? countTotal(filter, approxCount) : null;
+
+        LambdaQueryWrapper<Transaction> wrapper = buildFilter(filter);
+
+        if (StrUtil.isNotBlank(cursor)) {
+            PageCursor position = PageCursor.decode(cursor);
+            if (!position.sort().equals(sortKey) || position.asc() != isAsc) {
+                throw new BusinessException(400, "分页游标与排序条件不一致");
+            }
+            // 行比较与索引顺序一致，直接从游标位置开始扫描
+            wrapper.apply("(" + sortColumnName + ", id) " + (isAsc ? ">" : "<") + " ({0}, {1})",
+                    position.sortKey(), position.id());
+        }
+        // 多取一条判断是否还有下一页
+        wrapper.orderBy(true, isAsc, sortColumn)
+                .orderBy(true, isAsc, Transaction::getId)
+                .last("LIMIT " + (size + 1));
+        List<Transaction> rows = transactionMapper.selectList(wrapper);
+
+        boolean hasMore = rows.size() > size;
+        String nextCursor = null;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+            Transaction last = rows.get(size - 1);
+            nextCursor = new PageCursor(sortKey, isAsc, sortColumn.apply(last), last.getId()).encode();
+        }
+        List<String> terms = searchTerms(filter);
+        return CursorPageVO.<GetTransactionVO>builder()
+                .records(rows.stream().map(row -> toVO(row, terms)).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .total(total)
+                .build();
+    }
+
     /**
      * 创建账单记录
      * @param createTransactionDTO
@@ -106,13 +200,122 @@ public class TransactionService {
             throw new BusinessException("交易数据不能为空");
         }
 
+        long userId = RequestContext.requireUserId();
+        long now = System.currentTimeMillis();
         Transaction transaction = new Transaction();
         BeanUtil.copyProperties(createTransactionDTO, transaction);
-        transaction.setUserId(Long.parseLong(TokenManager.getCurrentUserId()));
-        transaction.setTransactionDate(System.currentTimeMillis());
+        transaction.setUserId(userId);
+        transaction.setTransactionDate(now);
         transaction.setTags(createTransactionDTO.getTags());
-        transaction.setCreateBy(Long.parseLong(TokenManager.getCurrentUserId()));
-        transaction.setCreateTime(System.currentTimeMillis());
-        transactionMapper.insert(transaction);
+        // 与表的默认值一致，组提交的多行INSERT会写入所有列
+        transaction.setStatus(TransactionStatus.COMPLETED.getCode());
+        transaction.setCurrency(CurrencyType.CNY.getCode());
+        transaction.setCreateBy(userId);
+        transaction.setCreateTime(now);
+        transaction.setUpdateTime(now);
+        // 开启组提交时与其他请求的记录合并为一个事务写入，提交后才返回
+        transactionWriteService.insert(transaction);
+    }
+
+    /**
+     * 符合条件的总记录数
+     * @param approximate 是否允许使用查询计划的行数估计（结果集较大时）
+     */
+    private long countTotal(TransactionFilter filter, boolean approximate) {
+        LongSupplier exactCount = () -> transactionMapper.selectCount(buildFilter(filter));
+        if (approximate) {
+            return transactionCountService.approximate(filter, () -> estimateRows(filter), exactCount);
+        }
+        return transactionCountService.count(filter, exactCount);
+    }
+
+    /**
+     * 从查询计划读取行数估计
+     */
+    private long estimateRows(TransactionFilter filter) {
+        String plan = transactionMapper.explainFilter(buildFilter(filter));
+        return JSONUtil.parseArray(plan).getJSONObject(0).getJSONObject("Plan").getLong("Plan Rows", 0L);
+    }
+
+    /**
+     * 校验并组装过滤条件
+     * 标签参数可以重复传，也可以用逗号分隔
+     */
+    static TransactionFilter toFilter(long userId, String type, Long categoryId, Long startDate, Long endDate, String keyword,
+                                      List<String> tags, String tagMatch) {
+        List<String> tagList = tags == null ? List.of() : tags.stream()
+                .flatMap(TAG_SEPARATOR::splitAsStream)
+                .map(tag -> StrUtil.trim(tag, 0, TAG_PADDING))
+                .filter(StrUtil::isNotEmpty)
+                .distinct()
+                .toList();
+        if (tagList.size() > MAX_FILTER_TAGS) {
+            throw new BusinessException(400, "过滤标签不能超过" + MAX_FILTER_TAGS + "个");
+        }
+        TagMatch match = TagMatch.getByCode(StrUtil.blankToDefault(tagMatch, TagMatch.ANY.getCode()));
+        if (match == null) {
+            throw new BusinessException(400, "不支持的标签过滤方式，请使用any或all");
+        }
+        return new TransactionFilter(userId, type, categoryId, startDate, endDate, keyword, tagList, match);
+    }
+
+    /**
+     * 构建查询条件（导出使用相同的过滤条件）
+     */
+    LambdaQueryWrapper<Transaction> buildFilter(TransactionFilter filter) {
+        LambdaQueryWrapper<Transaction> wrapper = new LambdaQueryWrapper<>();
+        
+        // 只查询当前用户的记录
+        wrapper.eq(Transaction::getUserId, filter.userId());
+        
+        // 类型过滤
+        if (filter.type() != null) {
+            wrapper.eq(Transaction::getType, filter.type());
+        }
+        
+        // 分类过滤
+        if (filter.categoryId() != null) {
+            wrapper.eq(Transaction::getCategoryId, filter.categoryId());
+        }
+        
+        // 日期范围过滤
+        if (filter.startDate() != null) {
+            wrapper.ge(Transaction::getTransactionDate, filter.startDate());
+        }
+        if (filter.endDate() != null) {
+            wrapper.le(Transaction::getTransactionDate, filter.endDate());
+        }
+        
+        // 标签过滤（tag_list上的GIN索引）：any为有交集，all为包含全部
+        if (!filter.tags().isEmpty()) {
+            String placeholders = IntStream.range(0, filter.tags().size())
+                    .mapToObj(i -> "{" + i + "}")
+                    .collect(Collectors.joining(", "));
+            String operator = filter.tagMatch() == TagMatch.ALL ? "@>" : "&&";
+            wrapper.apply("tag_list " + operator + " ARRAY[" + placeholders + "]::TEXT[]", filter.tags().toArray());
+        }
+        
+        // 关键词搜索（描述、标签、地点、备注）
+        if (filter.keyword() != null) {
+            transactionSearchService.applyKeyword(wrapper, filter);
+        }
+        return wrapper;
+    }
+
+    private static List<String> searchTerms(TransactionFilter filter) {
+        return filter.keyword() != null ? SearchText.terms(filter.keyword()) : List.of();
+    }
+
+    /**
+     * @param terms 搜索词项，不为空时生成命中片段
+     */
+    private GetTransactionVO toVO(Transaction transaction, List<String> terms) {
+        GetTransactionVO vo = new GetTransactionVO();
+        BeanUtil.copyProperties(transaction, vo);
+        if (!terms.isEmpty()) {
+            vo.setHighlight(SearchText.highlight(terms, transaction.getDescription(), transaction.getTags(),
+                    transaction.getLocation(), transaction.getRemark()));
+        }
+        return vo;
     }
 }
\ No newline at end of file
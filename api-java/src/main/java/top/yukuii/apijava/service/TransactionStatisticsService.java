@@ -0,0 +1,222 @@
+package top.yukuii.apijava.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.RequiredArgsConstructor;
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.mapper.TransactionRollupMapper;
+import top.yukuii.apijava.mapper.TransactionTagCountMapper;
+import top.yukuii.apijava.model.dto.RollupAggregate;
+import top.yukuii.apijava.model.dto.RollupRange;
+import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.model.entity.TransactionRollup;
+import top.yukuii.apijava.model.enums.CurrencyType;
+import top.yukuii.apijava.model.enums.StatisticsGroupBy;
+import top.yukuii.apijava.model.enums.TransactionType;
+import top.yukuii.apijava.model.vo.StatisticsItemVO;
+import top.yukuii.apijava.model.vo.StatisticsVO;
+import top.yukuii.apijava.model.vo.TagCountVO;
+import top.yukuii.apijava.util.RequestContext;
+
+/**
+ * 收支统计服务
+ * 新增账单时在同一事务中累加按天和按月的汇总行（transaction_rollup）和标签使用次数（transaction_tag_count），统计只读汇总表：
+ * 查询范围拆成首尾不足整月的部分（读按天汇总）和中间的整月（读按月汇总），
+ * 读取的行数只与查询范围有关，与用户的账单总数无关
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionStatisticsService {
+
+    /**
+     * 划分日期的时区（与init.sql中生成已有汇总时使用的时区一致）
+     */
+    public static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    private static final String DAY = "day";
+
+    private static final String MONTH = "month";
+
+    /**
+     * 按天统计最多366天
+     */
+    private static final int MAX_DAYS = 366;
+
+    /**
+     * 标签使用次数默认和最多返回的标签数
+     */
+    private static final int DEFAULT_TAG_LIMIT = 50;
+
+    private static final int MAX_TAG_LIMIT = 500;
+
+    /**
+     * 每条upsert语句最多的行数（每行9个参数）
+     */
+    private static final int UPSERT_CHUNK_SIZE = 1000;
+
+    /**
+     * 汇总行加锁顺序，避免并发事务互相等待
+     */
+    private static final Comparator<TransactionRollup> KEY_ORDER = Comparator.comparing(TransactionRollup::getUserId)
+            .thenComparing(TransactionRollup::getGranularity)
+            .thenComparing(TransactionRollup::getPeriodStart)
+            .thenComparing(TransactionRollup::getCurrency)
+            .thenComparing(TransactionRollup::getType)
+            .thenComparing(TransactionRollup::getCategoryId)
+            .thenComparing(TransactionRollup::getPaymentMethod);
+
+    private final TransactionRollupMapper transactionRollupMapper;
+
+    private final TransactionTagCountMapper transactionTagCountMapper;
+
+    /**
+     * 将新增的账单计入汇总，必须与插入账单在同一事务中调用
+     *
+     * @param transactions 已插入的账单
+     */
+    public void record(List<Transaction> transactions) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("汇总必须与账单插入在同一事务中更新");
+        }
+        Map<List<Object>, TransactionRollup> rollups = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            LocalDate day = Instant.ofEpochMilli(transaction.getTransactionDate()).atZone(ZONE).toLocalDate();
+            add(rollups, transaction, DAY, day);
+            add(rollups, transaction, MONTH, day.withDayOfMonth(1));
+        }
+        List<TransactionRollup> sorted = new ArrayList<>(rollups.values());
+        sorted.sort(KEY_ORDER);
+        for (int from = 0; from < sorted.size(); from += UPSERT_CHUNK_SIZE) {
+            transactionRollupMapper.upsert(sorted.subList(from, Math.min(sorted.size(), from + UPSERT_CHUNK_SIZE)));
+        }
+        List<Transaction> tagged = transactions.stream().filter(transaction -> StrUtil.isNotBlank(transaction.getTags())).toList();
+        for (int from = 0; from < tagged.size(); from += UPSERT_CHUNK_SIZE) {
+            transactionTagCountMapper.upsert(tagged.subList(from, Math.min(tagged.size(), from + UPSERT_CHUNK_SIZE)));
+        }
+    }
+
+    /**
+     * 当前登录用户最常用的标签（读取标签使用次数表）
+     *
+     * @param limit 最多返回的标签数，为空时为50
+     * @return 按使用次数降序
+     */
+    public List<TagCountVO> getTagCounts(Integer limit) {
+        int size = limit != null && limit > 0 ? Math.min(limit, MAX_TAG_LIMIT) : DEFAULT_TAG_LIMIT;
+        return transactionTagCountMapper.selectTopTags(RequestContext.requireUserId(), size);
+    }
+
+    /**
+     * 当前登录用户的收支统计
+     *
+     * @param groupBy 统计维度编码
+     * @param startDate 开始日期（包含），为空时按天统计取最近30天，其他维度取最近12个月
+     * @param endDate 结束日期（包含），为空时为今天
+     * @param currency 货币类型，为空时为CNY
+     * @return 统计结果
+     */
+    public StatisticsVO getStatistics(String groupBy, LocalDate startDate, LocalDate endDate, String currency) {
+        long userId = RequestContext.requireUserId();
+        StatisticsGroupBy dimension = StatisticsGroupBy.getByCode(StrUtil.blankToDefault(groupBy, StatisticsGroupBy.MONTH.getCode()));
+        if (dimension == null) {
+            throw new BusinessException(400, "不支持的统计维度，请使用day、month、category或paymentMethod");
+        }
+        String currencyCode = StrUtil.blankToDefault(currency, CurrencyType.CNY.getCode()).toUpperCase(Locale.ROOT);
+        if (CurrencyType.getByCode(currencyCode) == null) {
+            throw new BusinessException(400, "不支持的货币类型: " + currency);
+        }
+        LocalDate end = endDate != null ? endDate : LocalDate.now(ZONE);
+        LocalDate start = startDate != null ? startDate
+                : dimension == StatisticsGroupBy.DAY ? end.minusDays(29) : end.minusMonths(11).withDayOfMonth(1);
+        if (start.isAfter(end)) {
+            throw new BusinessException(400, "开始日期不能晚于结束日期");
+        }
+        if (dimension == StatisticsGroupBy.DAY && ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            throw new BusinessException(400, "按天统计的范围不能超过" + MAX_DAYS + "天");
+        }
+
+        List<RollupRange> ranges = dimension == StatisticsGroupBy.DAY
+                ? List.of(new RollupRange(DAY, start, end))
+                : splitRange(start, end);
+        List<RollupAggregate> aggregates = transactionRollupMapper.selectAggregates(userId, currencyCode, dimension.getCode(), ranges);
+
+        Map<String, StatisticsItemVO> items = new LinkedHashMap<>();
+        BigDecimal income = BigDecimal.ZERO;
+        BigDecimal expense = BigDecimal.ZERO;
+        long incomeCount = 0;
+        long expenseCount = 0;
+        for (RollupAggregate aggregate : aggregates) {
+            StatisticsItemVO item = items.computeIfAbsent(aggregate.getStatKey(), StatisticsItemVO::new);
+            if (TransactionType.INCOME.getCode().equals(aggregate.getType())) {
+                item.setIncome(item.getIncome().add(aggregate.getTotalAmount()));
+                item.setIncomeCount(item.getIncomeCount() + aggregate.getTxCount());
+                income = income.add(aggregate.getTotalAmount());
+                incomeCount += aggregate.getTxCount();
+            } else {
+                item.setExpense(item.getExpense().add(aggregate.getTotalAmount()));
+                item.setExpenseCount(item.getExpenseCount() + aggregate.getTxCount());
+                expense = expense.add(aggregate.getTotalAmount());
+                expenseCount += aggregate.getTxCount();
+            }
+        }
+        return StatisticsVO.builder()
+                .groupBy(dimension.getCode())
+                .currency(currencyCode)
+                .startDate(start)
+                .endDate(end)
+                .income(income)
+                .expense(expense)
+                .balance(income.subtract(expense))
+                .incomeCount(incomeCount)
+                .expenseCount(expenseCount)
+                .items(new ArrayList<>(items.values()))
+                .build();
+    }
+
+    /**
+     * 拆分查询范围：首尾不足整月的部分读按天汇总，中间的整月读按月汇总
+     */
+    static List<RollupRange> splitRange(LocalDate start, LocalDate end) {
+        LocalDate firstMonth = start.getDayOfMonth() == 1 ? start : start.with(TemporalAdjusters.firstDayOfNextMonth());
+        LocalDate lastMonthEnd = end.equals(end.with(TemporalAdjusters.lastDayOfMonth())) ? end : end.withDayOfMonth(1).minusDays(1);
+        if (firstMonth.isAfter(lastMonthEnd)) {
+            return List.of(new RollupRange(DAY, start, end));
+        }
+        List<RollupRange> ranges = new ArrayList<>(3);
+        if (start.isBefore(firstMonth)) {
+            ranges.add(new RollupRange(DAY, start, firstMonth.minusDays(1)));
+        }
+        ranges.add(new RollupRange(MONTH, firstMonth, lastMonthEnd.withDayOfMonth(1)));
+        if (end.isAfter(lastMonthEnd)) {
+            ranges.add(new RollupRange(DAY, lastMonthEnd.plusDays(1), end));
+        }
+        return ranges;
+    }
+
+    private static void add(Map<List<Object>, TransactionRollup> rollups, Transaction transaction, String granularity, LocalDate periodStart) {
+        String currency = StrUtil.blankToDefault(transaction.getCurrency(), CurrencyType.CNY.getCode());
+        long categoryId = Objects.requireNonNullElse(transaction.getCategoryId(), 0L);
+        String paymentMethod = StrUtil.nullToEmpty(transaction.getPaymentMethod());
+        List<Object> key = List.of(transaction.getUserId(), granularity, periodStart, currency, transaction.getType(), categoryId, paymentMethod);
+        TransactionRollup rollup = rollups.computeIfAbsent(key, k -> new TransactionRollup(transaction.getUserId(), granularity,
+                periodStart, currency, transaction.getType(), categoryId, paymentMethod, BigDecimal.ZERO, 0L));
+        rollup.setTotalAmount(rollup.getTotalAmount().add(transaction.getAmount()));
+        rollup.setTxCount(rollup.getTxCount() + 1);
+    }
+}
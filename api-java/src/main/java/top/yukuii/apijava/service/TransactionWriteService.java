@@ -0,0 +1,251 @@
+package top.yukuii.apijava.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.mapper.TransactionMapper;
+import top.yukuii.apijava.model.entity.Transaction;
+
+/**
+ * 账单写入服务
+ * 插入账单并在同一事务中更新统计汇总，提交后调整缓存的分页总数和进程内搜索索引。
+ * 开启组提交时，请求线程把记录放入有界队列后等待，由单独的线程把队列中的记录合并为多行INSERT，
+ * 每批一个事务；调用方在所在批次提交后才返回，与逐条提交的持久性相同
+ */
+@Slf4j
+@Service
+public class TransactionWriteService {
+
+    /**
+     * 关闭信号
+     */
+    private static final PendingInsert POISON = new PendingInsert(null, null);
+
+    private final TransactionMapper transactionMapper;
+
+    private final TransactionCountService transactionCountService;
+
+    private final TransactionSearchService transactionSearchService;
+
+    private final TransactionStatisticsService transactionStatisticsService;
+
+    private final TransactionPartitionService transactionPartitionService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionProperties.GroupCommit config;
+
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingInsert> queue;
+
+    private final DistributionSummary batchSizes;
+
+    private final Counter rejected;
+
+    private volatile Thread writer;
+
+    public TransactionWriteService(TransactionMapper transactionMapper, TransactionCountService transactionCountService,
+                                   TransactionSearchService transactionSearchService,
+                                   TransactionStatisticsService transactionStatisticsService,
+                                   TransactionPartitionService transactionPartitionService, TransactionTemplate transactionTemplate,
+                                   TransactionProperties transactionProperties, MeterRegistry meterRegistry) {
+        this.transactionMapper = transactionMapper;
+        this.transactionCountService = transactionCountService;
+        this.transactionSearchService = transactionSearchService;
+        this.transactionStatisticsService = transactionStatisticsService;
+        this.transactionPartitionService = transactionPartitionService;
+        this.transactionTemplate = transactionTemplate;
+        this.config = transactionProperties.getGroupCommit();
+        this.maxBatchSize = Math.min(Math.max(config.getMaxBatchSize(), 1), TransactionMapper.MAX_BATCH_SIZE);
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.batchSizes = DistributionSummary.builder("transaction.group_commit.batch.size")
+                .description("每批提交的账单数")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("transaction.group_commit.rejected")
+                .description("队列已满被拒绝的写入数")
+                .register(meterRegistry);
+        Gauge.builder("transaction.group_commit.queue.size", queue, BlockingQueue::size)
+                .description("等待写入的账单数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(this::writeLoop, "transaction-group-commit");
+        thread.setDaemon(true);
+        thread.start();
+        writer = thread;
+    }
+
+    /**
+     * 停止接收新的写入，已在队列中的记录写完后退出
+     */
+    @PreDestroy
+    public void destroy() {
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        writer = null;
+        try {
+            queue.put(POISON);
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 插入一条账单，提交后返回（id回填到transaction）
+     *
+     * @param transaction 待插入的记录（status、currency、updateTime需要已设置）
+     */
+    public void insert(Transaction transaction) {
+        if (writer == null) {
+            insertAll(List.of(transaction));
+            return;
+        }
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        try {
+            if (!queue.offer(new PendingInsert(transaction, committed), config.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new BusinessException(503, "账单写入繁忙，请稍后重试");
+            }
+            // 写线程卡住或关闭时最后一次取出队列之后才入队的记录不会完成，不能无限等待
+            committed.get(config.getCommitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(503, "账单写入被中断");
+        } catch (TimeoutException e) {
+            log.warn("等待账单批次提交超时，队列中还有 {} 条", queue.size());
+            throw new BusinessException(503, "账单写入超时，请稍后刷新确认是否已保存");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * 在一个事务中插入一批账单并更新统计汇总，提交后更新缓存（新增和批量导入共用）
+     *
+     * @param transactions 待插入的记录（status、currency、updateTime需要已设置），不能超过TransactionMapper.MAX_BATCH_SIZE条
+     */
+    public void insertAll(List<Transaction> transactions) {
+        transactionPartitionService.ensurePartitions(transactions);
+        transactionTemplate.executeWithoutResult(status -> transactionCountService.insertAll(transactions, () -> {
+            if (transactions.size() == 1) {
+                transactionMapper.insert(transactions.get(0));
+            } else {
+                transactionMapper.insertBatch(transactions);
+            }
+            transactionStatisticsService.record(transactions);
+        }));
+        transactions.forEach(transactionSearchService::onInserted);
+    }
+
+    private void writeLoop() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+                // 先取走已排队的记录，不满一批时最多再等maxDelay
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                long deadline = System.nanoTime() + config.getMaxDelay().toNanos();
+                while (batch.size() < maxBatchSize && batch.get(batch.size() - 1) != POISON) {
+                    PendingInsert next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                running = writeBatch(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Exception e) {
+                log.error("账单组提交写线程异常", e);
+            } finally {
+                batch.forEach(pending -> {
+                    if (pending.committed != null) {
+                        pending.committed.completeExceptionally(new IllegalStateException("账单写入线程已停止"));
+                    }
+                });
+                batch.clear();
+            }
+        }
+        // 关闭后直接写入的请求不经过队列，这里只处理关闭前已入队的记录
+        List<PendingInsert> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.removeIf(pending -> pending == POISON);
+        if (!remaining.isEmpty()) {
+            writeBatch(remaining);
+        }
+    }
+
+    /**
+     * 一批记录用一条多行INSERT在一个事务中提交
+     *
+     * @return 是否继续运行（收到关闭信号时返回false）
+     */
+    private boolean writeBatch(List<PendingInsert> batch) {
+        boolean running = !batch.remove(POISON);
+        if (!batch.isEmpty()) {
+            batchSizes.record(batch.size());
+            writeOrSplit(batch);
+        }
+        return running;
+    }
+
+    /**
+     * 个别记录违反约束导致整批失败时对半拆分重试，只有本身写入失败的记录返回错误；
+     * 其他错误（连接失败、超时等）拆分重试也不会成功，整批直接返回错误
+     */
+    private void writeOrSplit(List<PendingInsert> batch) {
+        try {
+            insertAll(batch.stream().map(PendingInsert::transaction).toList());
+            batch.forEach(pending -> pending.committed.complete(null));
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                batch.get(0).committed.completeExceptionally(e);
+                return;
+            }
+            log.warn("账单批次写入失败，拆分重试 {} 条: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.transaction.setId(null));
+            int half = batch.size() / 2;
+            writeOrSplit(batch.subList(0, half));
+            writeOrSplit(batch.subList(half, batch.size()));
+        } catch (RuntimeException e) {
+            log.warn("账单批次写入失败 {} 条: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> pending.committed.completeExceptionally(e));
+        }
+    }
+
+    private record PendingInsert(Transaction transaction, CompletableFuture<Void> committed) {
+    }
+}
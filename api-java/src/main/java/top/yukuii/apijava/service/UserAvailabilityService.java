@@ -0,0 +1,213 @@
+package top.yukuii.apijava.service;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import cn.hutool.core.util.ObjectUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.config.AuthProperties;
+import top.yukuii.apijava.mapper.UserMapper;
+import top.yukuii.apijava.model.entity.User;
+import top.yukuii.apijava.model.enums.IdentifierType;
+import top.yukuii.apijava.util.BloomFilter;
+import top.yukuii.apijava.util.LongHashSet;
+
+/**
+ * 用户名/邮箱/手机号可用性索引
+ * 启动时流式读取users表，把已占用的标识放入布隆过滤器 + 64位指纹集合：
+ * 布隆过滤器或指纹集合未命中直接返回可用，指纹命中再到数据库确认
+ * 本节点注册时立即加入，其他节点的注册由后台按id增量同步；索引未加载完成前直接查询数据库
+ */
+@Slf4j
+@Service
+public class UserAvailabilityService {
+
+    /**
+     * 增量同步时向前回看的id数量，覆盖序列号已分配但事务晚提交的记录
+     */
+    private static final long REFRESH_OVERLAP = 1000L;
+
+    private final UserMapper userMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AuthProperties.Availability config;
+
+    private final Counter memoryAnswers;
+
+    private final Counter databaseAnswers;
+
+    private volatile Index index;
+
+    private ScheduledExecutorService scheduler;
+
+    public UserAvailabilityService(UserMapper userMapper, TransactionTemplate transactionTemplate,
+                                   AuthProperties authProperties, MeterRegistry meterRegistry) {
+        this.userMapper = userMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.config = authProperties.getAvailability();
+        this.memoryAnswers = Counter.builder("auth.availability.lookups")
+                .description("可用性查询次数")
+                .tag("source", "memory")
+                .register(meterRegistry);
+        this.databaseAnswers = Counter.builder("auth.availability.lookups")
+                .description("可用性查询次数")
+                .tag("source", "database")
+                .register(meterRegistry);
+        Gauge.builder("auth.availability.size", this, service -> service.index != null ? service.index.fingerprints.size() : 0)
+                .description("索引中已占用的标识数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 首次加载也在后台执行，数据库不可用时不阻塞启动
+     */
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-availability-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0L, config.getRefreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 判断标识是否可用
+     *
+     * @param type 标识类型
+     * @param value 标识
+     * @param existsInDatabase 数据库查询（索引未就绪或指纹命中时调用）
+     * @return true表示可用
+     */
+    public boolean isAvailable(IdentifierType type, String value, BooleanSupplier existsInDatabase) {
+        Index current = index;
+        if (current != null) {
+            long[] hash = hash(type, value);
+            if (!current.bloomFilter.mightContain(hash[0], hash[1]) || !current.fingerprints.contains(hash[0])) {
+                memoryAnswers.increment();
+                return true;
+            }
+        }
+        databaseAnswers.increment();
+        return !existsInDatabase.getAsBoolean();
+    }
+
+    /**
+     * 注册成功后加入索引
+     *
+     * @param user 新用户
+     */
+    public void add(User user) {
+        Index current = index;
+        if (current != null) {
+            current.add(user);
+        }
+    }
+
+    /**
+     * 首次全量加载，之后按id增量同步；数量超过容量时按新容量全量重建
+     */
+    private void refresh() {
+        try {
+            Index current = index;
+            if (current == null || current.fingerprints.size() > current.capacity) {
+                long start = System.currentTimeMillis();
+                long users = userMapper.selectCount(null);
+                long capacity = Math.max(config.getExpectedInsertions(), users * 3 * 2);
+                Index rebuilt = new Index(capacity, config.getFalsePositiveRate());
+                load(rebuilt, 0L);
+                index = rebuilt;
+                log.info("用户可用性索引加载完成，{} 个标识，耗时 {}ms", rebuilt.fingerprints.size(),
+                        System.currentTimeMillis() - start);
+            } else {
+                load(current, Math.max(current.maxId.get() - REFRESH_OVERLAP, 0L));
+            }
+        } catch (Exception e) {
+            log.warn("加载用户可用性索引失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 游标流式读取，不把整张表读进内存（PostgreSQL需要在事务中才按fetchSize分批）
+     */
+    private void load(Index target, long afterId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Cursor<User> cursor = userMapper.streamIdentities(afterId)) {
+                for (User user : cursor) {
+                    target.add(user);
+                    target.maxId.accumulateAndGet(user.getId(), Math::max);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    private static long[] hash(IdentifierType type, String value) {
+        return MurmurHash.hash128(type.getCode() + ":" + value);
+    }
+
+    /**
+     * 布隆过滤器 + 指纹集合，容量不足时整体替换
+     */
+    private static final class Index {
+
+        private final long capacity;
+
+        private final BloomFilter bloomFilter;
+
+        private final LongHashSet fingerprints;
+
+        /**
+         * 已同步的最大用户id
+         */
+        private final AtomicLong maxId = new AtomicLong();
+
+        private Index(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.bloomFilter = new BloomFilter(capacity, falsePositiveRate);
+            this.fingerprints = new LongHashSet((int) Math.min(capacity, Integer.MAX_VALUE / 2));
+        }
+
+        private void add(User user) {
+            add(IdentifierType.USER_NAME, user.getUserName());
+            add(IdentifierType.EMAIL, user.getEmail());
+            add(IdentifierType.PHONE, user.getPhone());
+        }
+
+        private void add(IdentifierType type, String value) {
+            if (ObjectUtil.isEmpty(value)) {
+                return;
+            }
+            long[] hash = hash(type, value);
+            // 先写布隆过滤器再写指纹集合，查询方看到指纹时布隆过滤器一定命中
+            bloomFilter.put(hash[0], hash[1]);
+            fingerprints.add(hash[0]);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package top.yukuii.apijava.service;
+
+import org.springframework.stereotype.Service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import cn.hutool.core.util.ObjectUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import top.yukuii.apijava.config.AuthProperties;
+import top.yukuii.apijava.mapper.UserMapper;
+import top.yukuii.apijava.model.entity.User;
+import top.yukuii.apijava.model.enums.IdentifierType;
+
+/**
+ * 用户身份查询服务
+ * 先按格式判断标识类型，只查询对应的一个索引列；查到的用户按用户名、邮箱、手机号分别缓存，
+ * 写入用户时主动失效。多节点部署时其他节点的缓存按配置的时间过期
+ */
+@Slf4j
+@Service
+public class UserIdentityService {
+
+    private final UserMapper userMapper;
+
+    private final boolean enabled;
+
+    /**
+     * Key: 类型代码:标识, Value: 用户
+     */
+    private final Cache<String, User> cache;
+
+    public UserIdentityService(UserMapper userMapper, AuthProperties authProperties, MeterRegistry meterRegistry) {
+        AuthProperties.UserCache config = authProperties.getUserCache();
+        this.userMapper = userMapper;
+        this.enabled = config.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.user-identity");
+    }
+
+    /**
+     * 按登录标识（用户名 / 邮箱 / 手机号）查询用户
+     *
+     * @param identifier 登录标识
+     * @return 用户，不存在返回null
+     */
+    public User findByIdentifier(String identifier) {
+        IdentifierType type = IdentifierType.classify(identifier);
+        User user = find(type, identifier);
+        // 手机号格式的标识也可能是纯数字用户名
+        if (user == null && type == IdentifierType.PHONE) {
+            user = find(IdentifierType.USER_NAME, identifier);
+        }
+        return user;
+    }
+
+    /**
+     * 用户信息变更后使缓存失效
+     *
+     * @param user 变更前的用户
+     */
+    public void invalidate(User user) {
+        if (ObjectUtil.isNotEmpty(user.getUserName())) {
+            cache.invalidate(key(IdentifierType.USER_NAME, user.getUserName()));
+        }
+        if (ObjectUtil.isNotEmpty(user.getEmail())) {
+            cache.invalidate(key(IdentifierType.EMAIL, user.getEmail()));
+        }
+        if (ObjectUtil.isNotEmpty(user.getPhone())) {
+            cache.invalidate(key(IdentifierType.PHONE, user.getPhone()));
+        }
+    }
+
+    private User find(IdentifierType type, String identifier) {
+        if (!enabled) {
+            return select(type, identifier);
+        }
+        User cached = cache.getIfPresent(key(type, identifier));
+        if (cached != null) {
+            return cached;
+        }
+        // 不缓存查不到的结果，新注册的用户不需要额外失效
+        User user = select(type, identifier);
+        if (user != null) {
+            put(user);
+        }
+        return user;
+    }
+
+    /**
+     * 只查询一个索引列
+     */
+    private User select(IdentifierType type, String identifier) {
+        LambdaQueryWrapper<User> query = new LambdaQueryWrapper<>();
+        switch (type) {
+            case EMAIL -> query.eq(User::getEmail, identifier);
+            case PHONE -> query.eq(User::getPhone, identifier);
+            default -> query.eq(User::getUserName, identifier);
+        }
+        return userMapper.selectOne(query);
+    }
+
+    private void put(User user) {
+        if (ObjectUtil.isNotEmpty(user.getUserName())) {
+            cache.put(key(IdentifierType.USER_NAME, user.getUserName()), user);
+        }
+        if (ObjectUtil.isNotEmpty(user.getEmail())) {
+            cache.put(key(IdentifierType.EMAIL, user.getEmail()), user);
+        }
+        if (ObjectUtil.isNotEmpty(user.getPhone())) {
+            cache.put(key(IdentifierType.PHONE, user.getPhone()), user);
+        }
+    }
+
+    private static String key(IdentifierType type, String identifier) {
+        return type.getCode() + ":" + identifier;
+    }
+}
@@ -0,0 +1,140 @@
+package top.yukuii.apijava.util;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import io.jsonwebtoken.Claims;
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * 已认证的用户主体
+ * 拦截器验证Token后只解析一次，结果绑定到请求上下文，后续读取用户信息不再重复解析Token
+ */
+@Value
+public class AuthenticatedPrincipal {
+
+    /**
+     * 请求属性中存放主体对象的key
+     */
+    public static final String REQUEST_ATTRIBUTE = AuthenticatedPrincipal.class.getName();
+
+    /**
+     * Token中纪元声明的名称
+     */
+    public static final String EPOCH_CLAIM = "epoch";
+
+    /**
+     * Token中用户主键声明的名称
+     */
+    public static final String UID_CLAIM = "uid";
+
+    /**
+     * 用户ID（Token的sub）
+     */
+    String userId;
+
+    /**
+     * 用户主键（users.id），业务表的user_id使用该值，旧Token没有该声明为0
+     */
+    long id;
+
+    /**
+     * Token唯一标识（Token的jti），旧Token可能为null
+     */
+    String tokenId;
+
+    /**
+     * 签发时间（毫秒时间戳）
+     */
+    long issuedAt;
+
+    /**
+     * 过期时间（毫秒时间戳）
+     */
+    long expiresAt;
+
+    /**
+     * 角色列表（不可变）
+     */
+    List<String> roles;
+
+    /**
+     * 签发时用户的Token纪元，旧Token没有该声明按0处理
+     */
+    long epoch;
+
+    /**
+     * 原始Token
+     */
+    @ToString.Exclude
+    String token;
+
+    /**
+     * 原始Token的摘要，用于黑名单检查
+     */
+    @ToString.Exclude
+    TokenDigest tokenDigest;
+
+    /**
+     * 根据已验签的Claims构建主体
+     *
+     * @param token 原始Token
+     * @param claims 已验签的Claims
+     * @return 主体对象
+     */
+    public static AuthenticatedPrincipal of(String token, Claims claims) {
+        return new AuthenticatedPrincipal(
+                claims.getSubject(),
+                claims.get(UID_CLAIM) instanceof Number uid ? uid.longValue() : 0L,
+                claims.getId(),
+                toMillis(claims.getIssuedAt()),
+                toMillis(claims.getExpiration()),
+                toRoles(claims.get("roles")),
+                claims.get(EPOCH_CLAIM) instanceof Number epoch ? epoch.longValue() : 0L,
+                token,
+                TokenDigest.of(token));
+    }
+
+    /**
+     * 判断是否已过期
+     *
+     * @param now 当前时间（毫秒时间戳）
+     * @return 是否过期
+     */
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+
+    /**
+     * 获取过期时间
+     */
+    public Date getExpiration() {
+        return new Date(expiresAt);
+    }
+
+    /**
+     * 获取角色数组
+     */
+    public String[] getRoleArray() {
+        return roles.toArray(new String[0]);
+    }
+
+    private static long toMillis(Date date) {
+        return date != null ? date.getTime() : 0L;
+    }
+
+    /**
+     * 角色声明经过JSON序列化后是List，兼容直接放入数组的情况
+     */
+    private static List<String> toRoles(Object roles) {
+        if (roles instanceof Collection<?> collection) {
+            return collection.stream().map(String::valueOf).toList();
+        }
+        if (roles instanceof String[] array) {
+            return List.of(array);
+        }
+        return List.of();
+    }
+}
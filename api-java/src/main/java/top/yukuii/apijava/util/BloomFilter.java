@@ -0,0 +1,64 @@
+package top.yukuii.apijava.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 布隆过滤器
+ * 调用方提供两个独立的64位哈希，用双重哈希组合出k个下标；写入和查询都是无锁的
+ */
+public class BloomFilter {
+
+    private final int numHashes;
+
+    private final long numBits;
+
+    private final AtomicLongArray words;
+
+    /**
+     * @param expectedInsertions 预计插入数量
+     * @param falsePositiveRate 目标误判率
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1L);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max((bits + 63) / 64 * 64, 64L);
+        this.numHashes = Math.max((int) Math.round((double) numBits / n * Math.log(2)), 1);
+        this.words = new AtomicLongArray((int) (numBits / 64));
+    }
+
+    /**
+     * 放入元素
+     *
+     * @param hash1 第一个哈希
+     * @param hash2 第二个哈希
+     */
+    public void put(long hash1, long hash2) {
+        for (int i = 0; i < numHashes; i++) {
+            long bitIndex = index(hash1, hash2, i);
+            long mask = 1L << bitIndex;
+            words.accumulateAndGet((int) (bitIndex >>> 6), mask, (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param hash1 第一个哈希
+     * @param hash2 第二个哈希
+     * @return false表示一定不存在，true表示可能存在
+     */
+    public boolean mightContain(long hash1, long hash2) {
+        for (int i = 0; i < numHashes; i++) {
+            long bitIndex = index(hash1, hash2, i);
+            if ((words.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(long hash1, long hash2, int i) {
+        return Math.floorMod(hash1 + i * hash2, numBits);
+    }
+}
@@ -0,0 +1,108 @@
+package top.yukuii.apijava.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * 哈希时间轮
+ * 按过期时间把key放进对应的槽，每个tick只处理到期的那个槽，过期处理对每个key是O(1)，不需要全量扫描
+ * 过期时间超过一圈的key会留在槽里，等时间轮转到对应的圈再过期
+ *
+ * @param <K> key类型
+ */
+public class ExpiryTimingWheel<K> {
+
+    /**
+     * 每个槽代表的时间跨度（毫秒）
+     */
+    private final long tickMillis;
+
+    private final int mask;
+
+    private final ConcurrentLinkedQueue<Entry<K>>[] slots;
+
+    /**
+     * 已处理完的最后一个tick
+     */
+    private volatile long processedTick;
+
+    /**
+     * @param tickMillis 每个槽代表的时间跨度（毫秒），必须大于0
+     * @param wheelSize 槽数量，会向上取整为2的幂
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiryTimingWheel(long tickMillis, int wheelSize) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("时间轮tick必须大于0: " + tickMillis);
+        }
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.slots = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.processedTick = System.currentTimeMillis() / tickMillis - 1;
+    }
+
+    /**
+     * 登记key的过期时间
+     *
+     * @param key key
+     * @param expiresAt 过期时间（毫秒时间戳）
+     */
+    public void schedule(K key, long expiresAt) {
+        // 落在已处理过的tick里的key放到下一个待处理的槽，避免多等一圈
+        long tick = Math.max(expiresAt / tickMillis, processedTick + 1);
+        slots[(int) (tick & mask)].offer(new Entry<>(key, expiresAt));
+    }
+
+    /**
+     * 推进时间轮，处理所有已经完整经过的tick
+     *
+     * @param now 当前时间（毫秒时间戳）
+     * @param onExpire 过期回调
+     * @return 本次过期的key数量
+     */
+    public synchronized int advance(long now, Consumer<K> onExpire) {
+        long lastCompletedTick = now / tickMillis - 1;
+        // 一次最多转一圈，之后的tick落在同样的槽里
+        long fromTick = Math.max(processedTick + 1, lastCompletedTick - mask);
+        int expired = 0;
+        for (long tick = fromTick; tick <= lastCompletedTick; tick++) {
+            expired += drain(slots[(int) (tick & mask)], now, onExpire);
+        }
+        processedTick = Math.max(processedTick, lastCompletedTick);
+        return expired;
+    }
+
+    /**
+     * 清空时间轮
+     */
+    public void clear() {
+        for (ConcurrentLinkedQueue<Entry<K>> slot : slots) {
+            slot.clear();
+        }
+    }
+
+    private int drain(ConcurrentLinkedQueue<Entry<K>> slot, long now, Consumer<K> onExpire) {
+        int expired = 0;
+        List<Entry<K>> pending = new ArrayList<>();
+        Entry<K> entry;
+        while ((entry = slot.poll()) != null) {
+            if (entry.expiresAt <= now) {
+                onExpire.accept(entry.key);
+                expired++;
+            } else {
+                pending.add(entry);
+            }
+        }
+        slot.addAll(pending);
+        return expired;
+    }
+
+    private record Entry<K>(K key, long expiresAt) {
+    }
+}
@@ -0,0 +1,189 @@
+package top.yukuii.apijava.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 内存吊销存储
+ * 精确存储 + 过期时间轮 + 前置布隆过滤器，可选吊销日志保证重启后不丢失
+ */
+@Slf4j
+public class InMemoryRevocationStore implements RevocationStore {
+
+    /**
+     * 时间轮每个槽的跨度：1分钟
+     */
+    private static final long TICK_MILLIS = 60 * 1000L;
+
+    /**
+     * 时间轮槽数量：2048分钟，覆盖24小时的Token有效期
+     */
+    private static final int WHEEL_SIZE = 2048;
+
+    /**
+     * 等待吊销日志落盘的最长时间（毫秒）
+     */
+    private static final long JOURNAL_AWAIT_MILLIS = 1000L;
+
+    /**
+     * Key: Token摘要, Value: 过期时间
+     */
+    private final ConcurrentHashMap<TokenDigest, Long> revoked;
+
+    /**
+     * 按过期时间分槽的时间轮，每分钟只处理到期的槽
+     */
+    private final ExpiryTimingWheel<TokenDigest> expiryWheel = new ExpiryTimingWheel<>(TICK_MILLIS, WHEEL_SIZE);
+
+    /**
+     * 前置布隆过滤器，绝大多数Token从未被拉黑，几次bit探测即可返回
+     * 为null表示未启用
+     */
+    private final TimeSlicedBloomFilter bloomFilter;
+
+    /**
+     * 吊销日志，为null表示不持久化
+     */
+    private volatile RevocationJournal journal;
+
+    /**
+     * @param bloomFilter 前置布隆过滤器，为null表示不启用
+     */
+    public InMemoryRevocationStore(TimeSlicedBloomFilter bloomFilter) {
+        this(bloomFilter, 16);
+    }
+
+    /**
+     * @param bloomFilter 前置布隆过滤器，为null表示不启用
+     * @param expectedSize 预计记录数（回放吊销日志前按日志记录数预设，避免回放过程中反复扩容）
+     */
+    public InMemoryRevocationStore(TimeSlicedBloomFilter bloomFilter, int expectedSize) {
+        this.bloomFilter = bloomFilter;
+        this.revoked = new ConcurrentHashMap<>(Math.max(expectedSize, 16));
+    }
+
+    @Override
+    public void revoke(TokenDigest digest, long expiration) {
+        RevocationJournal currentJournal = journal;
+        CompletableFuture<Void> durable = currentJournal != null ? currentJournal.append(digest, expiration) : null;
+
+        restore(digest, expiration);
+
+        // 等待所在批次落盘，多个并发登出共用一次fsync
+        if (durable != null) {
+            try {
+                durable.get(JOURNAL_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("吊销记录持久化失败，仅在内存中生效: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 只写内存结构，不写吊销日志，用于启动回放和接收其他节点的吊销消息
+     *
+     * @param digest Token摘要
+     * @param expiration 过期时间（毫秒时间戳）
+     */
+    public void restore(TokenDigest digest, long expiration) {
+        // 先写布隆过滤器再写精确存储，保证查询方看到精确存储的记录时布隆过滤器一定命中
+        if (bloomFilter != null) {
+            bloomFilter.put(digest, expiration);
+        }
+        revoked.put(digest, expiration);
+        expiryWheel.schedule(digest, expiration);
+    }
+
+    @Override
+    public boolean isRevoked(TokenDigest digest, long expiration) {
+        if (bloomFilter != null && !bloomFilter.mightContain(digest, expiration)) {
+            return false;
+        }
+        return checkExact(digest);
+    }
+
+    @Override
+    public boolean isRevoked(TokenDigest digest) {
+        if (bloomFilter != null && !bloomFilter.mightContainAny(digest, System.currentTimeMillis())) {
+            return false;
+        }
+        return checkExact(digest);
+    }
+
+    /**
+     * 查询精确存储
+     */
+    private boolean checkExact(TokenDigest digest) {
+        Long expiration = revoked.get(digest);
+        if (expiration == null) {
+            if (bloomFilter != null) {
+                bloomFilter.recordFalsePositive();
+            }
+            return false;
+        }
+
+        // 如果Token已过期，从黑名单中移除
+        if (expiration < System.currentTimeMillis()) {
+            revoked.remove(digest, expiration);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * 只处理时间轮中到期的槽，不扫描整个存储
+     */
+    @Override
+    public int cleanExpired(long now) {
+        return expiryWheel.advance(now,
+                digest -> revoked.computeIfPresent(digest, (key, expiration) -> expiration <= now ? null : expiration));
+    }
+
+    @Override
+    public int size() {
+        return revoked.size();
+    }
+
+    @Override
+    public void clear() {
+        revoked.clear();
+        expiryWheel.clear();
+        if (bloomFilter != null) {
+            bloomFilter.clear();
+        }
+    }
+
+    /**
+     * 设置吊销日志，之后的吊销操作会持久化
+     *
+     * @param revocationJournal 吊销日志，为null表示不再持久化
+     */
+    public void setJournal(RevocationJournal revocationJournal) {
+        this.journal = revocationJournal;
+    }
+
+    /**
+     * 关闭吊销日志，已提交的记录会先落盘
+     */
+    @Override
+    public void close() {
+        RevocationJournal currentJournal = journal;
+        journal = null;
+        if (currentJournal != null) {
+            currentJournal.close();
+        }
+    }
+
+    /**
+     * 获取布隆过滤器（用于监控），未启用时返回null
+     */
+    public TimeSlicedBloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+}
@@ -0,0 +1,93 @@
+package top.yukuii.apijava.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.JweHeader;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * JWT密钥环
+ * 按kid索引签名密钥：新Token用当前签名密钥签发并在header写入kid，验签时按kid选择密钥
+ * 轮换时新增密钥并切换签名kid，旧密钥保留到其签发的Token全部过期，用户无需重新登录
+ */
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    /**
+     * Key: kid, Value: 密钥
+     */
+    private final Map<String, SecretKey> keys;
+
+    private final String activeKid;
+
+    private final SecretKey activeKey;
+
+    /**
+     * 没有kid的旧Token使用的密钥
+     */
+    private final SecretKey legacyKey;
+
+    /**
+     * @param secrets kid -> 密钥（UTF-8字符串，至少256位）
+     * @param activeKid 签发新Token使用的kid
+     * @param legacyKid 验证没有kid的旧Token使用的kid，为null表示不接受没有kid的Token
+     */
+    public JwtKeyRing(Map<String, String> secrets, String activeKid, String legacyKid) {
+        Map<String, SecretKey> ring = new LinkedHashMap<>();
+        secrets.forEach((kid, secret) -> ring.put(kid, Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))));
+        this.keys = Collections.unmodifiableMap(ring);
+        this.activeKid = activeKid;
+        this.activeKey = ring.get(activeKid);
+        if (activeKey == null) {
+            throw new IllegalArgumentException("签名密钥不存在: " + activeKid);
+        }
+        this.legacyKey = legacyKid != null ? ring.get(legacyKid) : null;
+        if (legacyKid != null && legacyKey == null) {
+            throw new IllegalArgumentException("旧Token验签密钥不存在: " + legacyKid);
+        }
+    }
+
+    /**
+     * 签发新Token使用的kid
+     */
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    /**
+     * 签发新Token使用的密钥
+     */
+    public SecretKey getActiveKey() {
+        return activeKey;
+    }
+
+    /**
+     * 所有密钥（只读）
+     */
+    public Map<String, SecretKey> getKeys() {
+        return keys;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        SecretKey key = kid != null ? keys.get(kid) : legacyKey;
+        if (key == null) {
+            throw new UnsupportedJwtException("未知的密钥: " + kid);
+        }
+        return key;
+    }
+
+    @Override
+    protected Key locate(JweHeader header) {
+        throw new UnsupportedJwtException("不支持加密的Token");
+    }
+}
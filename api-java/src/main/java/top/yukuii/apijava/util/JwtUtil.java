@@ -6,13 +6,14 @@ import java.util.Map;
 
 import javax.crypto.SecretKey;
 
+import cn.hutool.core.util.IdUtil;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -22,11 +23,6 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class JwtUtil {
 
-    /**
-     * JWT密钥 - 生产环境应该从配置文件读取
-     */
-    private static final String SECRET_KEY = "your-super-secret-key-for-jwt-token-generation-must-be-at-least-256-bits";
-
     /**
      * Token过期时间（毫秒）- 24小时
      */
@@ -43,10 +39,45 @@ public class JwtUtil {
     public static final String HEADER_TOKEN_KEY = "Authorization";
 
     /**
-     * 生成安全密钥
+     * 未配置密钥环时使用的默认密钥 - 生产环境应该在配置文件中设置auth.jwt.keys
      */
-    private static SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private static final String DEFAULT_KID = "default";
+
+    private static final String DEFAULT_SECRET = "your-super-secret-key-for-jwt-token-generation-must-be-at-least-256-bits";
+
+    /**
+     * 当前密钥环及对应的解析器，轮换时整体替换
+     */
+    private static volatile Codec codec = new Codec(new JwtKeyRing(Map.of(DEFAULT_KID, DEFAULT_SECRET), DEFAULT_KID, DEFAULT_KID));
+
+    /**
+     * 替换密钥环（启动时从配置加载，或轮换密钥时调用）
+     * 解析器只在这里构建一次，请求路径上不再创建解析器和密钥对象
+     *
+     * @param keyRing 密钥环
+     */
+    public static void setKeyRing(JwtKeyRing keyRing) {
+        JwtKeyRing previous = codec.keyRing;
+        codec = new Codec(keyRing);
+
+        // 已移除的密钥：丢弃缓存的Mac实例，用它验签过的Token需要重新验签
+        boolean removed = false;
+        for (SecretKey key : previous.getKeys().values()) {
+            if (!keyRing.getKeys().containsValue(key)) {
+                PooledHmacAlgorithm.HS256.evict(key);
+                removed = true;
+            }
+        }
+        if (removed) {
+            VerifiedTokenCache.clear();
+        }
+    }
+
+    /**
+     * 获取当前密钥环
+     */
+    public static JwtKeyRing getKeyRing() {
+        return codec.keyRing;
     }
 
     /**
@@ -69,12 +100,15 @@ public class JwtUtil {
     public static String createToken(String userId, Map<String, Object> claims) {
         Date now = new Date();
         Date expiration = new Date(now.getTime() + EXPIRE_TIME);
+        JwtKeyRing keyRing = codec.keyRing;
 
         JwtBuilder builder = Jwts.builder()
+                .header().keyId(keyRing.getActiveKid()).and()
+                .id(IdUtil.fastSimpleUUID())
                 .subject(userId)
                 .issuedAt(now)
                 .expiration(expiration)
-                .signWith(getSecretKey());
+                .signWith(keyRing.getActiveKey(), PooledHmacAlgorithm.HS256);
 
         // 添加额外声明
         if (claims != null && !claims.isEmpty()) {
@@ -110,11 +144,7 @@ public class JwtUtil {
      */
     public static Claims parseToken(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSecretKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return codec.parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             log.warn("JWT Token已过期");
             throw new RuntimeException("Token已过期", e);
@@ -132,6 +162,18 @@ public class JwtUtil {
             throw new RuntimeException("Token参数错误", e);
         }
     }
+
+    /**
+     * 验证Token并构建用户主体（只解析一次）
+     * 已验签的Token会被缓存，重复请求不再重复验签
+     *
+     * @param token JWT Token
+     * @return 用户主体
+     */
+    public static AuthenticatedPrincipal verify(String token) {
+        return VerifiedTokenCache.get(token, t -> AuthenticatedPrincipal.of(t, parseToken(t)));
+    }
+
     /**
      * 从Token中获取用户ID
      *
@@ -185,6 +227,7 @@ public class JwtUtil {
             newClaims.remove("iat");
             newClaims.remove("exp");
             newClaims.remove("sub");
+            newClaims.remove("jti");
 
             return createToken(userId, newClaims);
         } catch (Exception e) {
@@ -205,4 +248,22 @@ public class JwtUtil {
         }
         return null;
     }
+
+    /**
+     * 密钥环和按密钥环构建的解析器（解析器线程安全，可复用）
+     */
+    private static final class Codec {
+
+        private final JwtKeyRing keyRing;
+
+        private final JwtParser parser;
+
+        private Codec(JwtKeyRing keyRing) {
+            this.keyRing = keyRing;
+            this.parser = Jwts.parser()
+                    .keyLocator(keyRing)
+                    .sig().add(PooledHmacAlgorithm.HS256).and()
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package top.yukuii.apijava.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * long集合（开放寻址，线性探测）
+ * 每个元素只占一个long槽位，比HashSet<Long>紧凑得多；查询无锁，写入加锁，
+ * 扩容时在新数组中重建后整体替换，查询方始终看到一个完整的数组
+ */
+public class LongHashSet {
+
+    /**
+     * 空槽标记，元素0存为1（对指纹类用途可以接受）
+     */
+    private static final long EMPTY = 0L;
+
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private volatile AtomicLongArray table;
+
+    private volatile int size;
+
+    /**
+     * 写锁，注册请求在虚拟线程上调用，不用synchronized以免竞争时钉住载体线程
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * @param expectedSize 预计元素数量
+     */
+    public LongHashSet(int expectedSize) {
+        this.table = new AtomicLongArray(capacityFor(expectedSize));
+    }
+
+    /**
+     * 判断是否包含
+     */
+    public boolean contains(long value) {
+        long key = value == EMPTY ? 1L : value;
+        AtomicLongArray current = table;
+        int mask = current.length() - 1;
+        int i = spread(key) & mask;
+        while (true) {
+            long slot = current.get(i);
+            if (slot == key) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 添加元素
+     *
+     * @return true表示新添加，false表示已存在
+     */
+    public boolean add(long value) {
+        long key = value == EMPTY ? 1L : value;
+        writeLock.lock();
+        try {
+            if (size + 1 > table.length() * MAX_LOAD_FACTOR) {
+                resize();
+            }
+            if (insert(table, key)) {
+                size++;
+                return true;
+            }
+            return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 元素数量
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        AtomicLongArray current = table;
+        AtomicLongArray resized = new AtomicLongArray(current.length() * 2);
+        for (int i = 0; i < current.length(); i++) {
+            long slot = current.get(i);
+            if (slot != EMPTY) {
+                insert(resized, slot);
+            }
+        }
+        table = resized;
+    }
+
+    private static boolean insert(AtomicLongArray target, long key) {
+        int mask = target.length() - 1;
+        int i = spread(key) & mask;
+        while (true) {
+            long slot = target.get(i);
+            if (slot == key) {
+                return false;
+            }
+            if (slot == EMPTY) {
+                target.set(i, key);
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private static int spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int needed = (int) Math.min((long) Math.ceil(Math.max(expectedSize, 1) / MAX_LOAD_FACTOR), 1 << 30);
+        return Math.max(Integer.highestOneBit(needed - 1) << 1, 16);
+    }
+}
@@ -0,0 +1,85 @@
+package top.yukuii.apijava.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内n-gram倒排索引
+ * 文本按字符切分为一元组和二元组，查询时取词项所有n-gram倒排列表的交集作为候选；
+ * 候选只保证包含所有n-gram，是否真正包含词项由调用方校验
+ */
+public class NgramIndex {
+
+    /**
+     * n-gram -> 文档id
+     */
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * 添加文档
+     *
+     * @param id 文档id
+     * @param text 文本
+     */
+    public void add(long id, String text) {
+        for (String gram : grams(text.toLowerCase(Locale.ROOT))) {
+            postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * 查询同时包含所有词项n-gram的文档
+     *
+     * @param terms 词项（小写）
+     * @return 候选文档id
+     */
+    public Set<Long> candidates(List<String> terms) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String term : terms) {
+            for (String gram : term.length() == 1 ? Set.of(term) : bigrams(term)) {
+                Set<Long> list = postings.get(gram);
+                if (list == null) {
+                    return Set.of();
+                }
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return Set.of();
+        }
+        // 从最短的倒排列表开始求交集
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                grams.add(text.substring(i, i + 1));
+            }
+        }
+        grams.addAll(bigrams(text));
+        return grams;
+    }
+
+    private static Set<String> bigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 1 < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i)) && Character.isLetterOrDigit(text.charAt(i + 1))) {
+                grams.add(text.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+}
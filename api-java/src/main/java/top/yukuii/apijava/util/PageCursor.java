@@ -0,0 +1,53 @@
+package top.yukuii.apijava.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import top.yukuii.apijava.common.BusinessException;
+
+/**
+ * 分页游标
+ * 记录上一页最后一条记录的排序键和ID，编码成不透明的URL安全字符串返回给客户端；
+ * 排序字段和方向一起编码，排序条件与游标不一致时拒绝
+ *
+ * @param sort 排序字段
+ * @param asc 是否升序
+ * @param sortKey 最后一条记录的排序键
+ * @param id 最后一条记录的ID
+ */
+public record PageCursor(String sort, boolean asc, long sortKey, long id) {
+
+    private static final String VERSION = "1";
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * 编码游标
+     *
+     * @return URL安全的游标字符串
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sort, asc ? "a" : "d", Long.toString(sortKey), Long.toString(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param token 游标字符串
+     * @return 游标
+     * @throws BusinessException 游标格式不正确
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new BusinessException(400, "无效的分页游标");
+            }
+            return new PageCursor(parts[1], "a".equals(parts[2]), Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(400, "无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package top.yukuii.apijava.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+/**
+ * 虚拟线程钉住点扫描
+ * Java 21中虚拟线程在synchronized内阻塞、或等待进入被占用的monitor时会钉住载体线程
+ * 扫描指定包下的字节码，找出synchronized方法和synchronized代码块作为可能的钉住点；
+ * 持有monitor期间是否真的阻塞，由运行时的jdk.VirtualThreadPinned事件确认
+ */
+public final class PinningScanner {
+
+    /**
+     * 包前缀 -> 所属组件，用于报告分组和指标标签
+     */
+    private static final Map<String, String> LIBRARIES = new LinkedHashMap<>();
+
+    static {
+        LIBRARIES.put("top.yukuii.apijava.", "application");
+        LIBRARIES.put("com.alibaba.druid.", "druid");
+        LIBRARIES.put("org.apache.ibatis.", "mybatis");
+        LIBRARIES.put("org.mybatis.spring.", "mybatis");
+        LIBRARIES.put("com.baomidou.mybatisplus.", "mybatis");
+        LIBRARIES.put("org.postgresql.", "postgresql");
+    }
+
+    /**
+     * 获取类所属的组件
+     *
+     * @param className 类全名
+     * @return 组件名，不属于已知组件返回other
+     */
+    public static String libraryOf(String className) {
+        for (Map.Entry<String, String> entry : LIBRARIES.entrySet()) {
+            if (className.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return "other";
+    }
+
+    /**
+     * 扫描包下所有类的synchronized方法和代码块
+     *
+     * @param classLoader 类加载器
+     * @param packages 包名（点分隔），包含子包
+     * @return 可能的钉住点
+     */
+    public static List<PinningSite> scan(ClassLoader classLoader, List<String> packages) throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+        List<PinningSite> sites = new ArrayList<>();
+        for (String pkg : packages) {
+            String pattern = "classpath*:" + pkg.replace('.', '/') + "/**/*.class";
+            for (Resource resource : resolver.getResources(pattern)) {
+                try (InputStream in = resource.getInputStream()) {
+                    new ClassReader(in).accept(new SiteCollector(sites), ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+                }
+            }
+        }
+        return sites;
+    }
+
+    /**
+     * 可能的钉住点
+     *
+     * @param className 类全名
+     * @param methodName 方法名
+     * @param synchronizedMethod true表示synchronized方法，false表示方法内的synchronized代码块
+     */
+    public record PinningSite(String className, String methodName, boolean synchronizedMethod) {
+
+        public String library() {
+            return libraryOf(className);
+        }
+
+        @Override
+        public String toString() {
+            return className + "#" + methodName + (synchronizedMethod ? " (synchronized方法)" : " (synchronized代码块)");
+        }
+    }
+
+    private static class SiteCollector extends ClassVisitor {
+
+        private final List<PinningSite> sites;
+
+        private String className;
+
+        SiteCollector(List<PinningSite> sites) {
+            super(SpringAsmInfo.ASM_VERSION);
+            this.sites = sites;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.className = name.replace('/', '.');
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                sites.add(new PinningSite(className, name, true));
+                return null;
+            }
+            return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                private boolean found;
+
+                @Override
+                public void visitInsn(int opcode) {
+                    if (opcode == Opcodes.MONITORENTER && !found) {
+                        found = true;
+                        sites.add(new PinningSite(className, name, false));
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private PinningScanner() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
@@ -0,0 +1,121 @@
+package top.yukuii.apijava.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.MacAlgorithm;
+import io.jsonwebtoken.security.SecretKeyBuilder;
+import io.jsonwebtoken.security.SecureRequest;
+import io.jsonwebtoken.security.SecurityException;
+import io.jsonwebtoken.security.VerifySecureDigestRequest;
+
+/**
+ * 复用Mac实例的HS256算法
+ * jjwt默认每次签名/验签都会Mac.getInstance + init，这里按密钥缓存已初始化的Mac实例：
+ * 使用时从池中借出，只被当前线程使用，用完doFinal自动重置后归还，并发量决定池的大小
+ * 相比ThreadLocal，借还方式在虚拟线程下同样有效
+ * 只用于HS256：新Token统一用HS256签名，没有kid的旧Token（HS512）由jjwt内置算法验签
+ */
+public class PooledHmacAlgorithm implements MacAlgorithm {
+
+    /**
+     * 单例，签名和解析共用
+     */
+    public static final PooledHmacAlgorithm HS256 = new PooledHmacAlgorithm();
+
+    private static final String ID = "HS256";
+
+    private static final String JCA_NAME = "HmacSHA256";
+
+    private static final int BUFFER_SIZE = 512;
+
+    /**
+     * Key: 密钥, Value: 已用该密钥初始化的Mac实例
+     */
+    private final Map<SecretKey, Queue<Mac>> pools = new ConcurrentHashMap<>();
+
+    private PooledHmacAlgorithm() {
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] digest(SecureRequest<InputStream, SecretKey> request) throws SecurityException {
+        return sign(request.getKey(), request.getPayload());
+    }
+
+    @Override
+    public boolean verify(VerifySecureDigestRequest<SecretKey> request) throws SecurityException {
+        byte[] expected = sign(request.getKey(), request.getPayload());
+        return MessageDigest.isEqual(expected, request.getDigest());
+    }
+
+    @Override
+    public SecretKeyBuilder key() {
+        return Jwts.SIG.HS256.key();
+    }
+
+    @Override
+    public int getKeyBitLength() {
+        return Jwts.SIG.HS256.getKeyBitLength();
+    }
+
+    /**
+     * 丢弃某个密钥的Mac实例（密钥从密钥环移除后调用）
+     *
+     * @param key 密钥
+     */
+    public void evict(SecretKey key) {
+        pools.remove(key);
+    }
+
+    byte[] sign(SecretKey key, InputStream payload) {
+        Queue<Mac> pool = pools.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>());
+        Mac mac = pool.poll();
+        if (mac == null) {
+            mac = newMac(key);
+        }
+        boolean finished = false;
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = payload.read(buffer)) != -1) {
+                mac.update(buffer, 0, read);
+            }
+            byte[] digest = mac.doFinal();
+            finished = true;
+            return digest;
+        } catch (IOException e) {
+            throw new SecurityException("读取签名内容失败", e);
+        } finally {
+            // 中途失败（包括运行时异常）时Mac里残留部分输入，重置后才能归还，否则下一次借出的签名是错的
+            if (!finished) {
+                mac.reset();
+            }
+            pool.offer(mac);
+        }
+    }
+
+    private static Mac newMac(SecretKey key) {
+        try {
+            Mac mac = Mac.getInstance(JCA_NAME);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new SecurityException("初始化HMAC失败", e);
+        }
+    }
+}
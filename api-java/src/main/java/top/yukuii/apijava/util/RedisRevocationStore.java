@@ -0,0 +1,310 @@
+package top.yukuii.apijava.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis吊销存储
+ * 多节点部署时通过Redis共享黑名单：吊销记录写入有序集合（score为过期时间），同时发布吊销消息
+ * 每个节点订阅吊销消息并写入本地近缓存，请求路径上的查询只访问本地内存；订阅断开重连后重新加载有序集合
+ * 写入由单独的线程批量用pipeline提交，调用方等待所在批次提交完成
+ */
+@Slf4j
+public class RedisRevocationStore implements RevocationStore {
+
+    /**
+     * 等待批次提交的最长时间（毫秒）
+     */
+    private static final long AWAIT_MILLIS = 1000L;
+
+    /**
+     * 空闲时清理Redis中过期记录的间隔
+     */
+    private static final long CLEAN_INTERVAL_MILLIS = 60 * 1000L;
+
+    /**
+     * 关闭信号
+     */
+    private static final PendingRevocation POISON = new PendingRevocation(null, 0L, null);
+
+    /**
+     * 重新加载信号：订阅连接断开期间其他节点发布的吊销消息会丢失，重新订阅后从有序集合补齐
+     */
+    private static final PendingRevocation RELOAD = new PendingRevocation(null, 0L, null);
+
+    private final RedisClient redisClient;
+
+    private final String key;
+
+    private final String channel;
+
+    private final int batchSize;
+
+    private final BlockingQueue<PendingRevocation> queue;
+
+    /**
+     * 本地近缓存
+     */
+    private final InMemoryRevocationStore nearCache;
+
+    private StatefulRedisConnection<String, String> writeConnection;
+
+    private StatefulRedisPubSubConnection<String, String> pubSubConnection;
+
+    private volatile Thread writer;
+
+    /**
+     * @param redisClient Redis客户端，由调用方负责关闭
+     * @param key 存放吊销记录的有序集合key
+     * @param channel 吊销消息频道
+     * @param batchSize 单批pipeline最多命令数
+     * @param queueCapacity 待写入队列容量
+     * @param nearCache 本地近缓存
+     */
+    public RedisRevocationStore(RedisClient redisClient, String key, String channel, int batchSize, int queueCapacity,
+                                InMemoryRevocationStore nearCache) {
+        this.redisClient = redisClient;
+        this.key = key;
+        this.channel = channel;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * 先订阅再加载已有记录，保证两者之间发生的吊销不会丢失
+     */
+    @Override
+    public synchronized void start() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        pubSubConnection = redisClient.connectPubSub();
+        pubSubConnection.addListener(new RedisPubSubAdapter<>() {
+            @Override
+            public void message(String messageChannel, String message) {
+                onMessage(message);
+            }
+
+            @Override
+            public void subscribed(String subscribedChannel, long count) {
+                // 启动时的首次订阅之后才有写线程；之后每次收到订阅确认都是断线重连后的重新订阅
+                if (writer != null && !queue.offer(RELOAD)) {
+                    log.warn("Redis吊销写入队列已满，无法安排重新加载");
+                }
+            }
+        });
+        pubSubConnection.sync().subscribe(channel);
+
+        log.info("从Redis加载了 {} 条吊销记录", loadAll());
+
+        writeConnection = redisClient.connect();
+        writeConnection.setAutoFlushCommands(false);
+        writer = new Thread(this::writeLoop, "redis-revocation-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void revoke(TokenDigest digest, long expiration) {
+        nearCache.restore(digest, expiration);
+
+        CompletableFuture<Void> published = new CompletableFuture<>();
+        if (!queue.offer(new PendingRevocation(digest, expiration, published))) {
+            log.warn("Redis吊销写入队列已满，仅在本节点生效");
+            return;
+        }
+        try {
+            published.get(AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("吊销记录同步到Redis失败，仅在本节点生效: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRevoked(TokenDigest digest, long expiration) {
+        return nearCache.isRevoked(digest, expiration);
+    }
+
+    @Override
+    public boolean isRevoked(TokenDigest digest) {
+        return nearCache.isRevoked(digest);
+    }
+
+    @Override
+    public int cleanExpired(long now) {
+        return nearCache.cleanExpired(now);
+    }
+
+    @Override
+    public int size() {
+        return nearCache.size();
+    }
+
+    /**
+     * 只清空本节点的近缓存
+     */
+    @Override
+    public void clear() {
+        nearCache.clear();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            queue.put(POISON);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeConnection.close();
+        pubSubConnection.close();
+        writer = null;
+    }
+
+    /**
+     * 处理其他节点（包括本节点）发布的吊销消息，格式：摘要:过期时间
+     */
+    private void onMessage(String message) {
+        try {
+            int separator = message.indexOf(':');
+            TokenDigest digest = TokenDigest.fromHex(message.substring(0, separator));
+            long expiration = Long.parseLong(message.substring(separator + 1));
+            nearCache.restore(digest, expiration);
+            VerifiedTokenCache.invalidate(digest);
+        } catch (Exception e) {
+            log.warn("无法解析吊销消息: {}", message);
+        }
+    }
+
+    /**
+     * 清理过期记录后把有序集合中未过期的记录写入近缓存
+     *
+     * @return 加载的记录数
+     */
+    private int loadAll() {
+        int loaded = 0;
+        long now = System.currentTimeMillis();
+        try (StatefulRedisConnection<String, String> connection = redisClient.connect()) {
+            RedisCommands<String, String> commands = connection.sync();
+            commands.zremrangebyscore(key, Range.create(Double.NEGATIVE_INFINITY, (double) now));
+            for (ScoredValue<String> value : commands.zrangebyscoreWithScores(key, Range.create((double) now, Double.POSITIVE_INFINITY))) {
+                TokenDigest digest = TokenDigest.fromHex(value.getValue());
+                nearCache.restore(digest, (long) value.getScore());
+                VerifiedTokenCache.invalidate(digest);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private void writeLoop() {
+        List<PendingRevocation> batch = new ArrayList<>(batchSize);
+        long lastClean = System.currentTimeMillis();
+        boolean reloadPending = false;
+        boolean running = true;
+        while (running) {
+            try {
+                PendingRevocation first = queue.poll(CLEAN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    reloadPending |= batch.removeIf(revocation -> revocation == RELOAD);
+                    running = writeBatch(batch);
+                    batch.clear();
+                }
+                if (reloadPending && running) {
+                    // 失败时保留标记，下一轮（最迟CLEAN_INTERVAL_MILLIS后）重试
+                    reloadPending = false;
+                    try {
+                        log.info("Redis订阅已恢复，重新加载了 {} 条吊销记录", loadAll());
+                    } catch (Exception e) {
+                        reloadPending = true;
+                        log.warn("Redis吊销记录重新加载失败: {}", e.getMessage());
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastClean >= CLEAN_INTERVAL_MILLIS) {
+                    RedisFuture<Long> removed = writeConnection.async()
+                            .zremrangebyscore(key, Range.create(Double.NEGATIVE_INFINITY, (double) now));
+                    writeConnection.flushCommands();
+                    removed.get(AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    lastClean = now;
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Exception e) {
+                log.error("Redis吊销写线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 一批吊销记录用一次pipeline提交：ZADD写入有序集合，PUBLISH通知其他节点
+     *
+     * @return 是否继续运行（收到关闭信号时返回false）
+     */
+    private boolean writeBatch(List<PendingRevocation> batch) {
+        boolean running = true;
+        RedisAsyncCommands<String, String> async = writeConnection.async();
+        List<RedisFuture<?>> futures = new ArrayList<>(batch.size() * 2);
+        for (PendingRevocation revocation : batch) {
+            if (revocation == POISON) {
+                running = false;
+                continue;
+            }
+            String hex = revocation.digest.toHex();
+            futures.add(async.zadd(key, (double) revocation.expiration, hex));
+            futures.add(async.publish(channel, hex + ":" + revocation.expiration));
+        }
+        if (futures.isEmpty()) {
+            return running;
+        }
+        writeConnection.flushCommands();
+
+        Throwable error = null;
+        try {
+            if (!LettuceFutures.awaitAll(AWAIT_MILLIS, TimeUnit.MILLISECONDS, futures.toArray(new RedisFuture[0]))) {
+                error = new IOException("Redis写入超时");
+            }
+        } catch (Exception e) {
+            error = e;
+        }
+        for (PendingRevocation revocation : batch) {
+            if (revocation.future == null) {
+                continue;
+            }
+            if (error == null) {
+                revocation.future.complete(null);
+            } else {
+                revocation.future.completeExceptionally(error);
+            }
+        }
+        return running;
+    }
+
+    private record PendingRevocation(TokenDigest digest, long expiration, CompletableFuture<Void> future) {
+    }
+}
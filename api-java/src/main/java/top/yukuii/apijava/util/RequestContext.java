@@ -0,0 +1,112 @@
+package top.yukuii.apijava.util;
+
+import java.util.concurrent.Callable;
+
+import top.yukuii.apijava.common.BusinessException;
+
+/**
+ * 请求上下文
+ * 拦截器认证成功后把用户主体绑定到处理请求的线程，请求结束时解绑；
+ * Service直接读取类型化的用户主键，不再经过RequestContextHolder、类型转换和请求属性
+ * 提交到线程池或虚拟线程的任务用wrap包装，执行时携带提交时的上下文
+ * Java 21的ScopedValue仍是预览特性，这里用ThreadLocal实现，绑定和传播的入口都在本类，之后切换不影响调用方
+ */
+public final class RequestContext {
+
+    private static final ThreadLocal<AuthenticatedPrincipal> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 绑定当前线程的用户主体
+     *
+     * @param principal 用户主体
+     */
+    public static void bind(AuthenticatedPrincipal principal) {
+        CURRENT.set(principal);
+    }
+
+    /**
+     * 解绑当前线程的用户主体
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 获取当前用户主体
+     *
+     * @return 用户主体，未登录返回null
+     */
+    public static AuthenticatedPrincipal getPrincipal() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 获取当前用户主键（users.id，业务表的user_id）
+     *
+     * @return 用户主键
+     * @throws BusinessException 未登录或Token中没有用户主键
+     */
+    public static long requireUserId() {
+        AuthenticatedPrincipal principal = CURRENT.get();
+        if (principal == null) {
+            throw new BusinessException(401, "用户未登录");
+        }
+        if (principal.getId() <= 0) {
+            throw new BusinessException(401, "登录信息已过期，请重新登录");
+        }
+        return principal.getId();
+    }
+
+    /**
+     * 包装任务，执行时使用提交时的上下文
+     *
+     * @param task 任务
+     * @return 携带上下文的任务
+     */
+    public static Runnable wrap(Runnable task) {
+        AuthenticatedPrincipal captured = CURRENT.get();
+        return () -> {
+            AuthenticatedPrincipal previous = CURRENT.get();
+            restore(captured);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装任务，执行时使用提交时的上下文
+     *
+     * @param task 任务
+     * @return 携带上下文的任务
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        AuthenticatedPrincipal captured = CURRENT.get();
+        return () -> {
+            AuthenticatedPrincipal previous = CURRENT.get();
+            restore(captured);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(AuthenticatedPrincipal principal) {
+        if (principal != null) {
+            CURRENT.set(principal);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private RequestContext() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
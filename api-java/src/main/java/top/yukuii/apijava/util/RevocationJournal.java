@@ -0,0 +1,348 @@
+package top.yukuii.apijava.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token吊销日志
+ * 只追加写的定长记录（16字节摘要 + 8字节过期时间），重启时按顺序回放到黑名单，避免重启后已登出的Token重新生效
+ * 写入由单独的线程批量落盘：同一批记录只做一次fsync（组提交），调用方等待所在批次落盘
+ * 日志按记录数切分成多个分段，分段中所有记录都过期后整个文件删除
+ */
+@Slf4j
+public class RevocationJournal implements Closeable {
+
+    /**
+     * 单条记录字节数
+     */
+    public static final int RECORD_SIZE = TokenDigest.BYTES + Long.BYTES;
+
+    private static final String SEGMENT_PREFIX = "revocations-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * 单批最多合并的记录数
+     */
+    private static final int MAX_BATCH = 1024;
+
+    /**
+     * 空闲时检查可删除分段的间隔
+     */
+    private static final long COMPACT_INTERVAL_MILLIS = 60 * 1000L;
+
+    /**
+     * 关闭信号
+     */
+    private static final PendingRecord POISON = new PendingRecord(null, 0L, null);
+
+    private final Path directory;
+
+    private final long maxRecordsPerSegment;
+
+    private final BlockingQueue<PendingRecord> queue;
+
+    /**
+     * 分段序号 -> 分段内最大过期时间，只在回放和写线程中访问
+     */
+    private final TreeMap<Long, Long> segmentMaxExpiry = new TreeMap<>();
+
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(MAX_BATCH * RECORD_SIZE);
+
+    private FileChannel activeChannel;
+
+    private long activeSegment;
+
+    private long activeRecords;
+
+    private Thread writer;
+
+    /**
+     * @param directory 日志目录
+     * @param maxRecordsPerSegment 单个分段最多记录数
+     * @param queueCapacity 待写入队列容量
+     */
+    public RevocationJournal(Path directory, long maxRecordsPerSegment, int queueCapacity) {
+        this.directory = directory;
+        this.maxRecordsPerSegment = maxRecordsPerSegment;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * 顺序回放所有分段中未过期的记录，必须在start之前调用
+     *
+     * @param consumer 记录消费者（摘要，过期时间）
+     * @return 回放的记录数
+     */
+    public int replay(BiConsumer<TokenDigest, Long> consumer) throws IOException {
+        Files.createDirectories(directory);
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        for (Map.Entry<Long, Path> segment : listSegments().entrySet()) {
+            long maxExpiry = 0L;
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size == 0) {
+                    continue;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                // 末尾不完整的记录（写入时进程崩溃）直接忽略
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    TokenDigest digest = TokenDigest.read(buffer);
+                    long expiration = buffer.getLong();
+                    maxExpiry = Math.max(maxExpiry, expiration);
+                    if (expiration > now) {
+                        consumer.accept(digest, expiration);
+                        restored++;
+                    }
+                }
+            }
+            segmentMaxExpiry.put(segment.getKey(), maxExpiry);
+        }
+        return restored;
+    }
+
+    /**
+     * 所有分段中的记录数（包括已过期的记录），用于回放前预设黑名单容量
+     *
+     * @return 记录数
+     */
+    public int recordCount() throws IOException {
+        Files.createDirectories(directory);
+        long records = 0L;
+        for (Path segment : listSegments().values()) {
+            records += Files.size(segment) / RECORD_SIZE;
+        }
+        return (int) Math.min(records, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 打开新的分段并启动写线程
+     */
+    public synchronized void start() throws IOException {
+        if (writer != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        compact(System.currentTimeMillis());
+        openSegment(segmentMaxExpiry.isEmpty() ? 1L : segmentMaxExpiry.lastKey() + 1);
+        writer = new Thread(this::writeLoop, "revocation-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 追加一条吊销记录
+     *
+     * @param digest Token摘要
+     * @param expiration 过期时间（毫秒时间戳）
+     * @return 记录所在批次落盘后完成
+     */
+    public CompletableFuture<Void> append(TokenDigest digest, long expiration) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!queue.offer(new PendingRecord(digest, expiration, future))) {
+            future.completeExceptionally(new IOException("吊销日志写入队列已满"));
+        }
+        return future;
+    }
+
+    /**
+     * 停止写线程，已提交的记录会先落盘
+     */
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            queue.put(POISON);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeActiveChannel();
+        writer = null;
+    }
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>(MAX_BATCH);
+        long lastCompact = System.currentTimeMillis();
+        boolean running = true;
+        while (running) {
+            try {
+                PendingRecord first = queue.poll(COMPACT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    running = writeBatch(batch);
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastCompact >= COMPACT_INTERVAL_MILLIS) {
+                    compact(now);
+                    lastCompact = now;
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Exception e) {
+                log.error("吊销日志写线程异常", e);
+            } finally {
+                // 已完成的future不受影响，只有因异常未写入的记录返回错误
+                complete(batch, new IOException("吊销日志写入失败"));
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 批量写入并落盘
+     *
+     * @return 是否继续运行（收到关闭信号时返回false）
+     */
+    private boolean writeBatch(List<PendingRecord> batch) {
+        boolean running = true;
+        writeBuffer.clear();
+        long maxExpiry = 0L;
+        int count = 0;
+        for (PendingRecord record : batch) {
+            if (record == POISON) {
+                running = false;
+                continue;
+            }
+            record.digest.write(writeBuffer);
+            writeBuffer.putLong(record.expiration);
+            maxExpiry = Math.max(maxExpiry, record.expiration);
+            count++;
+        }
+        if (count == 0) {
+            return running;
+        }
+        writeBuffer.flip();
+        try {
+            // 上次写入或切换分段失败时没有可用的分段，换一个新分段重试
+            if (activeChannel == null) {
+                openSegment(activeSegment + 1);
+            }
+            while (writeBuffer.hasRemaining()) {
+                activeChannel.write(writeBuffer);
+            }
+            activeChannel.force(false);
+        } catch (IOException e) {
+            log.error("吊销日志写入失败", e);
+            // 可能留下了半条记录，后续记录不能再追加到这个分段（回放按定长记录读取）
+            closeActiveChannel();
+            complete(batch, e);
+            return running;
+        }
+        activeRecords += count;
+        segmentMaxExpiry.merge(activeSegment, maxExpiry, Math::max);
+        complete(batch, null);
+        if (activeRecords >= maxRecordsPerSegment) {
+            try {
+                openSegment(activeSegment + 1);
+            } catch (IOException e) {
+                log.error("吊销日志切换分段失败，下一批写入时重试", e);
+            }
+        }
+        return running;
+    }
+
+    private void complete(List<PendingRecord> batch, Throwable error) {
+        for (PendingRecord record : batch) {
+            if (record.future == null) {
+                continue;
+            }
+            if (error == null) {
+                record.future.complete(null);
+            } else {
+                record.future.completeExceptionally(error);
+            }
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        closeActiveChannel();
+        activeChannel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeSegment = segment;
+        activeRecords = activeChannel.size() / RECORD_SIZE;
+        segmentMaxExpiry.putIfAbsent(segment, 0L);
+    }
+
+    private void closeActiveChannel() {
+        if (activeChannel == null) {
+            return;
+        }
+        try {
+            activeChannel.close();
+        } catch (IOException e) {
+            log.warn("关闭吊销日志分段失败: {}", e.getMessage());
+        }
+        activeChannel = null;
+    }
+
+    /**
+     * 删除所有记录都已过期的分段（当前写入的分段除外）
+     * 只在启动和写线程中调用（测试中在写线程空闲时调用）
+     */
+    void compact(long now) {
+        var iterator = segmentMaxExpiry.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Long> segment = iterator.next();
+            if (activeChannel != null && segment.getKey() == activeSegment) {
+                continue;
+            }
+            if (segment.getValue() < now) {
+                try {
+                    Files.deleteIfExists(segmentPath(segment.getKey()));
+                    iterator.remove();
+                    log.info("吊销日志分段已全部过期，删除分段: {}", segment.getKey());
+                } catch (IOException e) {
+                    log.warn("删除吊销日志分段失败: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private TreeMap<Long, Path> listSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        long segment = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                        segments.put(segment, file);
+                    } catch (NumberFormatException e) {
+                        log.warn("忽略无法识别的吊销日志文件: {}", name);
+                    }
+                }
+            });
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private record PendingRecord(TokenDigest digest, long expiration, CompletableFuture<Void> future) {
+    }
+}
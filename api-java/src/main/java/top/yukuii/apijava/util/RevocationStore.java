@@ -0,0 +1,68 @@
+package top.yukuii.apijava.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Token吊销存储
+ * 黑名单的存储实现，单机使用内存实现，多节点部署使用Redis实现在节点间同步
+ * 查询方法在每个请求上调用，实现必须只访问本地内存
+ */
+public interface RevocationStore extends Closeable {
+
+    /**
+     * 吊销Token
+     *
+     * @param digest Token摘要
+     * @param expiration Token过期时间（毫秒时间戳）
+     */
+    void revoke(TokenDigest digest, long expiration);
+
+    /**
+     * 检查Token是否已吊销（已知Token过期时间）
+     *
+     * @param digest Token摘要
+     * @param expiration Token过期时间（毫秒时间戳）
+     * @return 是否已吊销
+     */
+    boolean isRevoked(TokenDigest digest, long expiration);
+
+    /**
+     * 检查Token是否已吊销（不知道Token过期时间）
+     *
+     * @param digest Token摘要
+     * @return 是否已吊销
+     */
+    boolean isRevoked(TokenDigest digest);
+
+    /**
+     * 清理已过期的吊销记录
+     *
+     * @param now 当前时间（毫秒时间戳）
+     * @return 清理的记录数
+     */
+    int cleanExpired(long now);
+
+    /**
+     * 未过期的吊销记录数量（用于监控）
+     */
+    int size();
+
+    /**
+     * 清空吊销记录（谨慎使用）
+     */
+    void clear();
+
+    /**
+     * 启动存储（建立连接、加载已有记录等）
+     */
+    default void start() throws IOException {
+    }
+
+    /**
+     * 关闭存储
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,172 @@
+package top.yukuii.apijava.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import cn.hutool.core.util.EscapeUtil;
+
+/**
+ * 关键词搜索的文本处理
+ * 关键词按非字母数字字符切分为词项；全文检索时每个词项做前缀匹配、词项之间为AND，
+ * 命中片段在Java中生成，数据库全文检索和进程内n-gram索引的展示效果一致
+ */
+public final class SearchText {
+
+    /**
+     * 命中片段前后保留的字符数
+     */
+    private static final int SNIPPET_CONTEXT = 20;
+
+    private static final String MARK_START = "<mark>";
+
+    private static final String MARK_END = "</mark>";
+
+    /**
+     * 切分关键词（小写，去重）
+     *
+     * @param keyword 关键词
+     * @return 词项
+     */
+    public static List<String> terms(String keyword) {
+        Set<String> terms = new LinkedHashSet<>();
+        StringBuilder term = new StringBuilder();
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (!term.isEmpty()) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (!term.isEmpty()) {
+            terms.add(term.toString());
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 生成前缀匹配的全文检索表达式，如 lunch:* &amp; cafe:*
+     * 词项只包含字母和数字，不会带入tsquery运算符
+     *
+     * @param terms 词项
+     * @return 检索表达式，没有词项时返回null
+     */
+    public static String toTsQuery(List<String> terms) {
+        if (terms.isEmpty()) {
+            return null;
+        }
+        return String.join(" & ", terms.stream().map(term -> term + ":*").toList());
+    }
+
+    /**
+     * 生成包含关键词的LIKE模式（转义%、_和\）
+     *
+     * @param keyword 关键词
+     * @return LIKE模式
+     */
+    public static String likePattern(String keyword) {
+        String escaped = keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * 生成命中片段：取第一个包含词项的字段，截取首个命中位置前后的内容并标记所有命中
+     *
+     * @param terms 词项
+     * @param fields 按优先级排列的字段
+     * @return 命中片段，没有命中返回null
+     */
+    public static String highlight(List<String> terms, String... fields) {
+        for (String field : fields) {
+            if (field == null || field.isEmpty()) {
+                continue;
+            }
+            String lower = field.toLowerCase(Locale.ROOT);
+            if (lower.length() != field.length()) {
+                // 少数字符转小写后长度变化，按原文匹配以保证位置对应
+                lower = field;
+            }
+            int first = -1;
+            for (String term : terms) {
+                int index = lower.indexOf(term);
+                if (index >= 0 && (first < 0 || index < first)) {
+                    first = index;
+                }
+            }
+            if (first < 0) {
+                continue;
+            }
+            int start = Math.max(0, first - SNIPPET_CONTEXT);
+            int end = Math.min(field.length(), first + SNIPPET_CONTEXT * 2);
+            return (start > 0 ? "…" : "") + mark(field, lower, terms, start, end) + (end < field.length() ? "…" : "");
+        }
+        return null;
+    }
+
+    /**
+     * 判断文本是否包含所有词项
+     *
+     * @param terms 词项
+     * @param text 文本
+     * @return 是否全部包含
+     */
+    public static boolean containsAll(List<String> terms, String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        return terms.stream().allMatch(lower::contains);
+    }
+
+    /**
+     * 统计词项在文本中出现的总次数
+     *
+     * @param terms 词项
+     * @param text 文本
+     * @return 出现次数
+     */
+    public static int occurrences(List<String> terms, String text) {
+        if (text == null) {
+            return 0;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int total = 0;
+        for (String term : terms) {
+            for (int i = lower.indexOf(term); i >= 0; i = lower.indexOf(term, i + term.length())) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private static String mark(String field, String lower, List<String> terms, int start, int end) {
+        StringBuilder snippet = new StringBuilder();
+        int i = start;
+        while (i < end) {
+            String matched = null;
+            for (String term : terms) {
+                if (lower.startsWith(term, i) && (matched == null || term.length() > matched.length())) {
+                    matched = term;
+                }
+            }
+            if (matched != null) {
+                int matchEnd = Math.min(field.length(), i + matched.length());
+                snippet.append(MARK_START).append(EscapeUtil.escapeHtml4(field.substring(i, matchEnd))).append(MARK_END);
+                i = matchEnd;
+            } else {
+                snippet.append(EscapeUtil.escapeHtml4(field.substring(i, i + 1)));
+                i++;
+            }
+        }
+        return snippet.toString();
+    }
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private SearchText() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
@@ -0,0 +1,236 @@
+package top.yukuii.apijava.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按过期时间分片的布隆过滤器
+ * 每个分片只存放过期时间落在同一时间窗口内的Token摘要，窗口过去后分片里的Token全部过期，分片直接清空复用
+ * 已知Token过期时间时只需要探测一个分片的k个bit
+ */
+public class TimeSlicedBloomFilter {
+
+    private final long sliceMillis;
+
+    private final int numHashes;
+
+    private final long numBits;
+
+    private final Slice[] slices;
+
+    /**
+     * 查询次数
+     */
+    private final LongAdder lookups = new LongAdder();
+
+    /**
+     * 布隆过滤器判定不存在的次数
+     */
+    private final LongAdder negatives = new LongAdder();
+
+    /**
+     * 判定可能存在但精确存储中不存在的次数（误判）
+     */
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * @param sliceMillis 每个分片覆盖的过期时间窗口（毫秒），必须大于0
+     * @param maxTtlMillis Token最长有效期（毫秒），决定分片数量
+     * @param expectedInsertions 每个分片预计插入数量
+     * @param falsePositiveRate 目标误判率
+     */
+    public TimeSlicedBloomFilter(long sliceMillis, long maxTtlMillis, long expectedInsertions, double falsePositiveRate) {
+        if (sliceMillis <= 0) {
+            throw new IllegalArgumentException("分片时间窗口必须大于0: " + sliceMillis);
+        }
+        if (maxTtlMillis < 0) {
+            throw new IllegalArgumentException("Token最长有效期不能为负数: " + maxTtlMillis);
+        }
+        long n = Math.max(expectedInsertions, 1L);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        this.numBits = Math.max((bits + 63) / 64 * 64, 64L);
+        this.numHashes = Math.max((int) Math.round((double) numBits / n * Math.log(2)), 1);
+        this.sliceMillis = sliceMillis;
+        // 当前窗口 + 最长有效期覆盖的窗口 + 1个余量
+        int sliceCount = (int) (maxTtlMillis / sliceMillis) + 2;
+        this.slices = new Slice[sliceCount];
+        for (int i = 0; i < sliceCount; i++) {
+            slices[i] = new Slice((int) (numBits / 64));
+        }
+    }
+
+    /**
+     * 放入Token摘要
+     *
+     * @param digest Token摘要
+     * @param expiresAt Token过期时间（毫秒时间戳）
+     */
+    public void put(TokenDigest digest, long expiresAt) {
+        long window = expiresAt / sliceMillis;
+        Slice slice = slices[(int) (window % slices.length)];
+        if (slice.window != window) {
+            slice.reset(window);
+        }
+        for (int i = 0; i < numHashes; i++) {
+            slice.set(index(digest, i));
+        }
+    }
+
+    /**
+     * 判断Token摘要是否可能存在
+     *
+     * @param digest Token摘要
+     * @param expiresAt Token过期时间（毫秒时间戳）
+     * @return false表示一定不存在，true表示可能存在
+     */
+    public boolean mightContain(TokenDigest digest, long expiresAt) {
+        lookups.increment();
+        long window = expiresAt / sliceMillis;
+        Slice slice = slices[(int) (window % slices.length)];
+        if (slice.window != window || !slice.containsAll(digest)) {
+            negatives.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 判断Token摘要是否可能存在于任一未过期分片（不知道过期时间时使用）
+     *
+     * @param digest Token摘要
+     * @param now 当前时间（毫秒时间戳）
+     * @return false表示一定不存在，true表示可能存在
+     */
+    public boolean mightContainAny(TokenDigest digest, long now) {
+        lookups.increment();
+        long currentWindow = now / sliceMillis;
+        for (Slice slice : slices) {
+            if (slice.window >= currentWindow && slice.containsAll(digest)) {
+                return true;
+            }
+        }
+        negatives.increment();
+        return false;
+    }
+
+    /**
+     * 记录一次误判（布隆过滤器判定可能存在，精确存储中不存在）
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * 清空所有分片
+     */
+    public void clear() {
+        for (Slice slice : slices) {
+            slice.reset(Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * 根据未过期分片的bit填充率估算当前误判率（用于监控）
+     *
+     * @param now 当前时间（毫秒时间戳）
+     * @return 单个分片的最大估算误判率
+     */
+    public double estimatedFalsePositiveRate(long now) {
+        long currentWindow = now / sliceMillis;
+        double max = 0;
+        for (Slice slice : slices) {
+            if (slice.window >= currentWindow) {
+                double fillRatio = (double) slice.bitCount() / numBits;
+                max = Math.max(max, Math.pow(fillRatio, numHashes));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 实际观测到的误判率：误判次数 / 精确存储中不存在的查询次数
+     */
+    public double observedFalsePositiveRate() {
+        long absent = negatives.sum() + falsePositives.sum();
+        return absent == 0 ? 0 : (double) falsePositives.sum() / absent;
+    }
+
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    public long getNegatives() {
+        return negatives.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * 双重哈希：摘要本身已经均匀分布，直接用高低64位组合出k个下标
+     */
+    private long index(TokenDigest digest, int i) {
+        long combined = digest.getHigh() + i * digest.getLow();
+        return Math.floorMod(combined, numBits);
+    }
+
+    private class Slice {
+
+        private final AtomicLongArray words;
+
+        /**
+         * 分片对应的过期时间窗口
+         */
+        private volatile long window = Long.MIN_VALUE;
+
+        /**
+         * 登出请求在虚拟线程上触发重置，不用synchronized以免竞争时钉住载体线程
+         */
+        private final ReentrantLock resetLock = new ReentrantLock();
+
+        Slice(int wordCount) {
+            this.words = new AtomicLongArray(wordCount);
+        }
+
+        void reset(long newWindow) {
+            resetLock.lock();
+            try {
+                if (window == newWindow) {
+                    return;
+                }
+                for (int i = 0; i < words.length(); i++) {
+                    words.set(i, 0L);
+                }
+                window = newWindow;
+            } finally {
+                resetLock.unlock();
+            }
+        }
+
+        void set(long bitIndex) {
+            long mask = 1L << bitIndex;
+            words.accumulateAndGet((int) (bitIndex >>> 6), mask, (a, b) -> a | b);
+        }
+
+        boolean containsAll(TokenDigest digest) {
+            for (int i = 0; i < numHashes; i++) {
+                long bitIndex = index(digest, i);
+                if ((words.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long bitCount() {
+            long count = 0;
+            for (int i = 0; i < words.length(); i++) {
+                count += Long.bitCount(words.get(i));
+            }
+            return count;
+        }
+    }
+}
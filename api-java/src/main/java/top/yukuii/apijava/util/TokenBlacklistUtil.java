@@ -1,7 +1,6 @@
 package top.yukuii.apijava.util;
 
 import java.util.Date;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -10,97 +9,167 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Token黑名单工具类
- * 用于管理已登出的Token
+ * 用于管理已登出的Token，具体存储由RevocationStore实现（单机内存 / 多节点Redis）
  */
 @Slf4j
 public class TokenBlacklistUtil {
 
     /**
-     * Token黑名单存储（生产环境建议使用Redis）
-     * Key: Token, Value: 过期时间
+     * 清理过期记录的间隔：1分钟，与时间轮的槽跨度一致
      */
-    private static final ConcurrentHashMap<String, Long> blacklist = new ConcurrentHashMap<>();
+    private static final long CLEAN_INTERVAL_MILLIS = 60 * 1000L;
 
     /**
-     * 定时清理过期Token的调度器
+     * Token吊销存储，默认使用内存存储
      */
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private static volatile RevocationStore store = new InMemoryRevocationStore(
+            new TimeSlicedBloomFilter(4 * 60 * 60 * 1000L, 24 * 60 * 60 * 1000L, 100_000L, 0.01));
 
-    static {
-        // 每小时清理一次过期的Token
-        scheduler.scheduleAtFixedRate(TokenBlacklistUtil::cleanExpiredTokens, 1, 1, TimeUnit.HOURS);
-    }
+    /**
+     * 定时清理过期记录的调度器
+     */
+    private static ScheduledExecutorService scheduler;
 
     /**
      * 将Token加入黑名单
-     * 
+     *
      * @param token JWT Token
      */
     public static void addToBlacklist(String token) {
+        long expiration;
         try {
             // 获取Token的过期时间
-            Date expiration = JwtUtil.getExpiration(token);
-            blacklist.put(token, expiration.getTime());
-            log.info("Token已加入黑名单，过期时间: {}", expiration);
+            expiration = JwtUtil.getExpiration(token).getTime();
         } catch (Exception e) {
             log.warn("添加Token到黑名单失败: {}", e.getMessage());
             // 如果无法获取过期时间，设置默认过期时间（24小时后）
-            long defaultExpiration = System.currentTimeMillis() + 24 * 60 * 60 * 1000L;
-            blacklist.put(token, defaultExpiration);
+            expiration = System.currentTimeMillis() + 24 * 60 * 60 * 1000L;
         }
+        addToBlacklist(token, expiration);
+    }
+
+    /**
+     * 将Token加入黑名单（已知过期时间，无需再解析Token）
+     *
+     * @param token JWT Token
+     * @param expiration 过期时间（毫秒时间戳）
+     */
+    public static void addToBlacklist(String token, long expiration) {
+        addToBlacklist(TokenDigest.of(token), expiration);
+    }
+
+    /**
+     * 将Token摘要加入黑名单
+     *
+     * @param digest Token摘要
+     * @param expiration 过期时间（毫秒时间戳）
+     */
+    public static void addToBlacklist(TokenDigest digest, long expiration) {
+        store.revoke(digest, expiration);
+        VerifiedTokenCache.invalidate(digest);
+        log.info("Token已加入黑名单，过期时间: {}", new Date(expiration));
     }
 
     /**
      * 检查Token是否在黑名单中
-     * 
+     *
      * @param token JWT Token
      * @return true表示在黑名单中（已登出），false表示不在黑名单中
      */
     public static boolean isBlacklisted(String token) {
-        Long expiration = blacklist.get(token);
-        if (expiration == null) {
-            return false;
-        }
-        
-        // 如果Token已过期，从黑名单中移除
-        if (expiration < System.currentTimeMillis()) {
-            blacklist.remove(token);
-            return false;
-        }
-        
-        return true;
+        return isBlacklisted(TokenDigest.of(token));
+    }
+
+    /**
+     * 检查Token摘要是否在黑名单中
+     *
+     * @param digest Token摘要
+     * @return true表示在黑名单中（已登出），false表示不在黑名单中
+     */
+    public static boolean isBlacklisted(TokenDigest digest) {
+        return store.isRevoked(digest);
+    }
+
+    /**
+     * 检查Token摘要是否在黑名单中（已知Token过期时间，布隆过滤器只需探测一个分片）
+     *
+     * @param digest Token摘要
+     * @param tokenExpiration Token过期时间（毫秒时间戳）
+     * @return true表示在黑名单中（已登出），false表示不在黑名单中
+     */
+    public static boolean isBlacklisted(TokenDigest digest, long tokenExpiration) {
+        return store.isRevoked(digest, tokenExpiration);
     }
 
     /**
      * 清理过期的Token
      */
     private static void cleanExpiredTokens() {
-        long currentTime = System.currentTimeMillis();
-        int sizeBefore = blacklist.size();
+        try {
+            int removedCount = store.cleanExpired(System.currentTimeMillis());
+            if (removedCount > 0) {
+                log.info("清理了 {} 个过期的黑名单Token", removedCount);
+            }
+        } catch (Exception e) {
+            log.error("清理过期黑名单Token失败", e);
+        }
+    }
+
+    /**
+     * 替换吊销存储
+     *
+     * @param revocationStore 吊销存储
+     */
+    public static void setStore(RevocationStore revocationStore) {
+        store = revocationStore;
+    }
 
-        // 清理过期的Token
-        blacklist.entrySet().removeIf(entry -> entry.getValue() < currentTime);
+    /**
+     * 获取当前吊销存储
+     */
+    public static RevocationStore getStore() {
+        return store;
+    }
 
-        int sizeAfter = blacklist.size();
-        int removedCount = sizeBefore - sizeAfter;
+    /**
+     * 启动定时清理任务
+     */
+    public static synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-blacklist-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(TokenBlacklistUtil::cleanExpiredTokens,
+                CLEAN_INTERVAL_MILLIS, CLEAN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
 
-        if (removedCount > 0) {
-            log.info("清理了 {} 个过期的黑名单Token", removedCount);
+    /**
+     * 停止定时清理任务
+     */
+    public static synchronized void shutdown() {
+        if (scheduler == null) {
+            return;
         }
+        scheduler.shutdownNow();
+        scheduler = null;
     }
 
     /**
      * 获取黑名单大小（用于监控）
      */
     public static int getBlacklistSize() {
-        return blacklist.size();
+        return store.size();
     }
 
     /**
      * 清空黑名单（谨慎使用）
      */
     public static void clearBlacklist() {
-        blacklist.clear();
+        store.clear();
         log.warn("黑名单已被清空");
     }
 
@@ -110,4 +179,4 @@ public class TokenBlacklistUtil {
     private TokenBlacklistUtil() {
         throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
     }
-}
\ No newline at end of file
+}
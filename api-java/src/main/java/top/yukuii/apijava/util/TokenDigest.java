@@ -0,0 +1,102 @@
+package top.yukuii.apijava.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import lombok.Value;
+
+/**
+ * Token摘要
+ * 取Token的SHA-256前128位作为定长key，代替几百字节的Token字符串放进缓存和黑名单
+ */
+@Value
+public class TokenDigest {
+
+    /**
+     * 摘要字节长度
+     */
+    public static final int BYTES = 16;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
+    });
+
+    /**
+     * 摘要高64位
+     */
+    long high;
+
+    /**
+     * 摘要低64位
+     */
+    long low;
+
+    /**
+     * 计算Token摘要
+     *
+     * @param token JWT Token
+     * @return Token摘要
+     */
+    public static TokenDigest of(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+        return new TokenDigest(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * 从缓冲区读取摘要（16字节）
+     *
+     * @param buffer 缓冲区
+     * @return Token摘要
+     */
+    public static TokenDigest read(ByteBuffer buffer) {
+        return new TokenDigest(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * 把摘要写入缓冲区（16字节）
+     *
+     * @param buffer 缓冲区
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.putLong(high).putLong(low);
+    }
+
+    /**
+     * 转为32位十六进制字符串
+     */
+    public String toHex() {
+        HexFormat hex = HexFormat.of();
+        return hex.toHexDigits(high) + hex.toHexDigits(low);
+    }
+
+    /**
+     * 从32位十六进制字符串解析摘要
+     *
+     * @param hex 十六进制字符串
+     * @return Token摘要
+     */
+    public static TokenDigest fromHex(CharSequence hex) {
+        return new TokenDigest(HexFormat.fromHexDigitsToLong(hex, 0, 16), HexFormat.fromHexDigitsToLong(hex, 16, 32));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TokenDigest other && high == other.high && low == other.low;
+    }
+
+    /**
+     * 摘要本身已经均匀分布，直接取低32位
+     */
+    @Override
+    public int hashCode() {
+        return (int) high;
+    }
+}
@@ -0,0 +1,84 @@
+package top.yukuii.apijava.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户Token纪元工具类
+ * 用户执行"所有设备登出"时纪元加一，签发时间早于当前纪元的Token全部失效，不需要逐个拉黑
+ * 只缓存纪元大于0的用户，绝大多数用户查不到记录，按纪元0处理
+ * 首次从数据库加载成功前无法区分"纪元为0"和"尚未加载"，此时所有Token按失效处理
+ */
+public class TokenEpochUtil {
+
+    /**
+     * Key: 用户ID, Value: 当前纪元
+     */
+    private static final ConcurrentHashMap<String, Long> epochs = new ConcurrentHashMap<>();
+
+    /**
+     * 是否已从数据库完成首次加载
+     */
+    private static volatile boolean loaded;
+
+    /**
+     * 获取用户当前纪元
+     *
+     * @param userId 用户ID
+     * @return 当前纪元，没有记录返回0
+     */
+    public static long getEpoch(String userId) {
+        if (userId == null) {
+            return 0L;
+        }
+        Long epoch = epochs.get(userId);
+        return epoch != null ? epoch : 0L;
+    }
+
+    /**
+     * 检查Token的纪元是否仍然有效
+     *
+     * @param principal 用户主体
+     * @return true表示有效，false表示用户已在所有设备登出
+     */
+    public static boolean isCurrent(AuthenticatedPrincipal principal) {
+        return loaded && principal.getEpoch() >= getEpoch(principal.getUserId());
+    }
+
+    /**
+     * 更新用户纪元（只会增大）
+     *
+     * @param userId 用户ID
+     * @param epoch 新纪元
+     */
+    public static void update(String userId, long epoch) {
+        epochs.merge(userId, epoch, Math::max);
+    }
+
+    /**
+     * 标记首次加载完成，之后才接受Token
+     */
+    public static void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * 是否已完成首次加载
+     */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 获取缓存的用户数（用于监控）
+     */
+    public static int size() {
+        return epochs.size();
+    }
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private TokenEpochUtil() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
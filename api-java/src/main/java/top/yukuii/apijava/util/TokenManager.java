@@ -7,7 +7,6 @@ import java.util.Map;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import top.yukuii.apijava.common.BusinessException;
 import top.yukuii.apijava.model.entity.User;
@@ -39,8 +38,18 @@ public class TokenManager {
      */
     public static LoginResponseVO login(User user, Map<String, Object> extraClaims) {
         try {
+            // 写入用户当前纪元，用户在所有设备登出后旧Token立即失效
+            Map<String, Object> claims = extraClaims != null ? new HashMap<>(extraClaims) : new HashMap<>();
+            long epoch = Math.max(user.getTokenEpoch() != null ? user.getTokenEpoch() : 0L,
+                    TokenEpochUtil.getEpoch(user.getUserId()));
+            claims.put(AuthenticatedPrincipal.EPOCH_CLAIM, epoch);
+            // 写入用户主键，业务接口直接使用，不再按UUID查询
+            if (user.getId() != null) {
+                claims.put(AuthenticatedPrincipal.UID_CLAIM, user.getId());
+            }
+
             // 创建Token
-            String token = JwtUtil.createToken(user.getUserId(), extraClaims);
+            String token = JwtUtil.createToken(user.getUserId(), claims);
             
             log.info("用户登录成功，用户ID: {}", user.getUserId());
             
@@ -70,24 +79,26 @@ public class TokenManager {
      * @param token JWT Token
      */
     public static void logout(String token) {
+        logout(authenticate(token));
+    }
+
+    /**
+     * 用户登出 - 将已认证主体对应的Token加入黑名单
+     *
+     * @param principal 已认证的用户主体，为null表示Token无效
+     */
+    private static void logout(AuthenticatedPrincipal principal) {
         try {
-            // 验证Token是否有效
-            if (!isTokenValid(token)) {
+            // 验证Token是否有效（黑名单中的Token也会被判定为无效）
+            if (principal == null) {
                 throw new BusinessException("无效的Token");
             }
 
-            // 检查Token是否已经在黑名单中
-            if (TokenBlacklistUtil.isBlacklisted(token)) {
-                throw new BusinessException("Token已失效");
-            }
-
             // 将Token加入黑名单
-            TokenBlacklistUtil.addToBlacklist(token);
-            
-            // 获取用户ID用于日志记录
-            String userId = getUserIdFromToken(token);
-            log.info("用户登出成功，用户ID: {}", userId);
-            
+            TokenBlacklistUtil.addToBlacklist(principal.getTokenDigest(), principal.getExpiresAt());
+
+            log.info("用户登出成功，用户ID: {}", principal.getUserId());
+
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -131,26 +142,43 @@ public class TokenManager {
      * @return 是否有效
      */
     public static boolean isTokenValid(String token) {
+        return authenticate(token) != null;
+    }
+
+    /**
+     * 验证Token并返回用户主体
+     * 签名、过期时间和黑名单只检查一次，Token只解析一次
+     *
+     * @param token JWT Token
+     * @return 用户主体，Token无效时返回null
+     */
+    public static AuthenticatedPrincipal authenticate(String token) {
+        if (token == null) {
+            return null;
+        }
         try {
-            // 1. 验证Token格式和签名
-            if (!JwtUtil.validateToken(token)) {
-                return false;
+            // 1. 验证Token格式和签名，同时解析出声明
+            AuthenticatedPrincipal principal = JwtUtil.verify(token);
+
+            // 2. 检查是否过期
+            if (principal.isExpired(System.currentTimeMillis())) {
+                return null;
             }
 
-            // 2. 检查是否在黑名单中
-            if (TokenBlacklistUtil.isBlacklisted(token)) {
-                return false;
+            // 3. 检查是否在黑名单中
+            if (TokenBlacklistUtil.isBlacklisted(principal.getTokenDigest(), principal.getExpiresAt())) {
+                return null;
             }
 
-            // 3. 检查是否过期
-            if (JwtUtil.isTokenExpired(token)) {
-                return false;
+            // 4. 检查用户是否已在所有设备登出
+            if (!TokenEpochUtil.isCurrent(principal)) {
+                return null;
             }
 
-            return true;
+            return principal;
         } catch (Exception e) {
             log.warn("Token验证失败: {}", e.getMessage());
-            return false;
+            return null;
         }
     }
 
@@ -175,15 +203,14 @@ public class TokenManager {
      * @return 当前请求的JWT Token，如果没有返回null
      */
     public static String getCurrentToken() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                String authHeader = request.getHeader("Authorization");
-                return extractToken(authHeader);
-            }
-        } catch (Exception e) {
-            log.warn("获取当前Token失败: {}", e.getMessage());
+        // 拦截器已经认证过的请求直接使用主体中的Token
+        AuthenticatedPrincipal principal = UserContext.getCurrentPrincipal();
+        if (principal != null) {
+            return principal.getToken();
+        }
+        // 不经过拦截器的接口（如validate、refresh）从请求头读取
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return extractToken(attributes.getRequest().getHeader(JwtUtil.HEADER_TOKEN_KEY));
         }
         return null;
     }
@@ -226,15 +253,8 @@ public class TokenManager {
      * @return 过期时间，如果获取失败返回null
      */
     public static Date getCurrentTokenExpiration() {
-        String token = getCurrentToken();
-        if (token != null) {
-            try {
-                return getTokenExpiration(token);
-            } catch (Exception e) {
-                log.warn("获取当前Token过期时间失败: {}", e.getMessage());
-            }
-        }
-        return null;
+        AuthenticatedPrincipal principal = UserContext.getCurrentPrincipal();
+        return principal != null ? principal.getExpiration() : null;
     }
 
     /**
@@ -243,11 +263,8 @@ public class TokenManager {
      * @return 角色数组，如果获取失败返回空数组
      */
     public static String[] getCurrentUserRoles() {
-        String token = getCurrentToken();
-        if (token != null) {
-            return getRolesFromToken(token);
-        }
-        return new String[0];
+        AuthenticatedPrincipal principal = UserContext.getCurrentPrincipal();
+        return principal != null ? principal.getRoleArray() : new String[0];
     }
 
     /**
@@ -270,6 +287,11 @@ public class TokenManager {
      * @throws BusinessException 如果登出失败
      */
     public static void logoutCurrent() {
+        AuthenticatedPrincipal principal = UserContext.getCurrentPrincipal();
+        if (principal != null) {
+            logout(principal);
+            return;
+        }
         String token = getCurrentToken();
         if (token == null) {
             throw new BusinessException("当前请求中没有Token");
@@ -321,15 +343,9 @@ public class TokenManager {
      * @param token JWT Token
      * @return 角色数组
      */
-    @SuppressWarnings("unchecked")
     public static String[] getRolesFromToken(String token) {
         try {
-            var claims = JwtUtil.parseToken(token);
-            var roles = claims.get("roles");
-            if (roles instanceof String[]) {
-                return (String[]) roles;
-            }
-            return new String[0];
+            return JwtUtil.verify(token).getRoleArray();
         } catch (Exception e) {
             log.warn("从Token获取角色信息失败: {}", e.getMessage());
             return new String[0];
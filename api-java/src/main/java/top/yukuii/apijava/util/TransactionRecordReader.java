@@ -0,0 +1,121 @@
+package top.yukuii.apijava.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import cn.hutool.core.io.BOMInputStream;
+import cn.hutool.core.text.csv.CsvParser;
+import cn.hutool.core.text.csv.CsvReadConfig;
+import cn.hutool.core.text.csv.CsvRow;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import top.yukuii.apijava.model.enums.FileFormat;
+
+/**
+ * 账单导入文件的流式读取
+ * 逐行读取CSV（首行为表头）或NDJSON，不把整个文件读入内存。
+ * 字段名统一为小写并去掉下划线，transaction_date、transactionDate和TransactionDate视为同一字段
+ */
+public class TransactionRecordReader implements Closeable {
+
+    private final FileFormat format;
+
+    private final BufferedReader reader;
+
+    private final CsvParser csvParser;
+
+    /**
+     * NDJSON已读取的行数
+     */
+    private long lineNumber;
+
+    /**
+     * 一条待导入的记录
+     *
+     * @param line 所在行号（从1开始，CSV表头为第1行）
+     * @param fields 字段名 -> 值，格式错误时为null
+     * @param error 格式错误信息
+     */
+    public record ImportRecord(long line, Map<String, String> fields, String error) {
+    }
+
+    public TransactionRecordReader(InputStream in, FileFormat format) {
+        this.format = format;
+        // 去掉Excel导出的CSV常带的BOM
+        this.reader = new BufferedReader(new InputStreamReader(new BOMInputStream(in, StandardCharsets.UTF_8.name()), StandardCharsets.UTF_8));
+        if (format == FileFormat.CSV) {
+            this.csvParser = new CsvParser(reader, CsvReadConfig.defaultConfig()
+                    .setContainsHeader(true)
+                    .setSkipEmptyRows(true)
+                    .setTrimField(true));
+        } else {
+            this.csvParser = null;
+        }
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return 下一条记录，读完返回null
+     */
+    public ImportRecord next() throws IOException {
+        return format == FileFormat.CSV ? nextCsv() : nextJson();
+    }
+
+    private ImportRecord nextCsv() {
+        CsvRow row = csvParser.nextRow();
+        if (row == null) {
+            return null;
+        }
+        long line = row.getOriginalLineNumber() + 1;
+        if (row.getFieldCount() != csvParser.getHeader().size()) {
+            return new ImportRecord(line, null, "字段数与表头不一致");
+        }
+        Map<String, String> fields = new HashMap<>();
+        row.getFieldMap().forEach((name, value) -> fields.put(normalize(name), value));
+        return new ImportRecord(line, fields, null);
+    }
+
+    private ImportRecord nextJson() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            lineNumber++;
+        } while (text != null && text.isBlank());
+        if (text == null) {
+            return null;
+        }
+        JSONObject json;
+        try {
+            json = JSONUtil.parseObj(text);
+        } catch (Exception e) {
+            return new ImportRecord(lineNumber, null, "不是有效的JSON对象");
+        }
+        Map<String, String> fields = new HashMap<>();
+        json.forEach((name, value) -> {
+            if (value != null && !JSONUtil.isNull(value)) {
+                fields.put(normalize(name), value.toString().trim());
+            }
+        });
+        return new ImportRecord(lineNumber, fields, null);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csvParser != null) {
+            csvParser.close();
+        }
+        reader.close();
+    }
+}
@@ -0,0 +1,85 @@
+package top.yukuii.apijava.util;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import cn.hutool.core.text.csv.CsvWriter;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONObject;
+import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.model.enums.FileFormat;
+
+/**
+ * 账单导出文件的流式写入
+ * 逐条写入CSV或NDJSON，字段名与导入一致，导出的文件可以直接重新导入
+ */
+public class TransactionRecordWriter implements Flushable {
+
+    /**
+     * CSV表头，NDJSON使用对应的驼峰字段名
+     */
+    private static final String[] CSV_HEADER = {"id", "type", "amount", "transaction_date", "category_id", "payment_method",
+            "currency", "status", "location", "description", "tags", "remark"};
+
+    private static final String[] JSON_FIELDS = {"id", "type", "amount", "transactionDate", "categoryId", "paymentMethod",
+            "currency", "status", "location", "description", "tags", "remark"};
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final JSONConfig JSON_CONFIG = JSONConfig.create().setIgnoreNullValue(true);
+
+    private final BufferedWriter writer;
+
+    private final CsvWriter csvWriter;
+
+    public TransactionRecordWriter(OutputStream out, FileFormat format) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == FileFormat.CSV) {
+            this.csvWriter = new CsvWriter(writer);
+            csvWriter.writeHeaderLine(CSV_HEADER);
+        } else {
+            this.csvWriter = null;
+        }
+    }
+
+    /**
+     * 写入一条记录（写入缓冲区，缓冲区满时才输出）
+     *
+     * @param transaction 账单记录
+     */
+    public void write(Transaction transaction) throws IOException {
+        Object[] values = {transaction.getId(), transaction.getType(), transaction.getAmount(), transaction.getTransactionDate(),
+                transaction.getCategoryId(), transaction.getPaymentMethod(), transaction.getCurrency(), transaction.getStatus(),
+                transaction.getLocation(), transaction.getDescription(), transaction.getTags(), transaction.getRemark()};
+        if (csvWriter != null) {
+            String[] line = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                line[i] = values[i] == null ? "" : StrUtil.toString(values[i]);
+            }
+            csvWriter.writeLine(line);
+            return;
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            fields.put(JSON_FIELDS[i], values[i]);
+        }
+        writer.write(new JSONObject(fields, JSON_CONFIG).toString());
+        writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (csvWriter != null) {
+            csvWriter.flush();
+        } else {
+            writer.flush();
+        }
+    }
+}
@@ -1,10 +1,5 @@
 package top.yukuii.apijava.util;
 
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import jakarta.servlet.http.HttpServletRequest;
-
 /**
  * 用户上下文工具类
  * 用于在Controller中方便地获取当前用户信息
@@ -17,14 +12,17 @@ public class UserContext {
      * @return 用户ID，如果未登录返回null
      */
     public static String getCurrentUserId() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                return (String) request.getAttribute("userId");
-            }
-        } catch (Exception e) {}
-        return null;
+        AuthenticatedPrincipal principal = getCurrentPrincipal();
+        return principal != null ? principal.getUserId() : null;
+    }
+
+    /**
+     * 获取拦截器认证后的用户主体（可能为null）
+     *
+     * @return 用户主体，如果未登录返回null
+     */
+    public static AuthenticatedPrincipal getCurrentPrincipal() {
+        return RequestContext.getPrincipal();
     }
 
     /**
@@ -0,0 +1,141 @@
+package top.yukuii.apijava.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 已验签Token缓存
+ * 同一个Token重复请求时跳过签名校验和Base64/JSON解码
+ * 以Token摘要为key，缓存项在Token过期时自动失效，Token加入黑名单时立即移除
+ */
+@Slf4j
+public class VerifiedTokenCache {
+
+    /**
+     * 默认最大缓存数量
+     */
+    public static final long DEFAULT_MAX_SIZE = 10_000L;
+
+    private static volatile boolean enabled = true;
+
+    private static volatile Cache<TokenDigest, AuthenticatedPrincipal> cache = build(DEFAULT_MAX_SIZE);
+
+    /**
+     * 按配置重建缓存
+     *
+     * @param enabled 是否启用
+     * @param maxSize 最大缓存数量
+     */
+    public static void configure(boolean enabled, long maxSize) {
+        VerifiedTokenCache.cache = build(maxSize);
+        VerifiedTokenCache.enabled = enabled;
+        log.info("已验签Token缓存配置完成，启用: {}，最大数量: {}", enabled, maxSize);
+    }
+
+    /**
+     * 从缓存获取用户主体，未命中时调用验证函数并缓存结果
+     * 验证失败抛出的异常原样抛出，不会缓存
+     *
+     * @param token JWT Token
+     * @param verifier 验证函数
+     * @return 用户主体
+     */
+    public static AuthenticatedPrincipal get(String token, Function<String, AuthenticatedPrincipal> verifier) {
+        if (!enabled) {
+            return verifier.apply(token);
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        AuthenticatedPrincipal principal = cache.get(digest, key -> verifier.apply(token));
+        // 防御性检查：过期的缓存项不返回
+        if (principal.isExpired(System.currentTimeMillis())) {
+            cache.invalidate(digest);
+            return verifier.apply(token);
+        }
+        return principal;
+    }
+
+    /**
+     * 移除Token对应的缓存项
+     *
+     * @param token JWT Token
+     */
+    public static void invalidate(String token) {
+        invalidate(TokenDigest.of(token));
+    }
+
+    /**
+     * 移除Token摘要对应的缓存项
+     *
+     * @param digest Token摘要
+     */
+    public static void invalidate(TokenDigest digest) {
+        cache.invalidate(digest);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 获取命中/未命中/淘汰统计（用于监控）
+     */
+    public static CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 获取底层缓存（用于注册监控指标）
+     */
+    public static Cache<TokenDigest, AuthenticatedPrincipal> getCache() {
+        return cache;
+    }
+
+    private static Cache<TokenDigest, AuthenticatedPrincipal> build(long maxSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PrincipalExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 缓存项在Token的exp时刻过期
+     */
+    private static class PrincipalExpiry implements Expiry<TokenDigest, AuthenticatedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, AuthenticatedPrincipal value, long currentTime) {
+            long remainingMillis = value.getExpiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0L));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, AuthenticatedPrincipal value, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, AuthenticatedPrincipal value, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private VerifiedTokenCache() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
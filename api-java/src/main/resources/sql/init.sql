@@ -17,6 +17,9 @@ CREATE TABLE IF NOT EXISTS "users" (
     -- 用户状态（1:正常 0:禁用 -1:删除）
     status INTEGER NOT NULL DEFAULT 1,
     
+    -- Token纪元（所有设备登出时加一）
+    token_epoch BIGINT NOT NULL DEFAULT 0,
+    
     -- 审计字段（继承自BaseEntity）
     create_time BIGINT NOT NULL DEFAULT EXTRACT(EPOCH FROM NOW()) * 1000,
     update_time BIGINT NOT NULL DEFAULT EXTRACT(EPOCH FROM NOW()) * 1000,
@@ -32,9 +35,18 @@ CREATE TABLE IF NOT EXISTS "users" (
 CREATE UNIQUE INDEX IF NOT EXISTS idx_user_user_id ON "users"(user_id);
 CREATE UNIQUE INDEX IF NOT EXISTS idx_user_email ON "users"(email) WHERE email IS NOT NULL;
 CREATE UNIQUE INDEX IF NOT EXISTS idx_user_phone ON "users"(phone) WHERE phone IS NOT NULL;
+-- 旧版本的idx_user_user_name不是唯一索引，改用新名称保证升级后的库也有唯一约束
+DROP INDEX IF EXISTS idx_user_user_name;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_user_user_name ON "users"(user_name);
 CREATE INDEX IF NOT EXISTS idx_user_status ON "users"(status);
 CREATE INDEX IF NOT EXISTS idx_user_create_time ON "users"(create_time);
 
+-- 已有数据库补充Token纪元字段
+ALTER TABLE "users" ADD COLUMN IF NOT EXISTS token_epoch BIGINT NOT NULL DEFAULT 0;
+-- 只索引执行过所有设备登出的用户，按更新时间增量加载（纪元加一时触发器更新update_time）
+DROP INDEX IF EXISTS idx_user_token_epoch;
+CREATE INDEX IF NOT EXISTS idx_user_token_epoch_update_time ON "users"(update_time) WHERE token_epoch > 0;
+
 -- 创建更新时间触发器
 CREATE OR REPLACE FUNCTION update_updated_at_column()
 RETURNS TRIGGER AS $$
@@ -45,7 +57,7 @@ BEGIN
 END;
 $$ language 'plpgsql';
 
-CREATE TRIGGER update_user_updated_at 
+CREATE OR REPLACE TRIGGER update_user_updated_at 
     BEFORE UPDATE ON "users" 
     FOR EACH ROW 
     EXECUTE FUNCTION update_updated_at_column();
@@ -61,16 +73,32 @@ COMMENT ON COLUMN "users".phone IS '手机号';
 COMMENT ON COLUMN "users".avatar IS '头像URL';
 COMMENT ON COLUMN "users".remark IS '备注';
 COMMENT ON COLUMN "users".status IS '状态：1正常 0禁用 -1删除';
+COMMENT ON COLUMN "users".token_epoch IS 'Token纪元，签发时纪元小于该值的Token失效';
 COMMENT ON COLUMN "users".create_time IS '创建时间（毫秒时间戳）';
 COMMENT ON COLUMN "users".update_time IS '更新时间（毫秒时间戳）';
 COMMENT ON COLUMN "users".create_by IS '创建人ID';
 COMMENT ON COLUMN "users".update_by IS '更新人ID';
 
 
--- 创建交易记录表
+-- 已有的未分区交易记录表：改名后在下方迁移到分区表，原索引名和序列名留给分区表
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass('transaction') AND relkind = 'r') THEN
+        ALTER TABLE transaction RENAME TO transaction_unpartitioned;
+        ALTER TABLE transaction_unpartitioned RENAME CONSTRAINT transaction_pkey TO transaction_unpartitioned_pkey;
+        ALTER SEQUENCE transaction_id_seq RENAME TO transaction_unpartitioned_id_seq;
+        DROP INDEX IF EXISTS idx_transaction_user_date, idx_transaction_type, idx_transaction_category_id,
+            idx_transaction_date, idx_transaction_status, idx_transaction_create_time, idx_transaction_user_type_date,
+            idx_transaction_user_create_time,
+            idx_transaction_search_vector, idx_transaction_search_text;
+    END IF;
+END $$;
+
+-- 创建交易记录表，按transaction_date每月一个分区（分区边界按Asia/Shanghai时区）
+-- 分区由create_transaction_partition创建：应用定时创建当前及之后几个月的分区，导入历史记录时按需创建
 CREATE TABLE IF NOT EXISTS transaction (
     -- 主键ID，自增
-    id BIGSERIAL PRIMARY KEY,
+    id BIGSERIAL,
     
     -- 用户ID，关联用户表
     user_id BIGINT NOT NULL,
@@ -112,19 +140,104 @@ CREATE TABLE IF NOT EXISTS transaction (
     create_time BIGINT NOT NULL DEFAULT EXTRACT(EPOCH FROM NOW()) * 1000,
     update_time BIGINT NOT NULL DEFAULT EXTRACT(EPOCH FROM NOW()) * 1000,
     create_by BIGINT,
-    update_by BIGINT
-);
+    update_by BIGINT,
+
+    -- 分区表的主键必须包含分区键
+    PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
 
--- 创建索引优化查询性能
-CREATE INDEX idx_transaction_user_id ON transaction(user_id);
-CREATE INDEX idx_transaction_type ON transaction(type);
-CREATE INDEX idx_transaction_category_id ON transaction(category_id);
-CREATE INDEX idx_transaction_date ON transaction(transaction_date);
-CREATE INDEX idx_transaction_status ON transaction(status);
-CREATE INDEX idx_transaction_create_time ON transaction(create_time);
+-- 创建指定月份的分区（已存在时跳过），返回分区名
+CREATE OR REPLACE FUNCTION create_transaction_partition(month_start DATE)
+RETURNS TEXT AS $$
+DECLARE
+    first_day DATE := date_trunc('month', month_start)::date;
+    partition_name TEXT := 'transaction_p' || to_char(month_start, 'YYYYMM');
+    lower_bound BIGINT := (EXTRACT(EPOCH FROM first_day::timestamp AT TIME ZONE 'Asia/Shanghai') * 1000)::BIGINT;
+    upper_bound BIGINT := (EXTRACT(EPOCH FROM (first_day + INTERVAL '1 month')::timestamp AT TIME ZONE 'Asia/Shanghai') * 1000)::BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF transaction FOR VALUES FROM (%s) TO (%s)',
+                       partition_name, lower_bound, upper_bound);
+    END IF;
+    RETURN partition_name;
+EXCEPTION
+    -- 多个节点同时创建同一分区
+    WHEN duplicate_table THEN
+        RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
 
--- 创建复合索引
-CREATE INDEX idx_transaction_user_type_date ON transaction(user_id, type, transaction_date DESC);
+-- 创建索引优化查询性能（在分区表上创建，每个分区自动有对应的索引）
+-- 按日期过滤由分区裁剪完成，不再需要单独的日期索引；类型和状态选择性低，也不单独建索引
+-- 同时作为user_id索引，并支撑不按类型过滤的游标分页
+CREATE INDEX IF NOT EXISTS idx_transaction_user_date ON transaction(user_id, transaction_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_transaction_category_id ON transaction(category_id);
+CREATE INDEX IF NOT EXISTS idx_transaction_create_time ON transaction(create_time);
+
+-- 创建复合索引（id作为游标分页的次排序键）
+CREATE INDEX IF NOT EXISTS idx_transaction_user_type_date ON transaction(user_id, type, transaction_date DESC, id DESC);
+-- 按创建时间排序的游标分页和默认排序的列表
+CREATE INDEX IF NOT EXISTS idx_transaction_user_create_time ON transaction(user_id, create_time DESC, id DESC);
+
+-- 关键词搜索：描述、标签、地点、备注
+-- search_vector用于全文检索（前缀匹配和相关度排序，权重依次为描述、标签、地点、备注）
+-- search_text用于三元组模糊匹配（任意子串，包括不按空格分词的中文）
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+ALTER TABLE transaction ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(description, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(tags, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(location, '')), 'C') ||
+    setweight(to_tsvector('simple', coalesce(remark, '')), 'D')
+) STORED;
+ALTER TABLE transaction ADD COLUMN IF NOT EXISTS search_text TEXT GENERATED ALWAYS AS (
+    coalesce(description, '') || ' ' || coalesce(tags, '') || ' ' || coalesce(location, '') || ' ' || coalesce(remark, '')
+) STORED;
+CREATE INDEX IF NOT EXISTS idx_transaction_search_vector ON transaction USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_transaction_search_text ON transaction USING GIN (search_text gin_trgm_ops);
+
+-- 标签：tags仍按逗号分隔保存（接口和导入导出不变），tag_list为拆分、去两端空格、去重后的数组，用于按标签过滤
+-- 只去ASCII空格（btrim默认），制表符和全角空格保留；TransactionService.toFilter按相同规则处理过滤条件
+CREATE OR REPLACE FUNCTION transaction_tag_array(tags TEXT)
+RETURNS TEXT[] AS $$
+    SELECT COALESCE(array_agg(DISTINCT tag ORDER BY tag), '{}')
+    FROM (SELECT btrim(t) AS tag FROM unnest(regexp_split_to_array(tags, '[,，]')) AS t) s
+    WHERE tag <> ''
+$$ LANGUAGE sql IMMUTABLE;
+ALTER TABLE transaction ADD COLUMN IF NOT EXISTS tag_list TEXT[] GENERATED ALWAYS AS (transaction_tag_array(tags)) STORED;
+CREATE INDEX IF NOT EXISTS idx_transaction_tag_list ON transaction USING GIN (tag_list);
+
+-- 当前月份及之后3个月的分区
+DO $$
+BEGIN
+    FOR i IN 0..3 LOOP
+        PERFORM create_transaction_partition(((now() AT TIME ZONE 'Asia/Shanghai')::date + make_interval(months => i))::date);
+    END LOOP;
+END $$;
+
+-- 从未分区表迁移：创建覆盖已有记录的分区，复制记录，序列从最大id继续
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE;
+BEGIN
+    IF to_regclass('transaction_unpartitioned') IS NOT NULL THEN
+        SELECT date_trunc('month', MIN(to_timestamp(transaction_date / 1000.0) AT TIME ZONE 'Asia/Shanghai'))::date,
+               date_trunc('month', MAX(to_timestamp(transaction_date / 1000.0) AT TIME ZONE 'Asia/Shanghai'))::date
+        INTO month_start, last_month
+        FROM transaction_unpartitioned;
+        WHILE month_start <= last_month LOOP
+            PERFORM create_transaction_partition(month_start);
+            month_start := month_start + INTERVAL '1 month';
+        END LOOP;
+        INSERT INTO transaction (id, user_id, type, category_id, amount, description, transaction_date, payment_method,
+                                 status, location, currency, tags, remark, create_time, update_time, create_by, update_by)
+        SELECT id, user_id, type, category_id, amount, description, transaction_date, payment_method,
+               status, location, currency, tags, remark, create_time, update_time, create_by, update_by
+        FROM transaction_unpartitioned;
+        PERFORM setval(pg_get_serial_sequence('transaction', 'id'), (SELECT COALESCE(MAX(id), 0) + 1 FROM transaction), false);
+        DROP TABLE transaction_unpartitioned;
+    END IF;
+END $$;
 
 -- 添加外键约束（如果有用户表的话）
 -- ALTER TABLE transaction ADD CONSTRAINT fk_transaction_user 
@@ -139,13 +252,13 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql;
 
-CREATE TRIGGER trigger_update_transaction_time
+CREATE OR REPLACE TRIGGER trigger_update_transaction_time
     BEFORE UPDATE ON transaction
     FOR EACH ROW
     EXECUTE FUNCTION update_transaction_updated_time();
 
 -- 添加表注释
-COMMENT ON TABLE transaction IS '交易记录表';
+COMMENT ON TABLE transaction IS '交易记录表（按transaction_date每月分区）';
 COMMENT ON COLUMN transaction.id IS '交易记录主键ID';
 COMMENT ON COLUMN transaction.user_id IS '用户ID，关联用户表';
 COMMENT ON COLUMN transaction.type IS '交易类型：income-收入，expense-支出';
@@ -159,3 +272,93 @@ COMMENT ON COLUMN transaction.location IS '交易地点';
 COMMENT ON COLUMN transaction.currency IS '货币类型：CNY、USD、EUR等';
 COMMENT ON COLUMN transaction.tags IS '交易标签，多个标签用逗号分隔';
 COMMENT ON COLUMN transaction.remark IS '交易备注信息';
+COMMENT ON COLUMN transaction.search_vector IS '全文检索向量（生成列）';
+COMMENT ON COLUMN transaction.search_text IS '模糊匹配文本（生成列）';
+COMMENT ON COLUMN transaction.tag_list IS '标签数组（生成列）';
+
+-- ================================
+-- 账单统计汇总表
+-- ================================
+-- 按天和按月汇总收支金额和笔数，新增账单时在同一事务中累加，统计接口只读汇总表
+-- 日期按Asia/Shanghai时区划分（与TransactionStatisticsService.ZONE一致）
+CREATE TABLE IF NOT EXISTS transaction_rollup (
+    -- 用户ID
+    user_id BIGINT NOT NULL,
+
+    -- 汇总粒度：day-按天，month-按月
+    granularity VARCHAR(5) NOT NULL CHECK (granularity IN ('day', 'month')),
+
+    -- 周期开始日期（按月汇总时为当月1日）
+    period_start DATE NOT NULL,
+
+    -- 货币类型
+    currency VARCHAR(10) NOT NULL,
+
+    -- 交易类型：income-收入，expense-支出
+    type VARCHAR(20) NOT NULL,
+
+    -- 交易分类ID，0表示未分类
+    category_id BIGINT NOT NULL DEFAULT 0,
+
+    -- 支付方式，空字符串表示未填写
+    payment_method VARCHAR(50) NOT NULL DEFAULT '',
+
+    -- 金额合计
+    total_amount DECIMAL(20,2) NOT NULL DEFAULT 0,
+
+    -- 笔数
+    tx_count BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (user_id, granularity, period_start, currency, type, category_id, payment_method)
+);
+
+-- 首次创建时从已有账单生成汇总（汇总表为空时才执行）
+INSERT INTO transaction_rollup (user_id, granularity, period_start, currency, type, category_id, payment_method, total_amount, tx_count)
+SELECT user_id, g.granularity,
+       CASE WHEN g.granularity = 'day' THEN local_date ELSE date_trunc('month', local_date)::date END,
+       currency, type, category_id, payment_method, SUM(amount), COUNT(*)
+FROM (
+    SELECT user_id, (to_timestamp(transaction_date / 1000.0) AT TIME ZONE 'Asia/Shanghai')::date AS local_date,
+           COALESCE(currency, 'CNY') AS currency, type, COALESCE(category_id, 0) AS category_id,
+           COALESCE(payment_method, '') AS payment_method, amount
+    FROM transaction
+) t
+CROSS JOIN (VALUES ('day'), ('month')) AS g(granularity)
+WHERE NOT EXISTS (SELECT 1 FROM transaction_rollup)
+GROUP BY 1, 2, 3, 4, 5, 6, 7;
+
+COMMENT ON TABLE transaction_rollup IS '账单统计汇总表';
+COMMENT ON COLUMN transaction_rollup.granularity IS '汇总粒度：day-按天，month-按月';
+COMMENT ON COLUMN transaction_rollup.period_start IS '周期开始日期（Asia/Shanghai时区）';
+COMMENT ON COLUMN transaction_rollup.category_id IS '交易分类ID，0表示未分类';
+COMMENT ON COLUMN transaction_rollup.payment_method IS '支付方式，空字符串表示未填写';
+COMMENT ON COLUMN transaction_rollup.total_amount IS '金额合计';
+COMMENT ON COLUMN transaction_rollup.tx_count IS '笔数';
+
+-- ================================
+-- 标签使用次数表
+-- ================================
+-- 每个用户每个标签的账单笔数，新增账单时与统计汇总在同一事务中累加
+CREATE TABLE IF NOT EXISTS transaction_tag_count (
+    -- 用户ID
+    user_id BIGINT NOT NULL,
+
+    -- 标签（与transaction.tag_list中的元素一致）
+    tag TEXT NOT NULL,
+
+    -- 笔数
+    tx_count BIGINT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (user_id, tag)
+);
+
+-- 首次创建时从已有账单生成（表为空时才执行）
+INSERT INTO transaction_tag_count (user_id, tag, tx_count)
+SELECT user_id, tag, COUNT(*)
+FROM transaction CROSS JOIN LATERAL unnest(tag_list) AS tag
+WHERE NOT EXISTS (SELECT 1 FROM transaction_tag_count)
+GROUP BY 1, 2;
+
+COMMENT ON TABLE transaction_tag_count IS '标签使用次数表';
+COMMENT ON COLUMN transaction_tag_count.tag IS '标签';
+COMMENT ON COLUMN transaction_tag_count.tx_count IS '笔数';
@@ -0,0 +1,30 @@
+package top.yukuii.apijava.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import cn.hutool.crypto.digest.BCrypt;
+
+class PasswordHashServiceTests {
+
+    @Test
+    void readsCostFromHash() {
+        assertEquals(4, PasswordHashService.costOf(BCrypt.hashpw("password", BCrypt.gensalt(4))));
+        assertEquals(10, PasswordHashService.costOf("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy"));
+        assertEquals(12, PasswordHashService.costOf("$2y$12$abcdefghijklmnopqrstuv"));
+        assertEquals(31, PasswordHashService.costOf("$2b$31$"));
+    }
+
+    @Test
+    void unrecognizedHashReturnsMinusOne() {
+        assertEquals(-1, PasswordHashService.costOf(null));
+        assertEquals(-1, PasswordHashService.costOf(""));
+        assertEquals(-1, PasswordHashService.costOf("$2a$10"));
+        assertEquals(-1, PasswordHashService.costOf("plain-text-password"));
+        assertEquals(-1, PasswordHashService.costOf("$2a$1x$abc"));
+        assertEquals(-1, PasswordHashService.costOf("$2a$+1$abc"));
+        assertEquals(-1, PasswordHashService.costOf("$2ab10$abc"));
+        assertEquals(-1, PasswordHashService.costOf("{bcrypt}$2a$10$abc"));
+    }
+}
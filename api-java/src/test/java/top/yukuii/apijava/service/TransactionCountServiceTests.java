@@ -0,0 +1,203 @@
+package top.yukuii.apijava.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.model.dto.TransactionFilter;
+import top.yukuii.apijava.model.entity.Transaction;
+
+class TransactionCountServiceTests {
+
+    private static final long USER_ID = 7L;
+
+    private static final TransactionFilter ALL = filter(null, null);
+
+    private static final TransactionFilter EXPENSES = filter("expense", null);
+
+    private static final TransactionFilter INCOMES = filter("income", null);
+
+    private static final TransactionFilter KEYWORD = filter(null, "lunch");
+
+    private TransactionCountService service;
+
+    private AtomicInteger queries;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionCountService(new TransactionProperties(), new SimpleMeterRegistry());
+        queries = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void cachedTotalIsReturnedWithoutQuery() {
+        assertEquals(10, service.count(ALL, database(10)));
+        assertEquals(10, service.count(ALL, database(99)));
+        assertEquals(1, queries.get());
+
+        // 不同的过滤条件和用户分别缓存
+        assertEquals(3, service.count(EXPENSES, database(3)));
+        assertEquals(5, service.count(new TransactionFilter(USER_ID + 1, null, null, null, null, null, null, null), database(5)));
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    void commitAdjustsMatchingTotals() {
+        service.count(ALL, database(10));
+        service.count(EXPENSES, database(4));
+        service.count(INCOMES, database(6));
+        service.count(KEYWORD, database(2));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.insertAll(List.of(expense()), () -> { });
+        // 提交前不调整
+        assertEquals(10, service.count(ALL, database(-1)));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        queries.set(0);
+        assertEquals(11, service.count(ALL, database(-1)));
+        assertEquals(5, service.count(EXPENSES, database(-1)));
+        assertEquals(6, service.count(INCOMES, database(-1)));
+        assertEquals(0, queries.get());
+        // 带关键词的条件无法在内存中判断，重新查询
+        assertEquals(3, service.count(KEYWORD, database(3)));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void insertOutsideTransactionAdjustsImmediately() {
+        service.count(ALL, database(10));
+
+        service.insertAll(List.of(expense(), expense()), () -> { });
+
+        assertEquals(12, service.count(ALL, database(-1)));
+    }
+
+    @Test
+    void rollbackLeavesTotalsUnchanged() {
+        service.count(ALL, database(10));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.insertAll(List.of(expense()), () -> { });
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(10, service.count(ALL, database(-1)));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void failedInsertLeavesTotalsUnchanged() {
+        service.count(ALL, database(10));
+
+        assertThrows(IllegalStateException.class, () -> service.insertAll(List.of(expense()), () -> {
+            throw new IllegalStateException("insert failed");
+        }));
+
+        assertEquals(10, service.count(ALL, database(-1)));
+        // 失败的新增不再算作进行中，之后的查询结果照常缓存
+        assertEquals(4, service.count(EXPENSES, database(4)));
+        assertEquals(4, service.count(EXPENSES, database(-1)));
+    }
+
+    @Test
+    void countRacingInsertIsNotCached() {
+        // COUNT执行期间另一个新增提交：COUNT可能没有包含它，结果不能缓存，否则之后的调整会少算
+        long total = service.count(ALL, () -> {
+            queries.incrementAndGet();
+            service.insertAll(List.of(expense()), () -> { });
+            return 10;
+        });
+        assertEquals(10, total);
+        assertEquals(11, service.count(ALL, database(11)));
+        assertEquals(2, queries.get());
+        assertEquals(11, service.count(ALL, database(-1)));
+    }
+
+    @Test
+    void countDuringPendingInsertIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.insertAll(List.of(expense()), () -> { });
+
+        assertEquals(10, service.count(ALL, database(10)));
+        assertEquals(10, service.count(ALL, database(10)));
+        assertEquals(2, queries.get());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(11, service.count(ALL, database(11)));
+        assertEquals(11, service.count(ALL, database(-1)));
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    void invalidateDropsCachedTotals() {
+        service.count(ALL, database(10));
+
+        service.invalidate(USER_ID);
+
+        assertEquals(20, service.count(ALL, database(20)));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void disabledCacheAlwaysQueries() {
+        TransactionProperties properties = new TransactionProperties();
+        properties.getCountCache().setEnabled(false);
+        service = new TransactionCountService(properties, new SimpleMeterRegistry());
+
+        service.count(ALL, database(10));
+        service.count(ALL, database(10));
+
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void approximateUsesExactCountBelowThreshold() {
+        assertEquals(50_000, service.approximate(ALL, () -> 50_000, database(-1)));
+        assertEquals(0, queries.get());
+        assertEquals(12, service.approximate(ALL, () -> 10, database(12)));
+        assertEquals(1, queries.get());
+    }
+
+    private LongSupplier database(long total) {
+        return () -> {
+            queries.incrementAndGet();
+            return total;
+        };
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static TransactionFilter filter(String type, String keyword) {
+        return new TransactionFilter(USER_ID, type, null, null, null, keyword, null, null);
+    }
+
+    private static Transaction expense() {
+        Transaction transaction = new Transaction();
+        transaction.setUserId(USER_ID);
+        transaction.setType("expense");
+        transaction.setTransactionDate(System.currentTimeMillis());
+        return transaction;
+    }
+}
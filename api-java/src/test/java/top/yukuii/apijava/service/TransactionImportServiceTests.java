@@ -0,0 +1,148 @@
+package top.yukuii.apijava.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.model.vo.ImportResultVO;
+import top.yukuii.apijava.util.AuthenticatedPrincipal;
+import top.yukuii.apijava.util.RequestContext;
+
+/**
+ * 交易日期解析和导入进度
+ */
+class TransactionImportServiceTests {
+
+    private static final ZoneOffset SHANGHAI = ZoneOffset.ofHours(8);
+
+    private TransactionWriteService transactionWriteService;
+
+    private TransactionProperties transactionProperties;
+
+    @BeforeEach
+    void setUp() {
+        transactionWriteService = mock(TransactionWriteService.class);
+        transactionProperties = new TransactionProperties();
+        transactionProperties.getBulkImport().setBatchSize(1);
+        RequestContext.bind(new AuthenticatedPrincipal("u", 7L, null, 0L, Long.MAX_VALUE, List.of(), 0L, "t", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void twelveAndThirteenDigitNumbersAreMillis() {
+        assertEquals(1_704_067_200_000L, TransactionImportService.parseDate("1704067200000"));
+        assertEquals(170_406_720_000L, TransactionImportService.parseDate("170406720000"));
+    }
+
+    @Test
+    void compactDatesAreNotMillis() {
+        assertEquals(shanghai(2024, 1, 2, 0, 0, 0), TransactionImportService.parseDate("20240102"));
+        assertEquals(shanghai(2024, 1, 2, 15, 30, 45), TransactionImportService.parseDate("20240102153045"));
+    }
+
+    @Test
+    void localFormatsAreInShanghaiTime() {
+        assertEquals(shanghai(2024, 1, 2, 0, 0, 0), TransactionImportService.parseDate("2024-01-02"));
+        assertEquals(shanghai(2024, 1, 2, 8, 5, 0), TransactionImportService.parseDate("2024-1-2 8:05"));
+        assertEquals(shanghai(2024, 1, 2, 8, 5, 30), TransactionImportService.parseDate("2024-01-02 08:05:30"));
+        assertEquals(shanghai(2024, 1, 2, 8, 5, 30), TransactionImportService.parseDate("2024-01-02T08:05:30"));
+        assertEquals(shanghai(2024, 1, 2, 8, 5, 0), TransactionImportService.parseDate("2024/01/02 08:05"));
+        assertEquals(shanghai(2024, 1, 2, 0, 0, 0), TransactionImportService.parseDate("2024.1.2"));
+        // 上海时间1月1日0点是UTC前一天16点，按UTC解析会落到上个月
+        assertEquals(OffsetDateTime.of(2023, 12, 31, 16, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli(),
+                TransactionImportService.parseDate("2024-01-01"));
+    }
+
+    @Test
+    void isoTimestampsKeepTheirOffset() {
+        assertEquals(OffsetDateTime.of(2024, 1, 2, 8, 5, 30, 0, ZoneOffset.UTC).toInstant().toEpochMilli(),
+                TransactionImportService.parseDate("2024-01-02T08:05:30Z"));
+        assertEquals(OffsetDateTime.of(2024, 1, 2, 8, 5, 30, 0, ZoneOffset.ofHours(-5)).toInstant().toEpochMilli(),
+                TransactionImportService.parseDate("2024-01-02T08:05:30-05:00"));
+    }
+
+    @Test
+    void invalidDatesAreRejected() {
+        for (String value : List.of("2024-02-30", "20241301", "17040672000", "12345", "2024-01-02 25:00", "yesterday")) {
+            assertEquals(400, assertThrows(BusinessException.class, () -> TransactionImportService.parseDate(value)).getCode(), value);
+        }
+        assertEquals(400, assertThrows(BusinessException.class, () -> TransactionImportService.parseDate(null)).getCode());
+    }
+
+    @Test
+    void runningImportOutlivesProgressTtl() {
+        transactionProperties.getBulkImport().setProgressTtl(Duration.ofMillis(1));
+        TransactionImportService service = newService();
+        List<ImportResultVO> seen = new ArrayList<>();
+        List<Integer> duplicateCodes = new ArrayList<>();
+        doAnswer(invocation -> {
+            if (seen.isEmpty()) {
+                Thread.sleep(10L);
+                seen.add(service.getProgress("imp-1"));
+                duplicateCodes.add(assertThrows(BusinessException.class,
+                        () -> service.importTransactions(csv(), "csv", "imp-1")).getCode());
+            }
+            return null;
+        }).when(transactionWriteService).insertAll(any());
+
+        ImportResultVO result = service.importTransactions(csv(), "csv", "imp-1");
+
+        // 超过progress-ttl的导入仍可查询，且同一ID不能再次开始
+        assertFalse(seen.get(0).isDone());
+        assertEquals(1, seen.get(0).getProcessed());
+        assertEquals(List.of(400), duplicateCodes);
+        assertTrue(result.isDone());
+        assertEquals(2, result.getImported());
+    }
+
+    @Test
+    void finishedImportKeepsResultAndId() {
+        TransactionImportService service = newService();
+
+        service.importTransactions(csv(), "csv", "imp-1");
+
+        ImportResultVO progress = service.getProgress("imp-1");
+        assertTrue(progress.isDone());
+        assertEquals(2, progress.getImported());
+        assertEquals(400, assertThrows(BusinessException.class,
+                () -> service.importTransactions(csv(), "csv", "imp-1")).getCode());
+        assertEquals(404, assertThrows(BusinessException.class, () -> service.getProgress("imp-2")).getCode());
+    }
+
+    private TransactionImportService newService() {
+        return new TransactionImportService(transactionWriteService, mock(TransactionPartitionService.class),
+                transactionProperties, new SimpleMeterRegistry());
+    }
+
+    private static MockMultipartFile csv() {
+        String content = "date,amount,type\n2024-01-02,12.50,expense\n2024-01-03,8,income\n";
+        return new MockMultipartFile("file", "bills.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long shanghai(int year, int month, int day, int hour, int minute, int second) {
+        return OffsetDateTime.of(year, month, day, hour, minute, second, 0, SHANGHAI).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,165 @@
+package top.yukuii.apijava.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.mapper.TransactionMapper;
+import top.yukuii.apijava.model.dto.TransactionFilter;
+import top.yukuii.apijava.model.entity.Transaction;
+
+/**
+ * 进程内n-gram索引搜索（数据库没有搜索生成列时的实现）
+ */
+class TransactionSearchServiceTests {
+
+    private static final long USER_ID = 7L;
+
+    private TransactionMapper transactionMapper;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaQueryWrapper需要实体的表信息
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Transaction.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionMapper = mock(TransactionMapper.class);
+    }
+
+    @Test
+    void matchesRecordsContainingAllTerms() {
+        when(transactionMapper.selectSearchDocuments(USER_ID)).thenReturn(List.of(
+                document(1L, "Lunch at Cafe", null, null),
+                document(2L, "lunch", null, null),
+                document(3L, "dinner", "cafe", null)));
+        TransactionSearchService service = newService(100);
+
+        assertEquals(Set.of(1L), candidates(service, "cafe, LUNCH"));
+        assertEquals(Set.of(2L, 1L), candidates(service, "lunch"));
+    }
+
+    @Test
+    void noMatchSelectsNothing() {
+        when(transactionMapper.selectSearchDocuments(USER_ID)).thenReturn(List.of(document(1L, "lunch", null, null)));
+        LambdaQueryWrapper<Transaction> wrapper = new LambdaQueryWrapper<>();
+
+        newService(100).applyKeyword(wrapper, filter("dinner"));
+
+        assertTrue(wrapper.getSqlSegment().contains("1 = 0"));
+    }
+
+    @Test
+    void keywordWithoutTermsMatchesWholeSubstring() {
+        when(transactionMapper.selectSearchDocuments(USER_ID)).thenReturn(List.of(
+                document(1L, "C++ 教程", null, null),
+                document(2L, "午餐", null, null)));
+
+        assertEquals(Set.of(1L), candidates(newService(100), "++"), "没有字母数字的关键词按整个关键词子串匹配");
+        assertEquals(Set.of(2L), candidates(newService(100), "午餐"));
+    }
+
+    @Test
+    void candidatesAreCappedToNewestRecords() {
+        when(transactionMapper.selectSearchDocuments(USER_ID)).thenReturn(List.of(
+                document(1L, "lunch", null, null),
+                document(2L, "lunch", null, null),
+                document(3L, "lunch", null, null),
+                document(4L, "lunch", null, null)));
+
+        assertEquals(Set.of(4L, 3L), candidates(newService(2), "lunch"));
+    }
+
+    @Test
+    void insertedRecordsAreSearchableWithoutReload() {
+        when(transactionMapper.selectSearchDocuments(USER_ID)).thenReturn(List.of(document(1L, "lunch", null, null)));
+        TransactionSearchService service = newService(100);
+        assertEquals(Set.of(1L), candidates(service, "lunch"));
+
+        Transaction inserted = document(2L, "late lunch", null, null);
+        inserted.setUserId(USER_ID);
+        service.onInserted(inserted);
+
+        assertEquals(Set.of(1L, 2L), candidates(service, "lunch"));
+        verify(transactionMapper, times(1)).selectSearchDocuments(anyLong());
+
+        service.invalidate(USER_ID);
+        candidates(service, "lunch");
+        verify(transactionMapper, times(2)).selectSearchDocuments(anyLong());
+    }
+
+    @Test
+    void rankedPageOrdersByFieldWeightThenDate() {
+        Transaction inRemark = document(1L, null, null, "lunch");
+        inRemark.setTransactionDate(300L);
+        Transaction inDescription = document(2L, "lunch", null, null);
+        inDescription.setTransactionDate(100L);
+        Transaction inDescriptionNewer = document(3L, "lunch", null, null);
+        inDescriptionNewer.setTransactionDate(200L);
+        Transaction twice = document(4L, "lunch", "lunch", null);
+        twice.setTransactionDate(50L);
+        when(transactionMapper.selectList(any())).thenReturn(
+                new ArrayList<>(List.of(inRemark, inDescription, inDescriptionNewer, twice)));
+        TransactionSearchService service = newService(100);
+
+        Page<Transaction> first = service.rankedPage(new Page<>(1, 3), new LambdaQueryWrapper<>(), filter("lunch"));
+        assertEquals(List.of(4L, 3L, 2L), first.getRecords().stream().map(Transaction::getId).toList());
+        assertEquals(1.4, first.getRecords().get(0).getSearchRank(), 1e-9);
+
+        Page<Transaction> second = service.rankedPage(new Page<>(2, 3), new LambdaQueryWrapper<>(), filter("lunch"));
+        assertEquals(List.of(1L), second.getRecords().stream().map(Transaction::getId).toList());
+
+        Page<Transaction> beyond = service.rankedPage(new Page<>(5, 3), new LambdaQueryWrapper<>(), filter("lunch"));
+        assertTrue(beyond.getRecords().isEmpty());
+    }
+
+    private TransactionSearchService newService(int maxCandidates) {
+        TransactionProperties properties = new TransactionProperties();
+        properties.getSearch().setMode(TransactionProperties.SearchMode.NGRAM);
+        properties.getSearch().setNgramMaxCandidates(maxCandidates);
+        return new TransactionSearchService(transactionMapper, properties);
+    }
+
+    private static Set<Object> candidates(TransactionSearchService service, String keyword) {
+        LambdaQueryWrapper<Transaction> wrapper = new LambdaQueryWrapper<>();
+        service.applyKeyword(wrapper, filter(keyword));
+        // 参数在生成SQL片段时才写入
+        wrapper.getSqlSegment();
+        return new HashSet<>(wrapper.getParamNameValuePairs().values());
+    }
+
+    private static TransactionFilter filter(String keyword) {
+        return new TransactionFilter(USER_ID, null, null, null, null, keyword, null, null);
+    }
+
+    private static Transaction document(long id, String description, String tags, String remark) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setDescription(description);
+        transaction.setTags(tags);
+        transaction.setRemark(remark);
+        return transaction;
+    }
+}
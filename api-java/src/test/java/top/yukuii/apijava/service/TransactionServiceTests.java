@@ -0,0 +1,170 @@
+package top.yukuii.apijava.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.mapper.TransactionMapper;
+import top.yukuii.apijava.model.dto.TransactionFilter;
+import top.yukuii.apijava.model.entity.Transaction;
+import top.yukuii.apijava.model.vo.CursorPageVO;
+import top.yukuii.apijava.model.vo.GetTransactionVO;
+import top.yukuii.apijava.util.AuthenticatedPrincipal;
+import top.yukuii.apijava.util.PageCursor;
+import top.yukuii.apijava.util.RequestContext;
+
+/**
+ * 游标分页和过滤条件
+ */
+class TransactionServiceTests {
+
+    private static final long USER_ID = 7L;
+
+    private TransactionMapper transactionMapper;
+
+    private TransactionService transactionService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Transaction.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionMapper = mock(TransactionMapper.class);
+        transactionService = new TransactionService(transactionMapper, mock(TransactionCountService.class),
+                mock(TransactionSearchService.class), mock(TransactionWriteService.class));
+        RequestContext.bind(new AuthenticatedPrincipal("u", USER_ID, null, 0L, Long.MAX_VALUE, List.of(), 0L, "t", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    void extraRowMeansAnotherPage() {
+        when(transactionMapper.selectList(any())).thenReturn(rows(10, 9, 8));
+
+        CursorPageVO<GetTransactionVO> page = page("date", null, null, 2);
+
+        assertEquals(List.of(10L, 9L), page.getRecords().stream().map(GetTransactionVO::getId).toList());
+        assertTrue(page.isHasMore());
+        // 游标指向本页最后一条，而不是多取的那一条
+        assertEquals(new PageCursor("date", false, 9_000L, 9L), PageCursor.decode(page.getNextCursor()));
+        assertTrue(lastQuery().getCustomSqlSegment().endsWith("LIMIT 3"));
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoCursor() {
+        when(transactionMapper.selectList(any())).thenReturn(rows(2, 1));
+
+        CursorPageVO<GetTransactionVO> page = page("date", null, null, 2);
+
+        assertEquals(2, page.getRecords().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void emptyPage() {
+        when(transactionMapper.selectList(any())).thenReturn(List.of());
+
+        CursorPageVO<GetTransactionVO> page = page("date", null, null, 2);
+
+        assertTrue(page.getRecords().isEmpty());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void cursorContinuesAfterLastRowInSortOrder() {
+        when(transactionMapper.selectList(any())).thenReturn(List.of());
+
+        page("createTime", "asc", new PageCursor("createTime", true, 5_000L, 5L).encode(), 2);
+
+        LambdaQueryWrapper<Transaction> query = lastQuery();
+        String sql = query.getCustomSqlSegment();
+        assertTrue(sql.contains("(create_time, id) > ("), sql);
+        assertTrue(sql.contains("ORDER BY create_time ASC,id ASC"), sql);
+        assertTrue(query.getParamNameValuePairs().values().containsAll(List.of(5_000L, 5L)));
+    }
+
+    @Test
+    void cursorMustMatchSortAndOrder() {
+        String dateDesc = new PageCursor("date", false, 1L, 1L).encode();
+
+        assertEquals(400, assertThrows(BusinessException.class, () -> page("createTime", null, dateDesc, 2)).getCode());
+        assertEquals(400, assertThrows(BusinessException.class, () -> page("date", "asc", dateDesc, 2)).getCode());
+    }
+
+    @Test
+    void onlyIndexedSortKeysAreAllowed() {
+        assertEquals(400, assertThrows(BusinessException.class, () -> page("amount", null, null, 2)).getCode());
+    }
+
+    @Test
+    void pageSizeIsCapped() {
+        when(transactionMapper.selectList(any())).thenReturn(List.of());
+
+        page("date", null, null, 10_000);
+
+        assertTrue(lastQuery().getCustomSqlSegment().endsWith("LIMIT 101"));
+    }
+
+    @Test
+    void tagsAreTrimmedLikeTransactionTagArray() {
+        TransactionFilter filter = TransactionService.toFilter(USER_ID, null, null, null, null, null,
+                List.of(" 餐饮 ,交通，", "餐饮", "\t出差", "旅行\u3000", "  "), null);
+
+        // btrim只去ASCII空格，制表符和全角空格是标签的一部分
+        assertEquals(List.of("餐饮", "交通", "\t出差", "旅行\u3000"), filter.tags());
+    }
+
+    private CursorPageVO<GetTransactionVO> page(String sort, String order, String cursor, int pageSize) {
+        return transactionService.getTransactionsByCursor(null, null, null, null, null, null, null,
+                sort, order, cursor, pageSize, false, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LambdaQueryWrapper<Transaction> lastQuery() {
+        ArgumentCaptor<LambdaQueryWrapper<Transaction>> captor = ArgumentCaptor.forClass(LambdaQueryWrapper.class);
+        verify(transactionMapper).selectList(captor.capture());
+        return captor.getValue();
+    }
+
+    /**
+     * 按id倒序的记录，日期和创建时间为id * 1000
+     */
+    private static List<Transaction> rows(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> {
+            Transaction transaction = new Transaction();
+            transaction.setId(id);
+            transaction.setUserId(USER_ID);
+            transaction.setTransactionDate(id * 1_000L);
+            transaction.setCreateTime(id * 1_000L);
+            return transaction;
+        }).toList();
+    }
+}
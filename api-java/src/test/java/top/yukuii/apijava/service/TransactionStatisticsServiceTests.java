@@ -0,0 +1,79 @@
+package top.yukuii.apijava.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import top.yukuii.apijava.model.dto.RollupRange;
+
+class TransactionStatisticsServiceTests {
+
+    @Test
+    void alignedRangeReadsOnlyMonthlyRollups() {
+        assertEquals(List.of(month("2024-01-01", "2024-03-01")),
+                TransactionStatisticsService.splitRange(date("2024-01-01"), date("2024-03-31")));
+    }
+
+    @Test
+    void unalignedRangeReadsDailyRollupsAtBothEnds() {
+        assertEquals(List.of(
+                        day("2024-01-15", "2024-01-31"),
+                        month("2024-02-01", "2024-03-01"),
+                        day("2024-04-01", "2024-04-10")),
+                TransactionStatisticsService.splitRange(date("2024-01-15"), date("2024-04-10")));
+    }
+
+    @Test
+    void unalignedStartOnly() {
+        assertEquals(List.of(day("2024-01-02", "2024-01-31"), month("2024-02-01", "2024-02-01")),
+                TransactionStatisticsService.splitRange(date("2024-01-02"), date("2024-02-29")));
+    }
+
+    @Test
+    void singleFullMonth() {
+        assertEquals(List.of(month("2024-02-01", "2024-02-01")),
+                TransactionStatisticsService.splitRange(date("2024-02-01"), date("2024-02-29")));
+    }
+
+    @Test
+    void partOfSingleMonthReadsDailyRollups() {
+        assertEquals(List.of(day("2024-02-03", "2024-02-20")),
+                TransactionStatisticsService.splitRange(date("2024-02-03"), date("2024-02-20")));
+        assertEquals(List.of(day("2024-02-01", "2024-02-28")),
+                TransactionStatisticsService.splitRange(date("2024-02-01"), date("2024-02-28")));
+        assertEquals(List.of(day("2024-02-10", "2024-02-10")),
+                TransactionStatisticsService.splitRange(date("2024-02-10"), date("2024-02-10")));
+    }
+
+    @Test
+    void adjacentPartialMonthsWithoutFullMonthReadDailyRollups() {
+        assertEquals(List.of(day("2024-01-20", "2024-02-10")),
+                TransactionStatisticsService.splitRange(date("2024-01-20"), date("2024-02-10")));
+    }
+
+    @Test
+    void rangeAcrossYearBoundary() {
+        assertEquals(List.of(
+                        day("2023-11-15", "2023-11-30"),
+                        month("2023-12-01", "2024-01-01"),
+                        day("2024-02-01", "2024-02-05")),
+                TransactionStatisticsService.splitRange(date("2023-11-15"), date("2024-02-05")));
+        assertEquals(List.of(day("2023-12-31", "2024-01-01")),
+                TransactionStatisticsService.splitRange(date("2023-12-31"), date("2024-01-01")));
+    }
+
+    private static RollupRange day(String from, String to) {
+        return new RollupRange("day", date(from), date(to));
+    }
+
+    private static RollupRange month(String from, String to) {
+        return new RollupRange("month", date(from), date(to));
+    }
+
+    private static LocalDate date(String value) {
+        return LocalDate.parse(value);
+    }
+}
@@ -0,0 +1,258 @@
+package top.yukuii.apijava.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import top.yukuii.apijava.common.BusinessException;
+import top.yukuii.apijava.config.TransactionProperties;
+import top.yukuii.apijava.mapper.TransactionMapper;
+import top.yukuii.apijava.model.entity.Transaction;
+
+/**
+ * 组提交写入
+ */
+class TransactionWriteServiceTests {
+
+    private final TransactionProperties transactionProperties = new TransactionProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    /**
+     * 每次写入数据库的批次（按调用顺序）
+     */
+    private final List<List<Transaction>> batches = new CopyOnWriteArrayList<>();
+
+    /**
+     * 写入时已经带有id的批次数（拆分重试前没有清空id）
+     */
+    private final AtomicLong batchesWithIds = new AtomicLong();
+
+    private TransactionMapper transactionMapper;
+
+    private TransactionWriteService transactionWriteService;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        transactionMapper = mock(TransactionMapper.class);
+        TransactionProperties.GroupCommit groupCommit = transactionProperties.getGroupCommit();
+        groupCommit.setEnabled(true);
+        groupCommit.setMaxBatchSize(4);
+        groupCommit.setMaxDelay(Duration.ofSeconds(1));
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionWriteService.destroy();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void constraintViolationFailsOnlyItsOwnRow() throws Exception {
+        onWrite(batch -> {
+            if (batch.stream().anyMatch(transaction -> "bad".equals(transaction.getDescription()))) {
+                throw new DataIntegrityViolationException("violates check constraint");
+            }
+        });
+        start();
+
+        List<Transaction> transactions = List.of(transaction("a"), transaction("bad"), transaction("c"), transaction("d"));
+        List<CompletableFuture<Void>> results = transactions.stream().map(this::insertAsync).toList();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> results.get(1).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+        for (int i : new int[] {0, 2, 3}) {
+            results.get(i).get(5, TimeUnit.SECONDS);
+            assertNotNull(transactions.get(i).getId());
+        }
+        assertEquals(4, batches.get(0).size());
+        assertTrue(batches.size() > 1);
+        assertEquals(0, batchesWithIds.get());
+    }
+
+    @Test
+    void otherErrorsFailWholeBatchWithoutSplitting() throws Exception {
+        QueryTimeoutException timeout = new QueryTimeoutException("canceling statement due to statement timeout");
+        onWrite(batch -> {
+            throw timeout;
+        });
+        start();
+
+        List<CompletableFuture<Void>> results = List.of(transaction("a"), transaction("b"), transaction("c"), transaction("d"))
+                .stream().map(this::insertAsync).toList();
+
+        for (CompletableFuture<Void> result : results) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(timeout, failure.getCause());
+        }
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void fullQueueIsRejectedAfterEnqueueTimeout() throws Exception {
+        TransactionProperties.GroupCommit groupCommit = transactionProperties.getGroupCommit();
+        groupCommit.setMaxBatchSize(1);
+        groupCommit.setQueueCapacity(1);
+        groupCommit.setEnqueueTimeout(Duration.ofMillis(200));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        onWrite(batch -> {
+            writing.countDown();
+            await(release);
+        });
+        start();
+
+        // 第一条卡在写入中，第二条占满队列
+        CompletableFuture<Void> first = insertAsync(transaction("a"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> second = insertAsync(transaction("b"));
+        awaitQueueSize(1);
+
+        long start = System.nanoTime();
+        BusinessException rejected = assertThrows(BusinessException.class, () -> transactionWriteService.insert(transaction("c")));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(503, rejected.getCode());
+        assertTrue(waitedMillis >= 200, "waited " + waitedMillis + "ms");
+        assertEquals(1.0, meterRegistry.get("transaction.group_commit.rejected").counter().count());
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shutdownWritesRowsAlreadyQueued() throws Exception {
+        transactionProperties.getGroupCommit().setMaxBatchSize(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        onWrite(batch -> {
+            writing.countDown();
+            await(release);
+        });
+        start();
+
+        Transaction first = transaction("a");
+        CompletableFuture<Void> firstResult = insertAsync(first);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        List<Transaction> queued = List.of(transaction("b"), transaction("c"));
+        List<CompletableFuture<Void>> queuedResults = queued.stream().map(this::insertAsync).toList();
+        awaitQueueSize(2);
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(transactionWriteService::destroy, callers);
+        release.countDown();
+        shutdown.get(5, TimeUnit.SECONDS);
+
+        firstResult.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Void> result : queuedResults) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        assertNotNull(first.getId());
+        queued.forEach(transaction -> assertNotNull(transaction.getId()));
+        assertEquals(3, batches.size());
+
+        // 关闭后直接写入，不经过队列
+        Transaction direct = transaction("d");
+        transactionWriteService.insert(direct);
+        assertNotNull(direct.getId());
+        assertEquals(List.of(direct), batches.get(3));
+    }
+
+    /**
+     * 模拟数据库写入：先执行action（可能抛出异常），成功后回填id
+     */
+    private void onWrite(Consumer<List<Transaction>> action) {
+        doAnswer(invocation -> write(List.of((Transaction) invocation.getArgument(0)), action))
+                .when(transactionMapper).insert(any(Transaction.class));
+        doAnswer(invocation -> write(invocation.getArgument(0), action))
+                .when(transactionMapper).insertBatch(anyList());
+    }
+
+    private int write(List<Transaction> batch, Consumer<List<Transaction>> action) {
+        batches.add(List.copyOf(batch));
+        if (batch.stream().anyMatch(transaction -> transaction.getId() != null)) {
+            batchesWithIds.incrementAndGet();
+        }
+        // 多行INSERT失败前驱动可能已经回填了部分id
+        batch.forEach(transaction -> transaction.setId(ids.incrementAndGet()));
+        action.accept(batch);
+        return batch.size();
+    }
+
+    private void start() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        TransactionCountService transactionCountService = mock(TransactionCountService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(transactionCountService).insertAll(anyList(), any());
+        transactionWriteService = new TransactionWriteService(transactionMapper, transactionCountService,
+                mock(TransactionSearchService.class), mock(TransactionStatisticsService.class),
+                mock(TransactionPartitionService.class), new TransactionTemplate(transactionManager),
+                transactionProperties, meterRegistry);
+        transactionWriteService.init();
+    }
+
+    private CompletableFuture<Void> insertAsync(Transaction transaction) {
+        return CompletableFuture.runAsync(() -> transactionWriteService.insert(transaction), callers);
+    }
+
+    private void awaitQueueSize(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (meterRegistry.get("transaction.group_commit.queue.size").gauge().value() < size) {
+            assertTrue(System.currentTimeMillis() < deadline, "队列长度未达到 " + size);
+            Thread.sleep(5L);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Transaction transaction(String description) {
+        Transaction transaction = new Transaction();
+        transaction.setUserId(7L);
+        transaction.setDescription(description);
+        return transaction;
+    }
+}
@@ -0,0 +1,57 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTests {
+
+    private static final int INSERTIONS = 10_000;
+
+    @Test
+    void noFalseNegatives() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        SplittableRandom random = new SplittableRandom(1L);
+        long[][] hashes = new long[INSERTIONS][];
+        for (int i = 0; i < INSERTIONS; i++) {
+            hashes[i] = new long[] {random.nextLong(), random.nextLong()};
+            filter.put(hashes[i][0], hashes[i][1]);
+        }
+
+        for (long[] hash : hashes) {
+            assertTrue(filter.mightContain(hash[0], hash[1]));
+        }
+    }
+
+    @Test
+    void falsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        SplittableRandom random = new SplittableRandom(1L);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put(random.nextLong(), random.nextLong());
+        }
+
+        SplittableRandom absent = new SplittableRandom(2L);
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(absent.nextLong(), absent.nextLong())) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.02, "误判率过高: " + rate);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(0L, 0.01);
+
+        assertFalse(filter.mightContain(1L, 2L));
+        filter.put(1L, 2L);
+        assertTrue(filter.mightContain(1L, 2L));
+    }
+}
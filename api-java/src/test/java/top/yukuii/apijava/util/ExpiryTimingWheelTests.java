@@ -0,0 +1,87 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ExpiryTimingWheelTests {
+
+    private static final long TICK = 1000L;
+
+    @Test
+    void expiresOnlyAfterTickPassed() {
+        ExpiryTimingWheel<String> wheel = new ExpiryTimingWheel<>(TICK, 8);
+        long base = alignedNow();
+        wheel.schedule("a", base + 1500);
+
+        List<String> expired = new ArrayList<>();
+        assertEquals(0, wheel.advance(base + 1000, expired::add));
+        assertEquals(0, wheel.advance(base + 1999, expired::add));
+        assertEquals(1, wheel.advance(base + 2000, expired::add));
+        assertEquals(List.of("a"), expired);
+        // 已过期的key不会重复回调
+        assertEquals(0, wheel.advance(base + 3000, expired::add));
+    }
+
+    @Test
+    void keyBeyondOneLapWaitsForItsRound() {
+        ExpiryTimingWheel<String> wheel = new ExpiryTimingWheel<>(TICK, 4);
+        long base = alignedNow();
+        wheel.schedule("far", base + 10_500);
+
+        for (long now = base + TICK; now <= base + 10_000; now += TICK) {
+            assertEquals(0, wheel.advance(now, key -> { }), "now=" + (now - base));
+        }
+        assertEquals(1, wheel.advance(base + 11_000, key -> { }));
+    }
+
+    @Test
+    void alreadyExpiredKeyExpiresOnNextTick() {
+        ExpiryTimingWheel<String> wheel = new ExpiryTimingWheel<>(TICK, 8);
+        long base = alignedNow();
+        wheel.advance(base, key -> { });
+        wheel.schedule("late", base - 60_000);
+
+        assertEquals(1, wheel.advance(base + TICK, key -> { }));
+    }
+
+    @Test
+    void jumpOverSeveralLapsExpiresEverything() {
+        ExpiryTimingWheel<Integer> wheel = new ExpiryTimingWheel<>(TICK, 4);
+        long base = alignedNow();
+        for (int i = 0; i < 10; i++) {
+            wheel.schedule(i, base + i * TICK + 1);
+        }
+
+        List<Integer> expired = new ArrayList<>();
+        assertEquals(10, wheel.advance(base + 100 * TICK, expired::add));
+        assertEquals(10, expired.size());
+    }
+
+    @Test
+    void clearDropsScheduledKeys() {
+        ExpiryTimingWheel<String> wheel = new ExpiryTimingWheel<>(TICK, 8);
+        long base = alignedNow();
+        wheel.schedule("a", base + 1500);
+        wheel.clear();
+
+        assertEquals(0, wheel.advance(base + 10 * TICK, key -> { }));
+    }
+
+    @Test
+    void rejectsNonPositiveTick() {
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryTimingWheel<>(0L, 8));
+        assertThrows(IllegalArgumentException.class, () -> new ExpiryTimingWheel<>(-1L, 8));
+    }
+
+    /**
+     * 时间轮按构造时的系统时间初始化，测试时间从当前tick的起点开始
+     */
+    private static long alignedNow() {
+        return System.currentTimeMillis() / TICK * TICK;
+    }
+}
@@ -0,0 +1,253 @@
+package top.yukuii.apijava.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 测试用的进程内Redis替身
+ * 只实现RedisRevocationStore用到的RESP2命令：ZADD、ZRANGEBYSCORE、ZREMRANGEBYSCORE、PUBLISH、SUBSCRIBE
+ */
+class FakeRedisServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+
+    /**
+     * 有序集合：key -> (member -> score)
+     */
+    private final Map<String, ConcurrentSkipListMap<String, Double>> sortedSets = new ConcurrentHashMap<>();
+
+    /**
+     * 频道 -> 订阅连接
+     */
+    private final Map<String, List<Connection>> subscribers = new ConcurrentHashMap<>();
+
+    FakeRedisServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-redis-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String uri() {
+        return "redis://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    int zcard(String key) {
+        Map<String, Double> set = sortedSets.get(key);
+        return set == null ? 0 : set.size();
+    }
+
+    /**
+     * 直接写入有序集合，不发布消息（模拟订阅断开期间其他节点的吊销）
+     */
+    void zadd(String key, String member, double score) {
+        sortedSets.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).put(member, score);
+    }
+
+    /**
+     * 断开所有订阅连接，客户端会自动重连并重新订阅
+     */
+    void disconnectSubscribers() throws IOException {
+        for (List<Connection> connections : subscribers.values()) {
+            for (Connection connection : connections) {
+                connection.socket.close();
+            }
+            connections.clear();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Connection connection = new Connection(socket);
+                Thread thread = new Thread(connection::serve, "fake-redis-connection");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private static double parseScore(String value) {
+        String score = value.startsWith("(") ? value.substring(1) : value;
+        return switch (score.toLowerCase()) {
+            case "-inf" -> Double.NEGATIVE_INFINITY;
+            case "+inf", "inf" -> Double.POSITIVE_INFINITY;
+            default -> Double.parseDouble(score);
+        };
+    }
+
+    private class Connection {
+
+        private final Socket socket;
+
+        private final InputStream in;
+
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        void serve() {
+            try (socket) {
+                List<String> command;
+                while ((command = readCommand()) != null) {
+                    handle(command);
+                }
+            } catch (IOException ignored) {
+                // 客户端断开
+            }
+        }
+
+        private void handle(List<String> command) throws IOException {
+            String name = command.get(0).toUpperCase();
+            switch (name) {
+                case "PING" -> simple("PONG");
+                case "CLIENT", "SELECT" -> simple("OK");
+                case "ZADD" -> {
+                    Map<String, Double> set = sortedSets.computeIfAbsent(command.get(1), k -> new ConcurrentSkipListMap<>());
+                    int added = 0;
+                    for (int i = 2; i + 1 < command.size(); i += 2) {
+                        if (set.put(command.get(i + 1), parseScore(command.get(i))) == null) {
+                            added++;
+                        }
+                    }
+                    integer(added);
+                }
+                case "ZRANGEBYSCORE" -> {
+                    Map<String, Double> set = sortedSets.getOrDefault(command.get(1), new ConcurrentSkipListMap<>());
+                    double min = parseScore(command.get(2));
+                    double max = parseScore(command.get(3));
+                    boolean withScores = command.size() > 4 && "WITHSCORES".equalsIgnoreCase(command.get(4));
+                    List<String> reply = new ArrayList<>();
+                    set.entrySet().stream()
+                            .filter(e -> e.getValue() >= min && e.getValue() <= max)
+                            .sorted(Map.Entry.comparingByValue())
+                            .forEach(e -> {
+                                reply.add(e.getKey());
+                                if (withScores) {
+                                    reply.add(String.valueOf(e.getValue()));
+                                }
+                            });
+                    array(reply);
+                }
+                case "ZREMRANGEBYSCORE" -> {
+                    Map<String, Double> set = sortedSets.getOrDefault(command.get(1), new ConcurrentSkipListMap<>());
+                    double min = parseScore(command.get(2));
+                    double max = parseScore(command.get(3));
+                    int before = set.size();
+                    set.values().removeIf(score -> score >= min && score <= max);
+                    integer(before - set.size());
+                }
+                case "PUBLISH" -> {
+                    List<Connection> targets = subscribers.getOrDefault(command.get(1), List.of());
+                    for (Connection target : targets) {
+                        target.push(List.of("message", command.get(1), command.get(2)));
+                    }
+                    integer(targets.size());
+                }
+                case "SUBSCRIBE" -> {
+                    for (int i = 1; i < command.size(); i++) {
+                        subscribers.computeIfAbsent(command.get(i), k -> new CopyOnWriteArrayList<>()).add(this);
+                        synchronized (this) {
+                            out.write(("*3\r\n$9\r\nsubscribe\r\n" + bulk(command.get(i)) + ":" + i + "\r\n")
+                                    .getBytes(StandardCharsets.UTF_8));
+                            out.flush();
+                        }
+                    }
+                }
+                case "QUIT" -> {
+                    simple("OK");
+                    socket.close();
+                }
+                default -> error("ERR unknown command '" + name + "'");
+            }
+        }
+
+        private List<String> readCommand() throws IOException {
+            String header = readLine();
+            if (header == null) {
+                return null;
+            }
+            int count = Integer.parseInt(header.substring(1));
+            List<String> args = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = Integer.parseInt(readLine().substring(1));
+                byte[] data = in.readNBytes(length);
+                in.readNBytes(2);
+                args.add(new String(data, StandardCharsets.UTF_8));
+            }
+            return args;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != -1) {
+                if (b == '\r') {
+                    in.read();
+                    return line.toString();
+                }
+                line.append((char) b);
+            }
+            return null;
+        }
+
+        private synchronized void push(List<String> values) throws IOException {
+            array(values);
+        }
+
+        private synchronized void simple(String value) throws IOException {
+            write("+" + value + "\r\n");
+        }
+
+        private synchronized void error(String message) throws IOException {
+            write("-" + message + "\r\n");
+        }
+
+        private synchronized void integer(long value) throws IOException {
+            write(":" + value + "\r\n");
+        }
+
+        private synchronized void array(List<String> values) throws IOException {
+            StringBuilder reply = new StringBuilder("*").append(values.size()).append("\r\n");
+            for (String value : values) {
+                reply.append(bulk(value));
+            }
+            write(reply.toString());
+        }
+
+        private String bulk(String value) {
+            return "$" + value.getBytes(StandardCharsets.UTF_8).length + "\r\n" + value + "\r\n";
+        }
+
+        private void write(String reply) throws IOException {
+            out.write(reply.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+}
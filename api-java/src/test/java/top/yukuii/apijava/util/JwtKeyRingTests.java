@@ -0,0 +1,75 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+
+class JwtKeyRingTests {
+
+    private static final String OLD_SECRET = "old-secret-key-for-jwt-key-ring-tests-at-least-256-bits";
+
+    private static final String NEW_SECRET = "new-secret-key-for-jwt-key-ring-tests-at-least-256-bits";
+
+    @Test
+    void verifiesTokensSignedWithRetiredKey() {
+        JwtKeyRing before = new JwtKeyRing(Map.of("k1", OLD_SECRET), "k1", null);
+        String oldToken = sign(before.getActiveKey(), "k1", "u1");
+
+        JwtKeyRing rotated = new JwtKeyRing(Map.of("k1", OLD_SECRET, "k2", NEW_SECRET), "k2", null);
+        String newToken = sign(rotated.getActiveKey(), rotated.getActiveKid(), "u2");
+
+        assertEquals("u1", parser(rotated).parseSignedClaims(oldToken).getPayload().getSubject());
+        assertEquals("u2", parser(rotated).parseSignedClaims(newToken).getPayload().getSubject());
+        assertEquals("k2", parser(rotated).parseSignedClaims(newToken).getHeader().getKeyId());
+    }
+
+    @Test
+    void tokenWithoutKidUsesLegacyKey() {
+        JwtKeyRing ring = new JwtKeyRing(Map.of("k1", OLD_SECRET, "k2", NEW_SECRET), "k2", "k1");
+        String legacyToken = sign(ring.getKeys().get("k1"), null, "u1");
+
+        assertEquals("u1", parser(ring).parseSignedClaims(legacyToken).getPayload().getSubject());
+
+        JwtKeyRing strict = new JwtKeyRing(Map.of("k1", OLD_SECRET, "k2", NEW_SECRET), "k2", null);
+        assertThrows(UnsupportedJwtException.class, () -> parser(strict).parseSignedClaims(legacyToken));
+    }
+
+    @Test
+    void rejectsUnknownKid() {
+        JwtKeyRing ring = new JwtKeyRing(Map.of("k1", OLD_SECRET), "k1", null);
+        JwtKeyRing other = new JwtKeyRing(Map.of("k9", NEW_SECRET), "k9", null);
+        String token = sign(other.getActiveKey(), "k9", "u1");
+
+        assertThrows(UnsupportedJwtException.class, () -> parser(ring).parseSignedClaims(token));
+    }
+
+    @Test
+    void rejectsMissingKids() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(Map.of("k1", OLD_SECRET), "k2", null));
+        assertThrows(IllegalArgumentException.class, () -> new JwtKeyRing(Map.of("k1", OLD_SECRET), "k1", "k0"));
+    }
+
+    private static String sign(SecretKey key, String kid, String subject) {
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .subject(subject)
+                .signWith(key, PooledHmacAlgorithm.HS256)
+                .compact();
+    }
+
+    private static JwtParser parser(JwtKeyRing ring) {
+        return Jwts.parser()
+                .keyLocator(ring)
+                .sig().add(PooledHmacAlgorithm.HS256).and()
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+class JwtUtilTests {
+
+    /**
+     * 引入密钥环之前硬编码的密钥（72字节，576位）
+     */
+    private static final String LEGACY_SECRET = "your-super-secret-key-for-jwt-token-generation-must-be-at-least-256-bits";
+
+    private static final String NEW_SECRET = "new-secret-key-for-jwt-util-tests-must-be-at-least-256-bits";
+
+    private JwtKeyRing previous;
+
+    @BeforeEach
+    void setUp() {
+        previous = JwtUtil.getKeyRing();
+    }
+
+    @AfterEach
+    void tearDown() {
+        JwtUtil.setKeyRing(previous);
+    }
+
+    @Test
+    void newTokensAreSignedWithHs256AndKid() {
+        JwtUtil.setKeyRing(new JwtKeyRing(Map.of("k1", NEW_SECRET), "k1", null));
+
+        String token = JwtUtil.createToken("u1");
+        Jws<Claims> jws = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(NEW_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build().parseSignedClaims(token);
+
+        assertEquals("HS256", jws.getHeader().getAlgorithm());
+        assertEquals("k1", jws.getHeader().getKeyId());
+        assertEquals("u1", JwtUtil.getUserId(token));
+    }
+
+    @Test
+    void legacyHs512TokenWithoutKidStillVerifies() {
+        // 与引入密钥环之前的签发方式相同：不指定算法，jjwt按密钥长度选择HS512，header没有kid
+        String legacyToken = Jwts.builder()
+                .subject("u1")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000L))
+                .signWith(Keys.hmacShaKeyFor(LEGACY_SECRET.getBytes()))
+                .compact();
+        JwtUtil.setKeyRing(new JwtKeyRing(Map.of("default", LEGACY_SECRET, "k2", NEW_SECRET), "k2", "default"));
+
+        assertEquals("HS512", Jwts.parser().verifyWith(Keys.hmacShaKeyFor(LEGACY_SECRET.getBytes()))
+                .build().parseSignedClaims(legacyToken).getHeader().getAlgorithm());
+        assertEquals("u1", JwtUtil.getUserId(legacyToken));
+
+        // 不再接受没有kid的Token后，旧Token验签失败
+        JwtUtil.setKeyRing(new JwtKeyRing(Map.of("default", LEGACY_SECRET, "k2", NEW_SECRET), "k2", null));
+        assertThrows(RuntimeException.class, () -> JwtUtil.getUserId(legacyToken));
+    }
+}
@@ -0,0 +1,70 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class LongHashSetTests {
+
+    @Test
+    void addAndContains() {
+        LongHashSet set = new LongHashSet(16);
+
+        assertTrue(set.add(42L));
+        assertTrue(set.add(-7L));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertFalse(set.add(42L));
+
+        assertTrue(set.contains(42L));
+        assertTrue(set.contains(-7L));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertFalse(set.contains(43L));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    void growsBeyondExpectedSize() {
+        LongHashSet set = new LongHashSet(1);
+        SplittableRandom random = new SplittableRandom(1L);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong();
+            set.add(values[i]);
+        }
+
+        assertEquals(values.length, set.size());
+        for (long value : values) {
+            assertTrue(set.contains(value));
+        }
+        assertFalse(set.contains(new SplittableRandom(2L).nextLong()));
+    }
+
+    @Test
+    void clusteredValuesAreFound() {
+        // 连续值经过spread后仍可能落在相邻槽位，验证线性探测能越过冲突
+        LongHashSet set = new LongHashSet(16);
+        for (long value = 1; value <= 1000; value++) {
+            set.add(value << 32);
+        }
+
+        for (long value = 1; value <= 1000; value++) {
+            assertTrue(set.contains(value << 32));
+        }
+        assertFalse(set.contains(1001L << 32));
+    }
+
+    @Test
+    void zeroSharesSlotWithOne() {
+        LongHashSet set = new LongHashSet(16);
+
+        assertTrue(set.add(0L));
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(1L));
+        assertFalse(set.add(1L));
+        assertEquals(1, set.size());
+    }
+}
@@ -0,0 +1,50 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import top.yukuii.apijava.common.BusinessException;
+
+class PageCursorTests {
+
+    @Test
+    void roundTrip() {
+        PageCursor desc = new PageCursor("date", false, 1_704_067_200_000L, 42L);
+        assertEquals(desc, PageCursor.decode(desc.encode()));
+
+        PageCursor asc = new PageCursor("createTime", true, -1L, Long.MAX_VALUE);
+        assertEquals(asc, PageCursor.decode(asc.encode()));
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String token = new PageCursor("date", false, Long.MAX_VALUE, Long.MAX_VALUE).encode();
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        assertInvalid("not a cursor!");
+        assertInvalid(raw("2:date:d:1:2"));
+        assertInvalid(raw("1:date:d:1"));
+        assertInvalid(raw("1:date:d:1:2:3"));
+        assertInvalid(raw("1:date:d:abc:2"));
+        assertInvalid(raw("1:date:d:1:99999999999999999999"));
+        assertInvalid("");
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(String token) {
+        BusinessException e = assertThrows(BusinessException.class, () -> PageCursor.decode(token), token);
+        assertEquals(400, e.getCode());
+    }
+}
@@ -0,0 +1,95 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+
+class PooledHmacAlgorithmTests {
+
+    private static final byte[] PAYLOAD = "header.payload".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void matchesPlainHmac() throws Exception {
+        SecretKey key = newKey("matches");
+
+        assertArrayEquals(expected(key), sign(key, new ByteArrayInputStream(PAYLOAD)));
+        // 第二次使用池中归还的Mac实例
+        assertArrayEquals(expected(key), sign(key, new ByteArrayInputStream(PAYLOAD)));
+    }
+
+    @Test
+    void macIsResetAfterRuntimeException() throws Exception {
+        SecretKey key = newKey("runtime");
+
+        assertThrows(IllegalStateException.class, () -> sign(key, new FailingInputStream(new IllegalStateException("boom"))));
+        assertArrayEquals(expected(key), sign(key, new ByteArrayInputStream(PAYLOAD)));
+    }
+
+    @Test
+    void macIsResetAfterReadFailure() throws Exception {
+        SecretKey key = newKey("io");
+
+        assertThrows(SecurityException.class, () -> sign(key, new FailingInputStream(null)));
+        assertArrayEquals(expected(key), sign(key, new ByteArrayInputStream(PAYLOAD)));
+    }
+
+    private static byte[] sign(SecretKey key, InputStream payload) {
+        return PooledHmacAlgorithm.HS256.sign(key, payload);
+    }
+
+    private static byte[] expected(SecretKey key) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(key);
+        return mac.doFinal(PAYLOAD);
+    }
+
+    private static SecretKey newKey(String name) {
+        return Keys.hmacShaKeyFor(("pooled-hmac-test-key-" + name + "-padded-to-at-least-256-bits")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 先返回一段内容再失败，让Mac里残留部分输入
+     */
+    private static final class FailingInputStream extends InputStream {
+
+        private final RuntimeException failure;
+
+        private boolean served;
+
+        FailingInputStream(RuntimeException failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0];
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (!served) {
+                served = true;
+                buffer[offset] = 'x';
+                return 1;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            throw new IOException("read failed");
+        }
+    }
+}
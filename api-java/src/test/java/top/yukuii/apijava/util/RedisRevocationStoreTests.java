@@ -0,0 +1,102 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.protocol.ProtocolVersion;
+
+class RedisRevocationStoreTests {
+
+    private static final String KEY = "auth:revoked";
+
+    private static final String CHANNEL = "auth:revocations";
+
+    private FakeRedisServer server;
+
+    private RedisClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeRedisServer();
+        client = RedisClient.create(server.uri());
+        client.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.shutdown();
+        server.close();
+    }
+
+    @Test
+    void revocationPropagatesToOtherNodes() throws Exception {
+        try (RedisRevocationStore nodeA = newStore(); RedisRevocationStore nodeB = newStore()) {
+            nodeA.start();
+            nodeB.start();
+
+            TokenDigest digest = TokenDigest.of("token-a");
+            long expiration = System.currentTimeMillis() + 60_000L;
+            nodeA.revoke(digest, expiration);
+
+            assertTrue(nodeA.isRevoked(digest, expiration));
+            assertTrue(awaitRevoked(nodeB, digest, expiration));
+            assertFalse(nodeB.isRevoked(TokenDigest.of("token-b"), expiration));
+            assertEquals(1, server.zcard(KEY));
+        }
+    }
+
+    @Test
+    void newNodeLoadsExistingRevocations() throws Exception {
+        TokenDigest digest = TokenDigest.of("token-a");
+        long expiration = System.currentTimeMillis() + 60_000L;
+        try (RedisRevocationStore nodeA = newStore()) {
+            nodeA.start();
+            nodeA.revoke(digest, expiration);
+            // 已过期的记录不会被新节点加载
+            nodeA.revoke(TokenDigest.of("token-expired"), System.currentTimeMillis() - 1L);
+        }
+
+        try (RedisRevocationStore nodeB = newStore()) {
+            nodeB.start();
+            assertTrue(nodeB.isRevoked(digest, expiration));
+            assertTrue(nodeB.isRevoked(digest));
+            assertEquals(1, nodeB.size());
+        }
+    }
+
+    @Test
+    void reloadsRevocationsMissedWhileDisconnected() throws Exception {
+        try (RedisRevocationStore node = newStore()) {
+            node.start();
+
+            TokenDigest digest = TokenDigest.of("token-missed");
+            long expiration = System.currentTimeMillis() + 60_000L;
+            server.zadd(KEY, digest.toHex(), expiration);
+            server.disconnectSubscribers();
+
+            assertTrue(awaitRevoked(node, digest, expiration));
+        }
+    }
+
+    private RedisRevocationStore newStore() {
+        return new RedisRevocationStore(client, KEY, CHANNEL, 16, 1024, new InMemoryRevocationStore(null));
+    }
+
+    private boolean awaitRevoked(RevocationStore store, TokenDigest digest, long expiration) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (System.currentTimeMillis() < deadline) {
+            if (store.isRevoked(digest, expiration)) {
+                return true;
+            }
+            Thread.sleep(20L);
+        }
+        return false;
+    }
+}
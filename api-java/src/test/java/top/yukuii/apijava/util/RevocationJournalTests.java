@@ -0,0 +1,176 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RevocationJournalTests {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayReturnsAppendedRecords() throws Exception {
+        long expiration = System.currentTimeMillis() + HOUR_MILLIS;
+        List<Record> written = List.of(
+                new Record(TokenDigest.of("token-a"), expiration),
+                new Record(TokenDigest.of("token-b"), expiration + 1),
+                new Record(TokenDigest.of("token-c"), expiration + 2));
+        try (RevocationJournal journal = started(100)) {
+            for (Record record : written) {
+                await(journal, record);
+            }
+        }
+
+        assertEquals(written, replay(100));
+    }
+
+    @Test
+    void tornRecordAtEndOfSegmentIsSkipped() throws Exception {
+        Record complete = new Record(TokenDigest.of("token-a"), System.currentTimeMillis() + HOUR_MILLIS);
+        try (RevocationJournal journal = started(100)) {
+            await(journal, complete);
+        }
+        // 模拟写入半条记录时进程崩溃
+        try (FileChannel channel = FileChannel.open(segment(1), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[RevocationJournal.RECORD_SIZE / 2]));
+        }
+        assertEquals(List.of(complete), replay(100));
+        assertEquals(1, new RevocationJournal(directory, 100, 16).recordCount());
+
+        // 重启后写入新分段，之后的记录不会和半条记录错位
+        Record next = new Record(TokenDigest.of("token-b"), System.currentTimeMillis() + HOUR_MILLIS);
+        try (RevocationJournal journal = new RevocationJournal(directory, 100, 16)) {
+            journal.replay((digest, expiration) -> { });
+            journal.start();
+            await(journal, next);
+        }
+        assertEquals(List.of(complete, next), replay(100));
+    }
+
+    @Test
+    void expiredRecordsAreNotReplayed() throws Exception {
+        long now = System.currentTimeMillis();
+        Record live = new Record(TokenDigest.of("token-live"), now + HOUR_MILLIS);
+        try (RevocationJournal journal = started(100)) {
+            await(journal, new Record(TokenDigest.of("token-expired"), now - 1000L));
+            await(journal, live);
+        }
+
+        assertEquals(List.of(live), replay(100));
+    }
+
+    @Test
+    void segmentsRotateAtMaxRecords() throws Exception {
+        long expiration = System.currentTimeMillis() + HOUR_MILLIS;
+        try (RevocationJournal journal = started(2)) {
+            for (int i = 0; i < 5; i++) {
+                await(journal, new Record(TokenDigest.of("token-" + i), expiration));
+            }
+        }
+
+        assertEquals(List.of(segment(1), segment(2), segment(3)), segments());
+        assertEquals(2L * RevocationJournal.RECORD_SIZE, Files.size(segment(1)));
+        assertEquals(2L * RevocationJournal.RECORD_SIZE, Files.size(segment(2)));
+        assertEquals(RevocationJournal.RECORD_SIZE, Files.size(segment(3)));
+        assertEquals(5, replay(2).size());
+        assertEquals(5, new RevocationJournal(directory, 2, 16).recordCount());
+    }
+
+    @Test
+    void compactDeletesOnlyExpiredInactiveSegments() throws Exception {
+        long now = System.currentTimeMillis();
+        // 分段1只有过期记录，分段2有未过期记录，分段3为空
+        try (RevocationJournal journal = started(1)) {
+            await(journal, new Record(TokenDigest.of("token-expired"), now - 1000L));
+            await(journal, new Record(TokenDigest.of("token-live"), now + HOUR_MILLIS));
+        }
+        assertEquals(List.of(segment(1), segment(2), segment(3)), segments());
+
+        try (RevocationJournal journal = new RevocationJournal(directory, 100, 16)) {
+            journal.replay((digest, expiration) -> { });
+            // 启动时删除已全部过期的分段1，继续写入空的分段3
+            journal.start();
+            assertEquals(List.of(segment(2), segment(3)), segments());
+
+            // 当前写入的分段即使全部过期也保留
+            await(journal, new Record(TokenDigest.of("token-expired-2"), now - 1000L));
+            journal.compact(System.currentTimeMillis());
+            assertEquals(List.of(segment(2), segment(3)), segments());
+        }
+    }
+
+    @Test
+    void writeFailureMovesToNewSegment() throws Exception {
+        long expiration = System.currentTimeMillis() + HOUR_MILLIS;
+        Record lost = new Record(TokenDigest.of("token-lost"), expiration);
+        Record kept = new Record(TokenDigest.of("token-kept"), expiration);
+        try (RevocationJournal journal = started(100)) {
+            // 写线程空闲时关闭当前分段，下一批写入失败
+            activeChannel(journal).close();
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> await(journal, lost));
+            assertInstanceOf(IOException.class, failure.getCause());
+
+            await(journal, kept);
+        }
+
+        assertEquals(List.of(segment(1), segment(2)), segments());
+        assertEquals(0L, Files.size(segment(1)));
+        assertEquals(List.of(kept), replay(100));
+    }
+
+    private RevocationJournal started(long maxRecordsPerSegment) throws IOException {
+        RevocationJournal journal = new RevocationJournal(directory, maxRecordsPerSegment, 16);
+        journal.replay((digest, expiration) -> { });
+        journal.start();
+        return journal;
+    }
+
+    private List<Record> replay(long maxRecordsPerSegment) throws IOException {
+        List<Record> records = new ArrayList<>();
+        new RevocationJournal(directory, maxRecordsPerSegment, 16)
+                .replay((digest, expiration) -> records.add(new Record(digest, expiration)));
+        return records;
+    }
+
+    private static void await(RevocationJournal journal, Record record) throws Exception {
+        journal.append(record.digest(), record.expiration()).get(5, TimeUnit.SECONDS);
+    }
+
+    private Path segment(long segment) {
+        return directory.resolve(String.format("revocations-%010d.log", segment));
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static FileChannel activeChannel(RevocationJournal journal) throws ReflectiveOperationException {
+        Field field = RevocationJournal.class.getDeclaredField("activeChannel");
+        field.setAccessible(true);
+        return (FileChannel) field.get(journal);
+    }
+
+    private record Record(TokenDigest digest, long expiration) {
+    }
+}
@@ -0,0 +1,62 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SearchTextTests {
+
+    @Test
+    void termsSplitOnNonAlphanumericAndDeduplicate() {
+        assertEquals(List.of("lunch", "cafe", "2024"), SearchText.terms("Lunch, CAFE & lunch:2024"));
+        assertEquals(List.of("午餐", "coffee"), SearchText.terms("午餐 coffee"));
+        assertTrue(SearchText.terms("  +-*  ").isEmpty());
+    }
+
+    @Test
+    void tsQueryUsesPrefixMatchAndCannotInjectOperators() {
+        assertEquals("lunch:* & cafe:*", SearchText.toTsQuery(SearchText.terms("lunch | !cafe")));
+        assertEquals("a:* & b:*", SearchText.toTsQuery(SearchText.terms("a:* & b')")));
+        assertNull(SearchText.toTsQuery(List.of()));
+    }
+
+    @Test
+    void likePatternEscapesWildcards() {
+        assertEquals("%100\\%\\_off\\\\%", SearchText.likePattern("100%_off\\"));
+    }
+
+    @Test
+    void highlightMarksAllTermsInFirstMatchingField() {
+        assertEquals("<mark>Lunch</mark> at <mark>cafe</mark>",
+                SearchText.highlight(List.of("lunch", "cafe"), null, "Lunch at cafe", "cafe"));
+        // 第一个字段没有命中时取后面的字段
+        assertEquals("<mark>cafe</mark>", SearchText.highlight(List.of("cafe"), "lunch", "", "cafe"));
+        assertNull(SearchText.highlight(List.of("dinner"), "lunch", null));
+    }
+
+    @Test
+    void highlightPrefersLongestTermAndEscapesHtml() {
+        assertEquals("&lt;b&gt;<mark>cafeteria</mark>&lt;/b&gt;",
+                SearchText.highlight(List.of("cafe", "cafeteria"), "<b>cafeteria</b>"));
+    }
+
+    @Test
+    void highlightTrimsLongFieldsAroundFirstMatch() {
+        String field = "a".repeat(50) + "lunch" + "b".repeat(50);
+        String snippet = SearchText.highlight(List.of("lunch"), field);
+        assertEquals("…" + "a".repeat(20) + "<mark>lunch</mark>" + "b".repeat(35) + "…", snippet);
+    }
+
+    @Test
+    void containsAllAndOccurrencesIgnoreCase() {
+        assertTrue(SearchText.containsAll(List.of("lunch", "cafe"), "CAFE LUNCH"));
+        assertFalse(SearchText.containsAll(List.of("lunch", "dinner"), "lunch"));
+        assertEquals(3, SearchText.occurrences(List.of("ab", "c"), "abAB c"));
+        assertEquals(0, SearchText.occurrences(List.of("ab"), null));
+    }
+}
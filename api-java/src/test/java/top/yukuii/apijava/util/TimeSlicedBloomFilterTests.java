@@ -0,0 +1,86 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TimeSlicedBloomFilterTests {
+
+    private static final long SLICE = 1000L;
+
+    @Test
+    void findsDigestInItsExpirySlice() {
+        TimeSlicedBloomFilter filter = new TimeSlicedBloomFilter(SLICE, 2 * SLICE, 1000L, 0.01);
+        TokenDigest digest = TokenDigest.of("token-a");
+        filter.put(digest, 1500L);
+
+        assertTrue(filter.mightContain(digest, 1500L));
+        assertTrue(filter.mightContain(digest, 1999L));
+        // 过期时间落在其他窗口，一定不存在
+        assertFalse(filter.mightContain(digest, 2500L));
+        assertFalse(filter.mightContain(TokenDigest.of("token-b"), 1500L));
+        assertEquals(4, filter.getLookups());
+        assertEquals(2, filter.getNegatives());
+    }
+
+    @Test
+    void sliceIsResetWhenWindowComesAround() {
+        // 2个TTL窗口 + 2 = 4个分片，窗口0和窗口4共用同一个分片
+        TimeSlicedBloomFilter filter = new TimeSlicedBloomFilter(SLICE, 2 * SLICE, 1000L, 0.01);
+        TokenDigest old = TokenDigest.of("token-old");
+        TokenDigest fresh = TokenDigest.of("token-new");
+        filter.put(old, 500L);
+        filter.put(fresh, 4500L);
+
+        assertFalse(filter.mightContain(old, 500L));
+        assertTrue(filter.mightContain(fresh, 4500L));
+    }
+
+    @Test
+    void mightContainAnyIgnoresExpiredSlices() {
+        TimeSlicedBloomFilter filter = new TimeSlicedBloomFilter(SLICE, 10 * SLICE, 1000L, 0.01);
+        TokenDigest digest = TokenDigest.of("token-a");
+        filter.put(digest, 5500L);
+
+        assertTrue(filter.mightContainAny(digest, 1000L));
+        assertTrue(filter.mightContainAny(digest, 5999L));
+        assertFalse(filter.mightContainAny(digest, 6000L));
+        assertFalse(filter.mightContainAny(TokenDigest.of("token-b"), 1000L));
+    }
+
+    @Test
+    void clearDropsAllSlices() {
+        TimeSlicedBloomFilter filter = new TimeSlicedBloomFilter(SLICE, 2 * SLICE, 1000L, 0.01);
+        TokenDigest digest = TokenDigest.of("token-a");
+        filter.put(digest, 1500L);
+        filter.clear();
+
+        assertFalse(filter.mightContain(digest, 1500L));
+        assertEquals(0.0, filter.estimatedFalsePositiveRate(0L));
+    }
+
+    @Test
+    void observedFalsePositiveRate() {
+        TimeSlicedBloomFilter filter = new TimeSlicedBloomFilter(SLICE, 2 * SLICE, 1000L, 0.01);
+        assertEquals(0.0, filter.observedFalsePositiveRate());
+
+        for (int i = 0; i < 3; i++) {
+            filter.mightContain(TokenDigest.of("absent-" + i), 1500L);
+        }
+        filter.recordFalsePositive();
+
+        assertEquals(3, filter.getNegatives());
+        assertEquals(1, filter.getFalsePositives());
+        assertEquals(0.25, filter.observedFalsePositiveRate());
+    }
+
+    @Test
+    void rejectsInvalidWindows() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeSlicedBloomFilter(0L, SLICE, 1000L, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new TimeSlicedBloomFilter(-SLICE, SLICE, 1000L, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new TimeSlicedBloomFilter(SLICE, -1L, 1000L, 0.01));
+    }
+}
@@ -0,0 +1,86 @@
+package top.yukuii.apijava.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import top.yukuii.apijava.model.enums.FileFormat;
+import top.yukuii.apijava.util.TransactionRecordReader.ImportRecord;
+
+class TransactionRecordReaderTests {
+
+    @Test
+    void csvHeadersAreNormalized() throws IOException {
+        for (String header : List.of("transaction_date", "transactionDate", "TransactionDate", " TRANSACTION_DATE ")) {
+            List<ImportRecord> records = read(FileFormat.CSV, header + ",Amount\n2024-01-02,12.50\n");
+
+            assertEquals(1, records.size(), header);
+            assertEquals(Map.of("transactiondate", "2024-01-02", "amount", "12.50"), records.get(0).fields(), header);
+        }
+    }
+
+    @Test
+    void csvBomIsRemoved() throws IOException {
+        List<ImportRecord> records = read(FileFormat.CSV, "\uFEFFdate,amount\n2024-01-02,1\n");
+
+        assertEquals("2024-01-02", records.get(0).fields().get("date"));
+    }
+
+    @Test
+    void csvRowWithWrongFieldCountIsReported() throws IOException {
+        List<ImportRecord> records = read(FileFormat.CSV, "date,amount\n2024-01-02,1\n2024-01-03\n2024-01-04,3,extra\n2024-01-05,5\n");
+
+        assertEquals(4, records.size());
+        assertNull(records.get(0).error());
+        // 行号从表头开始计数
+        assertEquals(3, records.get(1).line());
+        assertEquals("字段数与表头不一致", records.get(1).error());
+        assertNull(records.get(1).fields());
+        assertEquals("字段数与表头不一致", records.get(2).error());
+        assertEquals(Map.of("date", "2024-01-05", "amount", "5"), records.get(3).fields());
+    }
+
+    @Test
+    void ndjsonFieldsAreNormalized() throws IOException {
+        List<ImportRecord> records = read(FileFormat.NDJSON,
+                "\uFEFF{\"transaction_date\":\"2024-01-02\",\"Amount\":-3.5,\"remark\":null}\n\n{\"paymentMethod\":\" wechat \"}\n");
+
+        assertEquals(2, records.size());
+        assertEquals(1, records.get(0).line());
+        assertEquals(Map.of("transactiondate", "2024-01-02", "amount", "-3.5"), records.get(0).fields());
+        // 空行跳过但计入行号
+        assertEquals(3, records.get(1).line());
+        assertEquals(Map.of("paymentmethod", "wechat"), records.get(1).fields());
+    }
+
+    @Test
+    void invalidNdjsonLineIsReported() throws IOException {
+        List<ImportRecord> records = read(FileFormat.NDJSON, "{\"amount\":1}\n{not json\n[1,2]\n{\"amount\":2}\n");
+
+        assertEquals(4, records.size());
+        assertEquals(2, records.get(1).line());
+        assertEquals("不是有效的JSON对象", records.get(1).error());
+        assertEquals("不是有效的JSON对象", records.get(2).error());
+        assertEquals(Map.of("amount", "2"), records.get(3).fields());
+    }
+
+    private static List<ImportRecord> read(FileFormat format, String content) throws IOException {
+        List<ImportRecord> records = new ArrayList<>();
+        try (TransactionRecordReader reader = new TransactionRecordReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format)) {
+            ImportRecord record;
+            while ((record = reader.next()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}